@@ -0,0 +1,68 @@
+package com.ms.credit.cache;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ms.credit.entity.CreditScore;
+
+/**
+ * Compares the compact binary cache encoding with the GenericJackson2JsonRedisSerializer it replaced.
+ * Bytes per entry for both formats are printed once during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RedisValueSerializationBenchmark {
+
+    private CreditScoreRedisSerializer binarySerializer;
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private CreditScore creditScore;
+    private byte[] binaryBytes;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() {
+        binarySerializer = new CreditScoreRedisSerializer();
+        // The score date is a LocalDateTime, so the JSON baseline needs the java.time module.
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        mapper.activateDefaultTyping(mapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.EVERYTHING, JsonTypeInfo.As.PROPERTY);
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(mapper);
+        creditScore = new CreditScore(123456, 731L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        creditScore.setId(987654);
+        binaryBytes = binarySerializer.serialize(creditScore);
+        jsonBytes = jsonSerializer.serialize(creditScore);
+        System.out.println("bytes/entry binary=" + binaryBytes.length + " json=" + jsonBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(creditScore);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() {
+        return jsonSerializer.serialize(creditScore);
+    }
+
+    @Benchmark
+    public CreditScore deserializeBinary() {
+        return binarySerializer.deserialize(binaryBytes);
+    }
+
+    @Benchmark
+    public Object deserializeJson() {
+        return jsonSerializer.deserialize(jsonBytes);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ms.credit.scoring;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares scoring 10M users row by row on one thread with the columnar fork/join pass used by bulk rescoring.
+ * Needs a heap of about 1 GB for the columns.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class BulkRescoringBenchmark {
+
+    @Param({"10000000"})
+    public int users;
+
+    private ScoringModel model;
+    private double[][] columns;
+    private double[] rows;
+    private int[] scores;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() throws IOException {
+        model = ScorecardModelBenchmark.defaultScorecard();
+        columns = new double[TransactionFeatureState.FEATURES][users];
+        rows = new double[users * TransactionFeatureState.FEATURES];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < users; i++) {
+            for (int f = 0; f < TransactionFeatureState.FEATURES; f++) {
+                double value = f == TransactionFeatureState.LOAN_PAYMENT_COUNT ? random.nextInt(15) : random.nextDouble(0, 20000);
+                columns[f][i] = value;
+                rows[i * TransactionFeatureState.FEATURES + f] = value;
+            }
+        }
+        scores = new int[users];
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int[] rowByRowSingleThread() {
+        for (int i = 0; i < users; i++) {
+            scores[i] = model.score(rows, i * TransactionFeatureState.FEATURES);
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public int[] columnarForkJoin() {
+        BulkRescoringService.scoreParallel(pool, model, columns, users, scores, 65536);
+        return scores;
+    }
+}
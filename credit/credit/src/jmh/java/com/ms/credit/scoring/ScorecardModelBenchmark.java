@@ -0,0 +1,59 @@
+package com.ms.credit.scoring;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Measures evaluations per second of the compiled default scorecard over users' feature vectors laid out back to
+ * back, as in the streaming feature state. Run with -prof gc to confirm evaluations do not allocate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class ScorecardModelBenchmark {
+
+    private static final int USERS = 4096;
+
+    private ScoringModel model;
+    private double[] features;
+    private int next;
+
+    static ScorecardModel defaultScorecard() throws IOException {
+        try (InputStream inputStream = ScorecardModelBenchmark.class.getResourceAsStream("/scoring/scorecard.json")) {
+            return ScorecardModel.compile(inputStream, new ObjectMapper());
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        model = defaultScorecard();
+        features = new double[USERS * TransactionFeatureState.FEATURES];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int user = 0; user < USERS; user++) {
+            int offset = user * TransactionFeatureState.FEATURES;
+            features[offset + TransactionFeatureState.CREDIT] = random.nextDouble(0, 20000);
+            features[offset + TransactionFeatureState.DEBIT] = random.nextDouble(0, 20000);
+            features[offset + TransactionFeatureState.LOAN_PAYMENT] = random.nextDouble(0, 5000);
+            features[offset + TransactionFeatureState.LOAN_PAYMENT_COUNT] = random.nextInt(15);
+            features[offset + TransactionFeatureState.TRANSACTIONS] = random.nextInt(200);
+        }
+    }
+
+    @Benchmark
+    public int score() {
+        next = (next + 1) & (USERS - 1);
+        return model.score(features, next * TransactionFeatureState.FEATURES);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ms.credit.scoring;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures events applied per second to the streaming feature state, including the score recomputation.
+ * The single-threaded run gives events/sec per core; the four-thread run shows how the lock stripes scale.
+ * Event times advance one hour every 1000 events so bucket rolls are part of the measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class TransactionScoringBenchmark {
+
+    private static final long WINDOW_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+    @Param({"10000", "1000000"})
+    public int users;
+
+    private TransactionFeatureState state;
+
+    @Setup
+    public void setUp() throws IOException {
+        state = new TransactionFeatureState(64, 1024, WINDOW_MILLIS, 6, ScorecardModelBenchmark.defaultScorecard());
+    }
+
+    @State(Scope.Thread)
+    public static class Clock {
+        long events;
+
+        long next() {
+            return (events++ / 1000) * TimeUnit.HOURS.toMillis(1);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean recordSingleThread(Clock clock) {
+        return record(clock);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean recordFourThreads(Clock clock) {
+        return record(clock);
+    }
+
+    private boolean record(Clock clock) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return state.record(random.nextInt(users), clock.next(), random.nextInt(3), random.nextDouble(1, 2000), null);
+    }
+}
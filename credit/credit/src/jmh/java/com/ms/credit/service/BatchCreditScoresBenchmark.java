@@ -0,0 +1,48 @@
+package com.ms.credit.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ms.credit.dto.CreditScoreDTO;
+import com.ms.credit.entity.CreditScore;
+
+/**
+ * Measures the in-process cost of calculateBatchCreditScores (mapping, collection building, cache eviction bookkeeping)
+ * for growing batch sizes, with the repository and cache stubbed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BatchCreditScoresBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int batchSize;
+
+    private CreditScoreService creditScoreService;
+    private List<CreditScoreDTO> batch;
+
+    @Setup
+    public void setUp() {
+        creditScoreService = BenchmarkStubs.creditScoreService(new CreditScore(1, 700L, LocalDateTime.of(2024, 5, 1, 0, 0)), true);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new CreditScoreDTO(i, 300L + (i % 550), "2024-05-01"));
+        }
+    }
+
+    @Benchmark
+    public List<CreditScoreDTO> calculateBatchCreditScores() {
+        return creditScoreService.calculateBatchCreditScores(batch);
+    }
+}
@@ -0,0 +1,195 @@
+package com.ms.credit.service;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.cache.CreditScoreSnapshotService;
+import com.ms.credit.client.UserManagementClient;
+import com.ms.credit.dto.NotificationDTO;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.entity.CurrentCreditScore;
+import com.ms.credit.repository.CreditScoreRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hand-written, allocation-light stand-ins for the collaborators of CreditScoreService.
+ * Mocking frameworks would dominate the measured time, so the stubs return canned values directly.
+ */
+final class BenchmarkStubs {
+
+    static final String EMAIL = "bench@example.com";
+
+    private BenchmarkStubs() {
+    }
+
+    /**
+     * Builds a CreditScoreService wired to stubs; the cache either always hits or always misses.
+     */
+    static CreditScoreService creditScoreService(CreditScore stored, boolean cacheHit) {
+        CreditScoreService service = new CreditScoreService();
+        ReflectionTestUtils.setField(service, "creditScoreRepository", repository());
+        ReflectionTestUtils.setField(service, "currentCreditScoreRepository", currentRepository(stored));
+        ReflectionTestUtils.setField(service, "creditScoreCache", cache(cacheHit ? stored : null));
+        ReflectionTestUtils.setField(service, "creditScoreSnapshotService", snapshotService());
+        ReflectionTestUtils.setField(service, "creditScoreAggregateService", aggregateService());
+        ReflectionTestUtils.setField(service, "userManagementClient", userManagementClient());
+        ReflectionTestUtils.setField(service, "notificationGate", notificationGate(notificationPublisher(kafkaTemplate())));
+        return service;
+    }
+
+    /**
+     * Repository stub echoing saves back; latest-score lookups go through the current-score repository.
+     */
+    static CreditScoreRepository repository() {
+        return (CreditScoreRepository) Proxy.newProxyInstance(CreditScoreRepository.class.getClassLoader(),
+                new Class<?>[] {CreditScoreRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "save":
+                        case "saveAndFlush":
+                        case "saveAll":
+                            return args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "CreditScoreRepositoryStub";
+                        default:
+                            return null;  // Not used by the benchmarked paths.
+                    }
+                });
+    }
+
+    /**
+     * Projection repository stub answering latest-score lookups from the fixed row; maintenance statements are no-ops.
+     */
+    static CurrentCreditScoreRepository currentRepository(CreditScore stored) {
+        CurrentCreditScore current = new CurrentCreditScore();
+        current.setUserId(stored.getUserId());
+        current.setScoreId(stored.getId());
+        current.setScore(stored.getScore());
+        current.setDate(stored.getDate());
+        Optional<CurrentCreditScore> found = Optional.of(current);
+        return (CurrentCreditScoreRepository) Proxy.newProxyInstance(CurrentCreditScoreRepository.class.getClassLoader(),
+                new Class<?>[] {CurrentCreditScoreRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return found;
+                        case "findFirstByEmailId":
+                            return current;
+                        case "refreshForUsers":
+                        case "syncScoresInRange":
+                            return 1;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "CurrentCreditScoreRepositoryStub";
+                        default:
+                            return null;  // Not used by the benchmarked paths.
+                    }
+                });
+    }
+
+    static CreditScoreCache cache(CreditScore cached) {
+        return new CreditScoreCache() {
+            @Override
+            public CreditScore get(int userId) {
+                return cached;
+            }
+
+            @Override
+            public Mono<CreditScore> getReactive(int userId) {
+                return Mono.justOrEmpty(cached);
+            }
+
+            @Override
+            public void fill(CreditScore creditScore) {
+            }
+
+            @Override
+            public void put(CreditScore creditScore) {
+            }
+
+            @Override
+            public void evictAll(Collection<Integer> userIds) {
+            }
+        };
+    }
+
+    /**
+     * Snapshot stub that never holds a score, so cache misses reach the repository stubs.
+     */
+    static CreditScoreSnapshotService snapshotService() {
+        return new CreditScoreSnapshotService() {
+            @Override
+            public CreditScore get(int userId) {
+                return null;
+            }
+        };
+    }
+
+    static CreditScoreAggregateService aggregateService() {
+        return new CreditScoreAggregateService() {
+            @Override
+            public void recordInserts(Collection<Long> scores) {
+            }
+        };
+    }
+
+    static UserManagementClient userManagementClient() {
+        Mono<String> email = Mono.just(EMAIL);
+        return new UserManagementClient() {
+            @Override
+            public Mono<String> getUserDetails(int userId) {
+                return email;
+            }
+        };
+    }
+
+    /**
+     * A real publisher around the given template, with an in-memory meter registry.
+     */
+    static NotificationPublisher notificationPublisher(KafkaTemplate<String, NotificationDTO> kafkaTemplate) {
+        NotificationPublisher publisher = new NotificationPublisher();
+        ReflectionTestUtils.setField(publisher, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(publisher, "meterRegistry", new SimpleMeterRegistry());
+        publisher.init();
+        return publisher;
+    }
+
+    /**
+     * Gate stub that lets every offer through, so the benchmark measures the publish path without Redis.
+     */
+    static NotificationGate notificationGate(NotificationPublisher publisher) {
+        return new NotificationGate() {
+            @Override
+            public void offer(int userId, Long score, String emailId) {
+                publisher.publish(userId, score, emailId);
+            }
+        };
+    }
+
+    static KafkaTemplate<String, NotificationDTO> kafkaTemplate() {
+        CompletableFuture<SendResult<String, NotificationDTO>> sent = CompletableFuture.completedFuture(null);
+        return new KafkaTemplate<String, NotificationDTO>(new DefaultKafkaProducerFactory<>(Map.of())) {
+            @Override
+            public CompletableFuture<SendResult<String, NotificationDTO>> send(String topic, String key, NotificationDTO data) {
+                return sent;
+            }
+        };
+    }
+}
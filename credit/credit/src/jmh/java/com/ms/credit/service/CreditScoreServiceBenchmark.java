@@ -0,0 +1,55 @@
+package com.ms.credit.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ms.credit.dto.CreditScoreDTO;
+import com.ms.credit.entity.CreditScore;
+
+/**
+ * Measures the per-request work of CreditScoreService with all I/O stubbed out:
+ * entity/DTO conversion and the score lookup path on a cache hit and on a cache miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class CreditScoreServiceBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cacheHit;
+
+    private CreditScoreService creditScoreService;
+    private CreditScore creditScore;
+    private CreditScoreDTO creditScoreDTO;
+
+    @Setup
+    public void setUp() {
+        creditScore = new CreditScore(42, 731L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        creditScoreDTO = new CreditScoreDTO(42, 731L, "2024-05-01");
+        creditScoreService = BenchmarkStubs.creditScoreService(creditScore, cacheHit);
+    }
+
+    @Benchmark
+    public CreditScoreDTO convertToDTO() {
+        return creditScoreService.convertToDTO(creditScore);
+    }
+
+    @Benchmark
+    public CreditScore convertToEntity() {
+        return creditScoreService.convertToEntity(creditScoreDTO);
+    }
+
+    @Benchmark
+    public CreditScoreDTO getCreditScoreByEmailId() {
+        return creditScoreService.getCreditScoreByEmailId(42);
+    }
+}
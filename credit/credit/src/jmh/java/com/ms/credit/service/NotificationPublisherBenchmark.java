@@ -0,0 +1,81 @@
+package com.ms.credit.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.ms.credit.config.KafkaProducerConfig;
+import com.ms.credit.dto.NotificationDTO;
+
+/**
+ * Notification throughput against an in-process Kafka broker.
+ * "baseline" is the previous path: unkeyed sends with no linger, compression or idempotence.
+ * "tuned" goes through NotificationPublisher with the default producer settings of KafkaProducerConfig.
+ * Each invocation publishes a burst and flushes, so the score counts acknowledged records per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class NotificationPublisherBenchmark {
+
+    private static final int BURST = 10_000;
+    private static final int USERS = 1_000;
+
+    @Param({"baseline", "tuned"})
+    public String producer;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private DefaultKafkaProducerFactory<String, NotificationDTO> producerFactory;
+    private KafkaTemplate<String, NotificationDTO> kafkaTemplate;
+    private NotificationPublisher publisher;
+    private NotificationDTO notification;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 6, NotificationPublisher.CREDIT_SCORE_UPDATE);
+        broker.afterPropertiesSet();
+        Map<String, Object> props = "baseline".equals(producer)
+                ? KafkaProducerConfig.producerProperties(broker.getBrokersAsString(), 0, 16384, "none", false, Duration.ofMinutes(2))
+                : KafkaProducerConfig.producerProperties(broker.getBrokersAsString(), 20, 65536, "lz4", true, Duration.ofMinutes(2));
+        producerFactory = new DefaultKafkaProducerFactory<>(props);
+        kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        publisher = BenchmarkStubs.notificationPublisher(kafkaTemplate);
+        notification = new NotificationDTO(731L, BenchmarkStubs.EMAIL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public void publishBurst() {
+        if ("baseline".equals(producer)) {
+            for (int i = 0; i < BURST; i++) {
+                kafkaTemplate.send(NotificationPublisher.CREDIT_SCORE_UPDATE, notification);
+            }
+        } else {
+            for (int i = 0; i < BURST; i++) {
+                publisher.publish(i % USERS, 731L, BenchmarkStubs.EMAIL);
+            }
+        }
+        kafkaTemplate.flush();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ms.credit.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.ms.credit.dto.NotificationDTO;
+
+/**
+ * Measures the Kafka value serialization of a score notification with the serializer the producer is configured with.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class NotificationSerializationBenchmark {
+
+    private JsonSerializer<NotificationDTO> serializer;
+    private NotificationDTO notification;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>();
+        notification = new NotificationDTO(731L, BenchmarkStubs.EMAIL);
+    }
+
+    @Benchmark
+    public byte[] serializeNotification() {
+        return serializer.serialize("credit-score-updates", notification);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ms.credit.batch;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Upload formats accepted by the streaming batch endpoints.
+ */
+public enum BatchFormat {
+    NDJSON,  // One CreditScoreDTO JSON object per line.
+    CSV;     // userId,score,date per line, with an optional header row.
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    /**
+     * Resolves the format from a request content type.
+     * @param contentType The Content-Type header of the upload.
+     * @return the matching BatchFormat.
+     */
+    public static BatchFormat fromContentType(String contentType) {
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))) {
+                return CSV;
+            }
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON_VALUE))) {
+                return NDJSON;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported batch content type: " + contentType);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ms.credit.batch;
+
+// Import necessary Spring, Jackson and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.dto.BatchIngestSummaryDTO;
+import com.ms.credit.dto.CreditScoreDTO;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreBatchRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import com.ms.credit.service.CreditScoreAggregateService;
+import com.ms.credit.util.ScoreDates;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams batch uploads of credit scores into the database in fixed-size chunks.
+ * Each chunk is written with one JDBC batch in its own transaction, so heap use and transaction size
+ * stay constant regardless of how many rows the upload contains.
+ */
+@Service
+public class BatchIngestService {
+
+    private static final Logger logger = LogManager.getLogger(BatchIngestService.class);
+
+    @Autowired
+    private CreditScoreBatchRepository creditScoreBatchRepository;
+    @Autowired
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+    @Autowired
+    private CreditScoreCache creditScoreCache;
+    @Autowired
+    private CreditScoreAggregateService creditScoreAggregateService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Number of rows written per JDBC batch and transaction.
+    @Value("${credit.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Callback invoked inside each chunk's transaction, after its rows have been written.
+     */
+    public interface ChunkCallback {
+        /**
+         * @param chunk       Zero-based index of the chunk within this run.
+         * @param recordsDone Total well-formed records consumed so far, including skipped ones.
+         * @param written     Rows written by this chunk; 0 if the chunk failed.
+         * @param failed      Rows of this chunk that could not be written, including records rejected for an invalid date.
+         */
+        void onChunk(int chunk, long recordsDone, int written, int failed);
+    }
+
+    /**
+     * Opens a record reader over an upload in the given format.
+     * @param inputStream The raw upload.
+     * @param format      The upload format.
+     * @return a reader yielding one CreditScoreDTO per well-formed line.
+     */
+    public CreditScoreRecordReader openReader(InputStream inputStream, BatchFormat format) {
+        return new CreditScoreRecordReader(inputStream, format, objectMapper.reader());
+    }
+
+    /**
+     * Ingests a whole upload synchronously.
+     * @param inputStream The raw upload.
+     * @param format      The upload format.
+     * @return a summary of rows read, written and failed.
+     */
+    public BatchIngestSummaryDTO ingest(InputStream inputStream, BatchFormat format) {
+        try (CreditScoreRecordReader reader = openReader(inputStream, format)) {
+            return ingest(reader, 0, (chunk, recordsDone, written, failed) -> { });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ingests records from a reader, optionally skipping records already committed by an earlier run.
+     * @param reader        Source of records.
+     * @param recordsToSkip Number of leading well-formed records to skip.
+     * @param callback      Invoked in each chunk's transaction so callers can record progress atomically with the data.
+     * @return a summary of rows read, written and failed in this run.
+     */
+    public BatchIngestSummaryDTO ingest(CreditScoreRecordReader reader, long recordsToSkip, ChunkCallback callback) {
+        long start = System.currentTimeMillis();
+        long recordsDone = 0;
+        long written = 0;
+        long failed = 0;
+        int chunk = 0;
+        int rejected = 0;  // Records of the current chunk with an unparseable date
+        List<CreditScore> buffer = new ArrayList<>(chunkSize);
+        CreditScoreDTO record;
+        while ((record = reader.next()) != null) {
+            recordsDone++;
+            if (recordsDone <= recordsToSkip) {
+                continue;
+            }
+            try {
+                buffer.add(toEntity(record));
+            } catch (IllegalArgumentException e) {
+                rejected++;  // Unparseable date; counted like a malformed line and reported with the chunk.
+                continue;
+            }
+            if (buffer.size() == chunkSize) {
+                int chunkWritten = writeChunk(buffer, rejected, chunk++, recordsDone, callback);
+                written += chunkWritten;
+                failed += buffer.size() - chunkWritten + rejected;
+                buffer.clear();
+                rejected = 0;
+            }
+        }
+        if (!buffer.isEmpty()) {
+            int chunkWritten = writeChunk(buffer, rejected, chunk++, recordsDone, callback);
+            written += chunkWritten;
+            failed += buffer.size() - chunkWritten + rejected;
+        } else if (rejected > 0) {
+            int trailing = rejected;
+            long done = recordsDone;
+            int index = chunk;
+            transactionTemplate.executeWithoutResult(status -> callback.onChunk(index, done, 0, trailing));
+            failed += rejected;
+        }
+        failed += reader.getMalformedLines();
+        long elapsed = System.currentTimeMillis() - start;
+        logger.info("Batch ingest finished: " + written + " rows written, " + failed + " failed in " + chunk + " chunks, " + elapsed + " ms");
+        return new BatchIngestSummaryDTO(recordsDone + reader.getMalformedLines(), written, failed, chunk, elapsed);
+    }
+
+    // Writes one chunk and runs the callback in the same transaction; a failed chunk is recorded and skipped.
+    // Rejected records of the chunk are reported to the callback as failed along with it.
+    private int writeChunk(List<CreditScore> buffer, int rejected, int chunk, long recordsDone, ChunkCallback callback) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                creditScoreBatchRepository.insertAll(buffer);
+                currentCreditScoreRepository.refreshForUsers(buffer.stream().map(CreditScore::getUserId).collect(Collectors.toSet()));
+                callback.onChunk(chunk, recordsDone, buffer.size(), rejected);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Batch chunk " + chunk + " failed: " + e.getMessage());
+            transactionTemplate.executeWithoutResult(status -> callback.onChunk(chunk, recordsDone, 0, buffer.size() + rejected));
+            return 0;
+        }
+        creditScoreCache.evictAll(buffer.stream().map(CreditScore::getUserId).collect(Collectors.toSet()));
+        creditScoreAggregateService.recordInserts(buffer.stream().map(CreditScore::getScore).collect(Collectors.toList()));
+        return buffer.size();
+    }
+
+    private static CreditScore toEntity(CreditScoreDTO creditScoreDTO) {
+        return new CreditScore(creditScoreDTO.getUserId(), creditScoreDTO.getScore(), ScoreDates.parse(creditScoreDTO.getDate()));
+    }
+}
@@ -0,0 +1,245 @@
+package com.ms.credit.batch;
+
+// Import necessary Spring, Jackson and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.credit.dto.BatchIngestSummaryDTO;
+import com.ms.credit.dto.BatchJobDTO;
+import com.ms.credit.entity.BatchJob;
+import com.ms.credit.repository.BatchJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs batch score uploads as asynchronous jobs.
+ * A submission is spooled to local disk and acknowledged with a job id right away; a bounded executor then ingests it
+ * chunk by chunk. Progress is committed together with each chunk, so after a restart a job resumes from its last
+ * committed chunk instead of starting over.
+ */
+@Service
+public class BatchJobService {
+
+    private static final Logger logger = LogManager.getLogger(BatchJobService.class);
+    // Length of the batch_jobs.error column.
+    private static final int ERROR_MAX_LENGTH = 255;
+
+    @Autowired
+    private BatchIngestService batchIngestService;
+    @Autowired
+    private BatchJobRepository batchJobRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Directory holding the uploaded files until their jobs complete.
+    @Value("${credit.batch.jobs.spool-dir:${java.io.tmpdir}/credit-batch-jobs}")
+    private String spoolDir;
+
+    // Number of jobs processed concurrently.
+    @Value("${credit.batch.jobs.threads:2}")
+    private int threads;
+
+    // Number of jobs allowed to wait for a free thread before submissions are rejected.
+    @Value("${credit.batch.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Creates the spool directory and the bounded job executor.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Paths.get(spoolDir));
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "batch-job-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * Stops taking new work on shutdown; jobs that are cut off resume on the next start.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Re-queues jobs that were queued or running when the service last stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<BatchJob> unfinished = batchJobRepository.findByStatusIn(List.of(BatchJob.Status.QUEUED, BatchJob.Status.RUNNING));
+        for (BatchJob job : unfinished) {
+            if (Files.exists(Paths.get(job.getSpoolPath()))) {  // Spool files are local, so only this node can resume them.
+                logger.info("Resuming batch job " + job.getId() + " after record " + job.getRecordsDone());
+                enqueue(job);
+            }
+        }
+    }
+
+    /**
+     * Spools an upload to disk, records a new job and queues it for processing.
+     * @param inputStream The upload body.
+     * @param contentType The upload content type: NDJSON, CSV or a JSON array of scores.
+     * @return the new job's state.
+     */
+    public BatchJobDTO submit(InputStream inputStream, String contentType) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Path spool = Paths.get(spoolDir, id);
+        BatchFormat format;
+        long lines;
+        if (contentType != null && contentType.startsWith("application/json")) {
+            lines = spoolJsonArray(inputStream, spool);  // Stored as NDJSON so it can be re-read line by line.
+            format = BatchFormat.NDJSON;
+        } else {
+            format = BatchFormat.fromContentType(contentType);
+            Files.copy(inputStream, spool);
+            lines = countLines(spool);
+        }
+        BatchJob job = new BatchJob();
+        job.setId(id);
+        job.setStatus(BatchJob.Status.QUEUED);
+        job.setFormat(format.name());
+        job.setSpoolPath(spool.toString());
+        job.setTotalLines(lines);
+        job.setCreatedAt(LocalDateTime.now());
+        job = batchJobRepository.save(job);
+        return convertToDTO(enqueue(job));
+    }
+
+    /**
+     * Returns the current state and progress of a job.
+     * @param id The job ID.
+     * @return the job's state.
+     */
+    public BatchJobDTO getJob(String id) {
+        BatchJob job = batchJobRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Batch job not found"));
+        return convertToDTO(job);
+    }
+
+    private BatchJob enqueue(BatchJob job) {
+        String id = job.getId();
+        try {
+            executor.execute(() -> run(id));
+        } catch (RejectedExecutionException e) {
+            job.setStatus(BatchJob.Status.FAILED);
+            job.setError("Batch job queue is full");
+            job.setFinishedAt(LocalDateTime.now());
+            job = batchJobRepository.save(job);
+        }
+        return job;
+    }
+
+    // Processes a job from its last committed record to the end of its spool file.
+    private void run(String id) {
+        BatchJob job = batchJobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return;
+        }
+        job.setStatus(BatchJob.Status.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job = batchJobRepository.save(job);
+        Path spool = Paths.get(job.getSpoolPath());
+        try (CreditScoreRecordReader reader = batchIngestService.openReader(Files.newInputStream(spool),
+                BatchFormat.valueOf(job.getFormat()))) {
+            BatchIngestSummaryDTO summary = batchIngestService.ingest(reader, job.getRecordsDone(),
+                    (chunk, recordsDone, written, failed) -> batchJobRepository.recordChunk(id, recordsDone, written, failed));
+            job = batchJobRepository.findById(id).orElseThrow();
+            job.setRowsFailed(job.getRowsFailed() + reader.getMalformedLines());
+            job.setStatus(BatchJob.Status.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            batchJobRepository.save(job);
+            Files.deleteIfExists(spool);
+            logger.info("Batch job " + id + " completed: " + summary.getRowsWritten() + " rows written in " + summary.getElapsedMillis() + " ms");
+        } catch (IOException | RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;  // Shutting down; the job stays RUNNING and resumes on the next start.
+            }
+            logger.error("Batch job " + id + " failed: " + e.getMessage());
+            job = batchJobRepository.findById(id).orElse(job);
+            job.setStatus(BatchJob.Status.FAILED);
+            job.setError(errorMessage(e));
+            job.setFinishedAt(LocalDateTime.now());
+            batchJobRepository.save(job);
+        }
+    }
+
+    // Rewrites a JSON array of scores as NDJSON using the streaming parser, one element in memory at a time.
+    private long spoolJsonArray(InputStream inputStream, Path spool) throws IOException {
+        long lines = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream);
+             BufferedWriter writer = Files.newBufferedWriter(spool, StandardCharsets.UTF_8)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of credit scores");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                writer.write(objectMapper.writeValueAsString(objectMapper.readTree(parser)));
+                writer.newLine();
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    // Failure reason stored with the job, cut to the column length so saving the failure cannot fail in turn.
+    private static String errorMessage(Exception e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() <= ERROR_MAX_LENGTH ? message : message.substring(0, ERROR_MAX_LENGTH);
+    }
+
+    private static long countLines(Path spool) throws IOException {
+        try (var lines = Files.lines(spool, StandardCharsets.UTF_8)) {
+            return lines.count();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BatchJobDTO convertToDTO(BatchJob job) {
+        BatchJobDTO dto = new BatchJobDTO();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus().name());
+        dto.setTotalLines(job.getTotalLines());
+        dto.setRecordsDone(job.getRecordsDone());
+        dto.setRowsWritten(job.getRowsWritten());
+        dto.setRowsFailed(job.getRowsFailed());
+        dto.setChunksDone(job.getChunksDone());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            dto.setRowsPerSecond(job.getRowsWritten() * 1000.0 / millis);
+        }
+        return dto;
+    }
+}
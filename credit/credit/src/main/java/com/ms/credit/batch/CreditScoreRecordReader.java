@@ -0,0 +1,78 @@
+package com.ms.credit.batch;
+
+// Import necessary Jackson and Java I/O classes.
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ms.credit.dto.CreditScoreDTO;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads CreditScoreDTO records one line at a time from an NDJSON or CSV upload.
+ * Only the current line is held in memory, so uploads of any size are read in constant space.
+ * Lines that cannot be parsed are counted and skipped rather than failing the whole upload.
+ */
+public class CreditScoreRecordReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final BatchFormat format;
+    private final ObjectReader jsonReader;
+    private long lineNumber;
+    private long malformedLines;
+
+    public CreditScoreRecordReader(InputStream inputStream, BatchFormat format, ObjectReader jsonReader) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonReader = jsonReader.forType(CreditScoreDTO.class);
+    }
+
+    /**
+     * Returns the next well-formed record, skipping blank and malformed lines.
+     * @return the next CreditScoreDTO, or null at the end of the upload.
+     */
+    public CreditScoreDTO next() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || (format == BatchFormat.CSV && lineNumber == 1 && line.startsWith("userId"))) {
+                    continue;  // Blank line or CSV header.
+                }
+                try {
+                    return format == BatchFormat.NDJSON ? jsonReader.readValue(line) : parseCsv(line);
+                } catch (IOException | RuntimeException e) {
+                    malformedLines++;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read batch upload at line " + lineNumber, e);
+        }
+    }
+
+    /**
+     * Number of lines skipped because they could not be parsed.
+     */
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    private static CreditScoreDTO parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("Expected userId,score[,date]");
+        }
+        String date = fields.length > 2 && !fields[2].isBlank() ? fields[2].trim() : null;
+        return new CreditScoreDTO(Integer.parseInt(fields[0].trim()), Long.parseLong(fields[1].trim()), date);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
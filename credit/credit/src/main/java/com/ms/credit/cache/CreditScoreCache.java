@@ -0,0 +1,294 @@
+package com.ms.credit.cache;
+
+// Import necessary Spring, Redis, Caffeine and Micrometer classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ms.credit.entity.CreditScore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Mono;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Two-tier cache for the latest credit score of each user.
+ * L1 is a bounded in-heap Caffeine cache, L2 is Redis. Every mutation writes through both tiers and
+ * publishes an invalidation on a Redis channel so other credit nodes drop their stale L1 entries.
+ * Mutations and invalidations are also passed to the local score snapshot, which readers consult after a miss.
+ */
+@Component
+public class CreditScoreCache {
+
+    private static final Logger logger = LogManager.getLogger(CreditScoreCache.class);
+    private static final String KEY_PREFIX = "credit-score:";
+    static final String INVALIDATION_CHANNEL = "credit-score-invalidations";
+
+    @Autowired
+    private RedisTemplate<String, CreditScore> creditScoreRedisTemplate;
+    @Autowired
+    private ReactiveRedisTemplate<String, CreditScore> reactiveCreditScoreRedisTemplate;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private CreditScoreSnapshotService creditScoreSnapshotService;
+
+    // Upper bound on the number of scores held in heap.
+    @Value("${credit.score-cache.l1.maximum-size:200000}")
+    private long l1MaximumSize;
+
+    // Safety net for missed invalidation messages: L1 entries are dropped after this long regardless.
+    @Value("${credit.score-cache.l1.expire-after-write:PT5M}")
+    private Duration l1ExpireAfterWrite;
+
+    // Time to live of the Redis entries.
+    @Value("${credit.score-cache.l2.ttl:PT24H}")
+    private Duration l2Ttl;
+
+    // Time to live of Redis entries filled from a database read, which may race with a concurrent write.
+    @Value("${credit.score-cache.l2.fill-ttl:PT1H}")
+    private Duration l2FillTtl;
+
+    // Identifies this node so it can ignore its own invalidation messages.
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private Cache<Integer, CreditScore> l1;
+    private Counter l1Hits;
+    private Counter l1Misses;
+    private Counter l2Hits;
+    private Counter l2Misses;
+    private Timer l2Latency;
+
+    /**
+     * Builds the in-heap tier, registers the per-tier metrics and subscribes to the invalidation channel.
+     */
+    @PostConstruct
+    public void init() {
+        l1 = Caffeine.newBuilder()
+                .maximumSize(l1MaximumSize)
+                .expireAfterWrite(l1ExpireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, l1, "credit-scores-l1");
+        l1Hits = meterRegistry.counter("credit.score.cache.requests", "tier", "l1", "result", "hit");
+        l1Misses = meterRegistry.counter("credit.score.cache.requests", "tier", "l1", "result", "miss");
+        l2Hits = meterRegistry.counter("credit.score.cache.requests", "tier", "l2", "result", "hit");
+        l2Misses = meterRegistry.counter("credit.score.cache.requests", "tier", "l2", "result", "miss");
+        l2Latency = meterRegistry.timer("credit.score.cache.latency", "tier", "l2");
+        listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Looks up the latest score of a user, checking the heap before Redis.
+     * @param userId The ID of the user.
+     * @return the cached CreditScore, or null if neither tier holds it.
+     */
+    public CreditScore get(int userId) {
+        CreditScore creditScore = l1.getIfPresent(userId);
+        if (creditScore != null) {
+            l1Hits.increment();
+            return creditScore;
+        }
+        l1Misses.increment();
+        creditScore = l2Latency.record(() -> creditScoreRedisTemplate.opsForValue().get(key(userId)));
+        recordL2(userId, creditScore);
+        return creditScore;
+    }
+
+    /**
+     * Non-blocking variant of {@link #get(int)}; only the Redis tier involves I/O.
+     * @param userId The ID of the user.
+     * @return a Mono emitting the cached CreditScore, or empty if neither tier holds it.
+     */
+    public Mono<CreditScore> getReactive(int userId) {
+        CreditScore creditScore = l1.getIfPresent(userId);
+        if (creditScore != null) {
+            l1Hits.increment();
+            return Mono.just(creditScore);
+        }
+        l1Misses.increment();
+        long start = System.nanoTime();
+        return reactiveCreditScoreRedisTemplate.opsForValue().get(key(userId))
+                .doOnNext(found -> l1.put(userId, found))
+                .doOnSuccess(found -> {
+                    l2Latency.record(Duration.ofNanos(System.nanoTime() - start));
+                    (found != null ? l2Hits : l2Misses).increment();
+                });
+    }
+
+    /**
+     * Looks up the latest scores of several users: heap hits first, then one MGET for the rest.
+     * @param userIds The IDs of the users.
+     * @return the cached scores by user ID; users neither tier holds are absent.
+     */
+    public Map<Integer, CreditScore> getAll(Collection<Integer> userIds) {
+        Map<Integer, CreditScore> found = new HashMap<>(l1.getAllPresent(userIds));
+        l1Hits.increment(found.size());
+        List<Integer> misses = userIds.stream().distinct().filter(userId -> !found.containsKey(userId)).collect(Collectors.toList());
+        if (misses.isEmpty()) {
+            return found;
+        }
+        l1Misses.increment(misses.size());
+        List<CreditScore> values = l2Latency.record(() -> creditScoreRedisTemplate.opsForValue()
+                .multiGet(misses.stream().map(CreditScoreCache::key).collect(Collectors.toList())));
+        for (int i = 0; i < misses.size(); i++) {
+            CreditScore creditScore = values == null ? null : values.get(i);
+            recordL2(misses.get(i), creditScore);
+            if (creditScore != null) {
+                found.put(misses.get(i), creditScore);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Bulk variant of {@link #fill(CreditScore)}: the conditional Redis writes go out in one pipeline.
+     * @param creditScores The latest CreditScores of their users, as loaded from the database.
+     */
+    public void fillAll(Collection<CreditScore> creditScores) {
+        if (creditScores.isEmpty()) {
+            return;
+        }
+        List<CreditScore> copies = creditScores.stream().map(CreditScoreCache::copyOf).collect(Collectors.toList());
+        List<Object> stored = creditScoreRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ValueOperations<String, CreditScore> values = ((RedisOperations<String, CreditScore>) operations).opsForValue();
+                copies.forEach(copy -> values.setIfAbsent(key(copy.getUserId()), copy, l2FillTtl));
+                return null;  // Pipelined replies are collected by the template.
+            }
+        });
+        for (int i = 0; i < copies.size(); i++) {
+            if (Boolean.TRUE.equals(stored.get(i))) {
+                l1.put(copies.get(i).getUserId(), copies.get(i));
+            }
+        }
+    }
+
+    /**
+     * Writes a score loaded from the database into both tiers without notifying other nodes,
+     * since it matches what is already persisted.
+     * <p>
+     * The read may have raced with a write: the Redis entry is only created if absent (SET NX), so a value written
+     * through by a concurrent {@link #put(CreditScore)} is never replaced, and L1 only takes the copy if Redis did.
+     * A fill that lands after a concurrent eviction can still store the older value, so fills use the shorter
+     * credit.score-cache.l2.fill-ttl.
+     * @param creditScore The latest CreditScore of its user.
+     */
+    public void fill(CreditScore creditScore) {
+        CreditScore copy = copyOf(creditScore);
+        if (Boolean.TRUE.equals(creditScoreRedisTemplate.opsForValue().setIfAbsent(key(copy.getUserId()), copy, l2FillTtl))) {
+            l1.put(copy.getUserId(), copy);
+        }
+    }
+
+    /**
+     * Write-through for a mutated score: updates both tiers and tells other nodes to drop their L1 copy.
+     * @param creditScore The new latest CreditScore of its user.
+     */
+    public void put(CreditScore creditScore) {
+        CreditScore copy = copyOf(creditScore);
+        l1.put(copy.getUserId(), copy);
+        creditScoreRedisTemplate.opsForValue().set(key(copy.getUserId()), copy, l2Ttl);
+        creditScoreSnapshotService.invalidate(List.of(creditScore.getUserId()));
+        publishInvalidation(List.of(creditScore.getUserId()));
+    }
+
+    /**
+     * Removes a user's score from both tiers on every node.
+     * @param userId The ID of the user.
+     */
+    public void evict(int userId) {
+        evictAll(List.of(userId));
+    }
+
+    /**
+     * Removes several users' scores from both tiers on every node, using one DEL and one message.
+     * @param userIds The IDs of the users.
+     */
+    public void evictAll(Collection<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        l1.invalidateAll(userIds);
+        creditScoreSnapshotService.invalidate(userIds);
+        creditScoreRedisTemplate.delete(userIds.stream().map(CreditScoreCache::key).collect(Collectors.toList()));
+        publishInvalidation(userIds);
+    }
+
+    // Message format: "<nodeId>|<userId>,<userId>,..."
+    private void publishInvalidation(Collection<Integer> userIds) {
+        String ids = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + "|" + ids);
+    }
+
+    // Drops the L1 entries named in an invalidation message published by another node.
+    private void onInvalidation(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            List<Integer> userIds = new ArrayList<>();
+            for (String id : body.substring(separator + 1).split(",")) {
+                userIds.add(Integer.parseInt(id));
+            }
+            l1.invalidateAll(userIds);
+            creditScoreSnapshotService.invalidate(userIds);
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed cache invalidation message: " + body);
+        }
+    }
+
+    // Counts an L2 lookup and promotes hits into L1.
+    private void recordL2(int userId, CreditScore creditScore) {
+        if (creditScore != null) {
+            l2Hits.increment();
+            l1.put(userId, creditScore);
+        } else {
+            l2Misses.increment();
+        }
+    }
+
+    private static String key(int userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    // Cached values are detached copies so later changes to a JPA-managed entity cannot leak into the cache.
+    private static CreditScore copyOf(CreditScore creditScore) {
+        CreditScore copy = new CreditScore(creditScore.getUserId(), creditScore.getScore(), creditScore.getDate());
+        copy.setId(creditScore.getId());
+        copy.setEmailId(creditScore.getEmailId());
+        copy.setLastUpdated(creditScore.getLastUpdated());
+        return copy;
+    }
+}
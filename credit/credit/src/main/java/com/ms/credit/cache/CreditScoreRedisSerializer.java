@@ -0,0 +1,213 @@
+package com.ms.credit.cache;
+
+// Import necessary Spring Data Redis and Java classes.
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.util.ScoreDates;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Compact binary Redis serializer for cached CreditScore records.
+ * <p>
+ * Layout: a version byte followed by varint-encoded fields. Integers are zig-zag encoded so negative values stay short,
+ * and a flags byte marks which nullable fields are present:
+ * <pre>
+ * version:2 | id:varint | userId:varint | flags:1 | [score:varlong] | [date:seconds varlong + nanos varint]
+ *           | [lastUpdated:seconds varlong + nanos varint] | [emailId:len varint + UTF-8]
+ * </pre>
+ * Version 1 entries (date as a UTF-8 string, no email) and entries written by the previous
+ * GenericJackson2JsonRedisSerializer, which start with '{', are still readable, so the format can be switched without
+ * flushing Redis.
+ */
+public class CreditScoreRedisSerializer implements RedisSerializer<CreditScore> {
+
+    static final byte VERSION_1 = 1;
+    static final byte VERSION_2 = 2;
+
+    private static final int HAS_SCORE = 1;
+    private static final int HAS_DATE = 1 << 1;
+    private static final int HAS_LAST_UPDATED = 1 << 2;
+    private static final int HAS_EMAIL = 1 << 3;
+
+    // Reads entries written before the binary format was introduced.
+    private final ObjectMapper legacyMapper = new ObjectMapper();
+
+    @Override
+    public byte[] serialize(CreditScore creditScore) throws SerializationException {
+        if (creditScore == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(VERSION_2);
+        writeVarLong(out, zigZag(creditScore.getId()));
+        writeVarLong(out, zigZag(creditScore.getUserId()));
+        int flags = (creditScore.getScore() != null ? HAS_SCORE : 0)
+                | (creditScore.getDate() != null ? HAS_DATE : 0)
+                | (creditScore.getLastUpdated() != null ? HAS_LAST_UPDATED : 0)
+                | (creditScore.getEmailId() != null ? HAS_EMAIL : 0);
+        out.write(flags);
+        if (creditScore.getScore() != null) {
+            writeVarLong(out, zigZag(creditScore.getScore()));
+        }
+        if (creditScore.getDate() != null) {
+            writeDateTime(out, creditScore.getDate());
+        }
+        if (creditScore.getLastUpdated() != null) {
+            writeDateTime(out, creditScore.getLastUpdated());
+        }
+        if (creditScore.getEmailId() != null) {
+            byte[] email = creditScore.getEmailId().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, email.length);
+            out.write(email, 0, email.length);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public CreditScore deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == '{' || bytes[0] == '[') {
+            return readLegacy(bytes);
+        }
+        if (bytes[0] != VERSION_1 && bytes[0] != VERSION_2) {
+            throw new SerializationException("Unsupported credit score format version: " + bytes[0]);
+        }
+        try {
+            Reader in = new Reader(bytes, 1);
+            CreditScore creditScore = new CreditScore();
+            creditScore.setId((int) unZigZag(in.readVarLong()));
+            creditScore.setUserId((int) unZigZag(in.readVarLong()));
+            int flags = in.readByte();
+            if ((flags & HAS_SCORE) != 0) {
+                creditScore.setScore(unZigZag(in.readVarLong()));
+            }
+            if ((flags & HAS_DATE) != 0) {
+                creditScore.setDate(bytes[0] == VERSION_1 ? parseLegacyDate(in.readString()) : in.readDateTime());
+            }
+            if ((flags & HAS_LAST_UPDATED) != 0) {
+                creditScore.setLastUpdated(in.readDateTime());
+            }
+            if ((flags & HAS_EMAIL) != 0) {
+                creditScore.setEmailId(in.readString());
+            }
+            return creditScore;
+        } catch (IndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated credit score entry", e);
+        }
+    }
+
+    // Legacy JSON entries carry the date as a string, so they are mapped field by field rather than bound to the entity.
+    private CreditScore readLegacy(byte[] bytes) {
+        JsonNode node;
+        try {
+            node = legacyMapper.readTree(bytes);
+        } catch (IOException e) {
+            throw new SerializationException("Unreadable legacy credit score entry", e);
+        }
+        if (!node.isObject()) {
+            throw new SerializationException("Unexpected cached value: " + node.getNodeType());
+        }
+        CreditScore creditScore = new CreditScore();
+        creditScore.setId(node.path("id").asInt());
+        creditScore.setUserId(node.path("userId").asInt());
+        if (node.hasNonNull("score")) {
+            creditScore.setScore(node.get("score").asLong());
+        }
+        creditScore.setDate(parseLegacyDate(node.path("date").asText(null)));
+        JsonNode lastUpdated = node.path("lastUpdated");
+        if (lastUpdated.isTextual()) {
+            creditScore.setLastUpdated(LocalDateTime.parse(lastUpdated.asText()));
+        } else if (lastUpdated.isArray() && lastUpdated.size() >= 5) {
+            // Jackson's default array form: [year, month, day, hour, minute, second?, nanos?]
+            creditScore.setLastUpdated(LocalDateTime.of(lastUpdated.get(0).asInt(), lastUpdated.get(1).asInt(),
+                    lastUpdated.get(2).asInt(), lastUpdated.get(3).asInt(), lastUpdated.get(4).asInt(),
+                    lastUpdated.path(5).asInt(), lastUpdated.path(6).asInt()));
+        }
+        return creditScore;
+    }
+
+    // Old entries stored whatever string the client sent; an unparseable one is dropped rather than failing the read.
+    private static LocalDateTime parseLegacyDate(String date) {
+        try {
+            return ScoreDates.parse(date);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeDateTime(ByteArrayOutputStream out, LocalDateTime value) {
+        writeVarLong(out, zigZag(value.toEpochSecond(ZoneOffset.UTC)));
+        writeVarLong(out, value.getNano());
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // Minimal cursor over the entry bytes.
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in credit score entry");
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            if (length < 0 || position + length > bytes.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        LocalDateTime readDateTime() {
+            long seconds = unZigZag(readVarLong());
+            int nanos = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+    }
+}
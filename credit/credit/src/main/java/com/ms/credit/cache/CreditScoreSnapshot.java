@@ -0,0 +1,241 @@
+package com.ms.credit.cache;
+
+import com.ms.credit.entity.CreditScore;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Read-only, memory-mapped file of the latest score of every user.
+ * <p>
+ * The file is an open-addressing hash table with linear probing. A 32-byte header holds the magic number, format
+ * version, capacity (a power of two), entry count and creation time. Every 24-byte slot holds
+ * {@code userId, scoreId, score, scoredAt}: the score is {@link #NULL_SCORE} when the stored score is null and
+ * scoredAt is in microseconds since the epoch (UTC). Lookups read the mapping with absolute primitive gets, so
+ * they copy nothing onto the heap and are safe from any number of threads.
+ * <p>
+ * A single mapping is limited to 2 GB, which caps the table at {@link #MAX_CAPACITY} slots.
+ */
+public final class CreditScoreSnapshot {
+
+    public static final long NULL_SCORE = Long.MIN_VALUE;
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    private static final int MAGIC = 0x43534E50;  // "CSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 24;
+    private static final int EMPTY = Integer.MIN_VALUE;  // userId of a free slot
+
+    private final MappedByteBuffer buffer;
+    private final int mask;
+    private final int count;
+    private final long createdAtMillis;
+
+    private CreditScoreSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.mask = buffer.getInt(8) - 1;
+        this.count = buffer.getInt(12);
+        this.createdAtMillis = buffer.getLong(16);
+    }
+
+    /**
+     * Maps a snapshot file read-only.
+     * @throws IllegalArgumentException if the file is not a complete snapshot of this format.
+     */
+    public static CreditScoreSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IllegalArgumentException("Not a credit score snapshot: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int capacity = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || Integer.bitCount(capacity) != 1
+                    || capacity > MAX_CAPACITY || size != HEADER_BYTES + (long) capacity * SLOT_BYTES) {
+                throw new IllegalArgumentException("Not a credit score snapshot: " + path);
+            }
+            return new CreditScoreSnapshot(buffer);
+        }
+    }
+
+    /**
+     * Finds the slot of a user.
+     * @return the slot, or -1 if the snapshot has no score for the user.
+     */
+    public int slotOf(int userId) {
+        for (int slot = hash(userId) & mask; ; slot = (slot + 1) & mask) {
+            int stored = buffer.getInt(offset(slot));
+            if (stored == userId) {
+                return slot;
+            }
+            if (stored == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    public int scoreId(int slot) {
+        return buffer.getInt(offset(slot) + 4);
+    }
+
+    /**
+     * Returns the score in a slot, or {@link #NULL_SCORE} if the stored score is null.
+     */
+    public long score(int slot) {
+        return buffer.getLong(offset(slot) + 8);
+    }
+
+    public long scoredAtMicros(int slot) {
+        return buffer.getLong(offset(slot) + 16);
+    }
+
+    /**
+     * Looks up a user's score as a detached CreditScore holding id, userId, score and date.
+     * @return the score, or null if the snapshot has none for the user.
+     */
+    public CreditScore get(int userId) {
+        int slot = slotOf(userId);
+        if (slot < 0) {
+            return null;
+        }
+        long score = score(slot);
+        CreditScore creditScore = new CreditScore(userId, score == NULL_SCORE ? null : score, fromMicros(scoredAtMicros(slot)));
+        creditScore.setId(scoreId(slot));
+        return creditScore;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Smallest power-of-two capacity that keeps the given number of users at or below half full.
+     * @throws IllegalArgumentException if that exceeds {@link #MAX_CAPACITY}.
+     */
+    public static int capacityFor(long users) {
+        long capacity = Math.max(1024, Long.highestOneBit(Math.max(1, users) * 2 - 1) << 1);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many users for one snapshot mapping: " + users);
+        }
+        return (int) capacity;
+    }
+
+    public static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private static int hash(int userId) {
+        int h = userId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Builds a snapshot file in place through a read-write mapping. The caller writes to a temporary file and moves
+     * it over the live one once {@link #finish()} returns, so readers never map a partial file.
+     */
+    public static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int mask;
+        private final long createdAtMillis;
+        private int count;
+
+        /**
+         * Creates or truncates the file and sizes it for capacity slots.
+         * @param capacity        A power of two, at most {@link #MAX_CAPACITY}; see {@link #capacityFor(long)}.
+         * @param createdAtMillis Time the data was read from; recorded in the header.
+         */
+        public Writer(Path path, int capacity, long createdAtMillis) throws IOException {
+            if (Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY) {
+                throw new IllegalArgumentException("Snapshot capacity must be a power of two up to " + MAX_CAPACITY);
+            }
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.createdAtMillis = createdAtMillis;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for (int slot = 0; slot < capacity; slot++) {
+                buffer.putInt(offset(slot), EMPTY);
+            }
+        }
+
+        /**
+         * Adds or replaces a user's score.
+         * @param score          The score, or {@link #NULL_SCORE}.
+         * @param scoredAtMicros Score date in microseconds since the epoch (UTC); see {@link #toMicros(LocalDateTime)}.
+         * @throws IllegalStateException if the table is full.
+         */
+        public void put(int userId, int scoreId, long score, long scoredAtMicros) {
+            if (userId == EMPTY) {
+                throw new IllegalArgumentException("User ID " + userId + " cannot be stored in a snapshot");
+            }
+            int slot = hash(userId) & mask;
+            for (; ; slot = (slot + 1) & mask) {
+                int stored = buffer.getInt(offset(slot));
+                if (stored == EMPTY) {
+                    // One slot always stays free so a lookup of an absent user ends its probe.
+                    if (count == capacity - 1) {
+                        throw new IllegalStateException("Snapshot is full at " + count + " users");
+                    }
+                    count++;
+                    break;
+                }
+                if (stored == userId) {
+                    break;
+                }
+            }
+            int offset = offset(slot);
+            buffer.putInt(offset, userId);
+            buffer.putInt(offset + 4, scoreId);
+            buffer.putLong(offset + 8, score);
+            buffer.putLong(offset + 16, scoredAtMicros);
+        }
+
+        public int size() {
+            return count;
+        }
+
+        /**
+         * Writes the header and flushes the mapping to disk. The header goes last, so a crash leaves a file that
+         * {@link CreditScoreSnapshot#open(Path)} rejects.
+         */
+        public void finish() {
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, capacity);
+            buffer.putInt(12, count);
+            buffer.putLong(16, createdAtMillis);
+            buffer.force();
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
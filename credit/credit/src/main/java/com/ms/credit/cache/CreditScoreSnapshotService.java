@@ -0,0 +1,217 @@
+package com.ms.credit.cache;
+
+// Import necessary Spring, Micrometer and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreSnapshotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a local {@link CreditScoreSnapshot} of current_credit_scores as the tier between the two-tier cache and the
+ * database.
+ * <p>
+ * The snapshot is rebuilt on a schedule into a temporary file, which is then moved over the live one and mapped;
+ * readers switch to it with a single volatile write, and the previous mapping is released once it is garbage
+ * collected. An existing file is mapped at startup, so a restarted node serves cold reads without the database; the
+ * users written while the node was down are read back from current_credit_scores and skipped, and if users were
+ * deleted meanwhile the file is not used until the first rebuild.
+ * <p>
+ * The snapshot does not change between rebuilds, so users whose score changed since it was read are skipped:
+ * every write and invalidation passing through {@link CreditScoreCache} is recorded here. Like the L1 cache, this
+ * relies on invalidation messages from other nodes; a snapshot older than the maximum age is not used at all.
+ */
+@Service
+public class CreditScoreSnapshotService {
+
+    private static final Logger logger = LogManager.getLogger(CreditScoreSnapshotService.class);
+
+    // Invalidations this long before a rebuild started still apply to it, as a margin for a rebuild whose read
+    // started before a write committed that was invalidated around the same time.
+    private static final long INVALIDATION_GRACE_MILLIS = 60_000;
+
+    @Autowired
+    private CreditScoreSnapshotRepository creditScoreSnapshotRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${credit.score-snapshot.enabled:true}")
+    private boolean enabled;
+
+    // Snapshot file; the temporary file of a rebuild is created next to it.
+    @Value("${credit.score-snapshot.path:${java.io.tmpdir}/credit-scores.snapshot}")
+    private String path;
+
+    // A snapshot read longer ago than this is not used, which bounds the staleness of missed invalidations.
+    @Value("${credit.score-snapshot.max-age:PT15M}")
+    private Duration maxAge;
+
+    private volatile CreditScoreSnapshot snapshot;
+    private final Map<Integer, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private Counter hits;
+    private Counter misses;
+
+    /**
+     * Registers the metrics and maps the snapshot left by a previous run if it is recent enough and no user in it has
+     * been deleted since.
+     */
+    @PostConstruct
+    public void init() {
+        hits = meterRegistry.counter("credit.score.cache.requests", "tier", "snapshot", "result", "hit");
+        misses = meterRegistry.counter("credit.score.cache.requests", "tier", "snapshot", "result", "miss");
+        meterRegistry.gauge("credit.score.snapshot.entries", this, service -> {
+            CreditScoreSnapshot current = service.snapshot;
+            return current == null ? 0 : current.size();
+        });
+        Path file = Paths.get(path);
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+        try {
+            CreditScoreSnapshot existing = CreditScoreSnapshot.open(file);
+            if (System.currentTimeMillis() - existing.getCreatedAtMillis() > maxAge.toMillis()) {
+                logger.info("Ignoring score snapshot " + file + " older than " + maxAge);
+                return;
+            }
+            if (!seedInvalidations(existing)) {
+                logger.info("Ignoring score snapshot " + file + ": users were deleted since it was written");
+                return;
+            }
+            snapshot = existing;
+            logger.info("Mapped score snapshot " + file + " with " + existing.size() + " users, "
+                    + invalidatedAt.size() + " changed since");
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable score snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    // The invalidations of a snapshot written by a previous run were lost with it, so the users whose current score
+    // changed since it was read are skipped as if they had just been invalidated. Deletions leave no row behind; they
+    // are detected by the projection holding fewer users than the snapshot plus those added since, and then the
+    // snapshot is not used. Returns false in that case.
+    private boolean seedInvalidations(CreditScoreSnapshot existing) {
+        long createdAt = existing.getCreatedAtMillis();
+        long projected = creditScoreSnapshotRepository.count();
+        List<Integer> changed = creditScoreSnapshotRepository.findUserIdsChangedSince(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt - INVALIDATION_GRACE_MILLIS), ZoneId.systemDefault()));
+        long added = changed.stream().filter(userId -> existing.slotOf(userId) < 0).count();
+        if (projected < existing.size() + added) {
+            return false;
+        }
+        for (Integer userId : changed) {
+            invalidatedAt.put(userId, createdAt);
+        }
+        return true;
+    }
+
+    /**
+     * Looks up a user's latest score in the snapshot.
+     * @param userId The ID of the user.
+     * @return the score, or null if there is no current snapshot, it has no score for the user, or the user's
+     * score changed since the snapshot was read.
+     */
+    public CreditScore get(int userId) {
+        CreditScoreSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        long createdAt = current.getCreatedAtMillis();
+        if (System.currentTimeMillis() - createdAt > maxAge.toMillis()) {
+            misses.increment();
+            return null;
+        }
+        if (!invalidatedAt.isEmpty()) {
+            Long changedAt = invalidatedAt.get(userId);
+            if (changedAt != null && changedAt >= createdAt - INVALIDATION_GRACE_MILLIS) {
+                misses.increment();
+                return null;
+            }
+        }
+        CreditScore creditScore = current.get(userId);
+        (creditScore != null ? hits : misses).increment();
+        return creditScore;
+    }
+
+    /**
+     * Records that these users' scores changed, so the snapshot stops answering for them until it is rebuilt.
+     * @param userIds The IDs of the users.
+     */
+    public void invalidate(Collection<Integer> userIds) {
+        if (!enabled) {
+            return;
+        }
+        Long now = System.currentTimeMillis();
+        for (Integer userId : userIds) {
+            invalidatedAt.put(userId, now);
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot from current_credit_scores. A failed rebuild keeps the previous snapshot.
+     */
+    @Scheduled(fixedDelayString = "${credit.score-snapshot.refresh-interval:PT5M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to rebuild the score snapshot: " + e.getMessage());
+            meterRegistry.counter("credit.score.snapshot.rebuilds", "result", "failed").increment();
+        }
+    }
+
+    /**
+     * Streams current_credit_scores into a new snapshot file and swaps it in.
+     * @return the number of users in the new snapshot.
+     */
+    public synchronized int rebuild() throws IOException {
+        long createdAt = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Path file = Paths.get(path).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.createDirectories(file.getParent());
+        int capacity = CreditScoreSnapshot.capacityFor(creditScoreSnapshotRepository.count());
+        try {
+            try (CreditScoreSnapshot.Writer writer = new CreditScoreSnapshot.Writer(temp, capacity, createdAt)) {
+                creditScoreSnapshotRepository.streamAll((userId, scoreId, score, scoredAt) -> writer.put(userId, scoreId,
+                        score == null ? CreditScoreSnapshot.NULL_SCORE : score, CreditScoreSnapshot.toMicros(scoredAt)));
+                writer.finish();
+            }
+            // Never truncate the live file: readers still map it. The move replaces its directory entry instead.
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        CreditScoreSnapshot rebuilt = CreditScoreSnapshot.open(file);
+        snapshot = rebuilt;
+        invalidatedAt.values().removeIf(changedAt -> changedAt < createdAt - INVALIDATION_GRACE_MILLIS);
+        long elapsed = System.nanoTime() - start;
+        meterRegistry.timer("credit.score.snapshot.rebuild").record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("credit.score.snapshot.rebuilds", "result", "rebuilt").increment();
+        logger.info(String.format("Rebuilt score snapshot %s: %d users in %d ms", file, rebuilt.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed)));
+        return rebuilt.size();
+    }
+}
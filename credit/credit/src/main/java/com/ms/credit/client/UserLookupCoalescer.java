@@ -0,0 +1,94 @@
+package com.ms.credit.client;
+
+// Import necessary Java concurrency and collection classes.
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects individual userId lookups made within a short window and resolves them with one batch request.
+ * A batch is flushed when the window elapses or when it reaches the configured maximum size, whichever comes first.
+ */
+class UserLookupCoalescer {
+
+    private final Function<Collection<Integer>, CompletableFuture<Map<Integer, String>>> batchLoader;
+    private final ScheduledExecutorService scheduler;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    // Lookups waiting for the current window to close, guarded by "this".
+    private Map<Integer, CompletableFuture<String>> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    UserLookupCoalescer(Function<Collection<Integer>, CompletableFuture<Map<Integer, String>>> batchLoader,
+                        ScheduledExecutorService scheduler, Duration window, int maxBatchSize) {
+        this.batchLoader = batchLoader;
+        this.scheduler = scheduler;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Queues a lookup for the given user; lookups for the same id within one window share a single future.
+     * @param userId The ID of the user to resolve.
+     * @return a future completed with the user's email, or with null if the user does not exist.
+     */
+    CompletableFuture<String> lookup(int userId) {
+        Map<Integer, CompletableFuture<String>> ready = null;
+        CompletableFuture<String> result;
+        synchronized (this) {
+            result = pending.computeIfAbsent(userId, id -> new CompletableFuture<>());
+            if (pending.size() >= maxBatchSize) {
+                ready = drain();  // The batch is full, send it without waiting for the window.
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return result;
+    }
+
+    /**
+     * Sends whatever has been collected in the current window.
+     */
+    void flush() {
+        Map<Integer, CompletableFuture<String>> ready;
+        synchronized (this) {
+            ready = drain();
+        }
+        dispatch(ready);
+    }
+
+    // Swaps out the pending map; must be called while holding the lock.
+    private Map<Integer, CompletableFuture<String>> drain() {
+        Map<Integer, CompletableFuture<String>> ready = pending;
+        pending = new HashMap<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return ready;
+    }
+
+    // Issues one batch request and completes every waiting lookup from its result.
+    private void dispatch(Map<Integer, CompletableFuture<String>> ready) {
+        if (ready.isEmpty()) {
+            return;
+        }
+        batchLoader.apply(ready.keySet()).whenComplete((emails, error) -> ready.forEach((userId, future) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(emails.get(userId));
+            }
+        }));
+    }
+}
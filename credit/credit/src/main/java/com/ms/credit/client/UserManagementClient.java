@@ -2,9 +2,30 @@ package com.ms.credit.client;
 
 // Import necessary classes from the Spring Framework and Reactor libraries.
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 // Declare the service layer component for managing user-related operations.
 @Service
@@ -14,18 +35,145 @@ public class UserManagementClient {
     @Autowired
     private WebClient webClient;
 
+    // Registry the cache statistics (hits, misses, evictions) are published to.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // URL endpoint for the user management service.
     private final String USER_SERVICE_URL = "http://user-management-service/users";
 
+    // Upper bound on the number of cached userId -> email entries.
+    @Value("${credit.user-cache.maximum-size:100000}")
+    private long maximumSize;
+
+    // Entries older than this are dropped and reloaded on the next lookup.
+    @Value("${credit.user-cache.expire-after-write:PT1H}")
+    private Duration expireAfterWrite;
+
+    // Entries older than this are reloaded in the background on the next lookup while the old value is still served.
+    @Value("${credit.user-cache.refresh-after-write:PT45M}")
+    private Duration refreshAfterWrite;
+
+    // When enabled, single lookups made within a short window are sent to userms as one batch request.
+    @Value("${credit.user-client.coalescing.enabled:false}")
+    private boolean coalescingEnabled;
+
+    // How long a lookup may wait for other lookups to join its batch.
+    @Value("${credit.user-client.coalescing.window:PT0.005S}")
+    private Duration coalescingWindow;
+
+    // A batch is sent as soon as it holds this many ids, even if the window is still open.
+    @Value("${credit.user-client.coalescing.max-batch-size:100}")
+    private int coalescingMaxBatchSize;
+
+    // Largest batch request sent to userms; must not exceed userms.batch.max-size there.
+    @Value("${credit.user-client.batch-max-size:1000}")
+    private int batchMaxSize;
+
+    // Local userId -> email cache; concurrent misses for the same userId share a single upstream call.
+    private AsyncLoadingCache<Integer, String> userEmails;
+
+    // Collects single lookups into batch requests when coalescing is enabled.
+    private UserLookupCoalescer coalescer;
+    private ScheduledExecutorService coalescingScheduler;
+
     /**
-     * Retrieves user details from the user management service using a reactive WebClient.
+     * Builds the email cache once the configuration has been injected and registers its metrics.
+     */
+    @PostConstruct
+    public void initCache() {
+        if (coalescingEnabled) {
+            coalescingScheduler = Executors.newSingleThreadScheduledExecutor();
+            coalescer = new UserLookupCoalescer(userIds -> fetchUserDetailsBatch(userIds).toFuture(),
+                    coalescingScheduler, coalescingWindow, coalescingMaxBatchSize);
+        }
+        userEmails = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<Integer, String>() {
+                    @Override
+                    public CompletableFuture<String> asyncLoad(Integer userId, Executor executor) {
+                        return coalescer != null ? coalescer.lookup(userId) : fetchUserDetails(userId).toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<Integer, String>> asyncLoadAll(Set<? extends Integer> userIds, Executor executor) {
+                        List<Integer> ids = new ArrayList<>(userIds);
+                        return Flux.range(0, (ids.size() + batchMaxSize - 1) / batchMaxSize)
+                                .flatMap(chunk -> fetchUserDetailsBatch(
+                                        ids.subList(chunk * batchMaxSize, Math.min(ids.size(), (chunk + 1) * batchMaxSize))))
+                                .collect(HashMap<Integer, String>::new, Map::putAll)
+                                .<Map<Integer, String>>map(emails -> emails)
+                                .toFuture();
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, userEmails.synchronous(), "user-emails");
+    }
+
+    /**
+     * Stops the coalescing scheduler when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (coalescingScheduler != null) {
+            coalescingScheduler.shutdown();
+        }
+    }
+
+    /**
+     * Retrieves user details, serving them from the local cache when possible.
+     * The cached future is shared by every caller waiting on the same user, so a cancelled subscriber must not
+     * cancel it (suppressCancel).
      * @param userId The ID of the user whose details are to be fetched.
      * @return a Mono that emits the user details as a string or an error signal if an error occurs.
      */
     public Mono<String> getUserDetails(int userId) {
+        return Mono.fromFuture(() -> userEmails.get(userId), true);
+    }
+
+    /**
+     * Retrieves user details for many users at once; cached ids are served locally and the misses go out in batch requests of at most batchMaxSize ids.
+     * As with {@link #getUserDetails(int)}, cancelling the Mono leaves the shared cache futures running.
+     * @param userIds The IDs of the users whose details are to be fetched.
+     * @return a Mono that emits a map of userId to user details; unknown users are absent from the map.
+     */
+    public Mono<Map<Integer, String>> getAllUserDetails(Collection<Integer> userIds) {
+        return Mono.fromFuture(() -> userEmails.getAll(userIds), true);
+    }
+
+    /**
+     * Drops the cached email for a user, forcing the next lookup to go to the user management service.
+     * @param userId The ID of the user whose cached details should be discarded.
+     */
+    public void evictUserDetails(int userId) {
+        userEmails.synchronous().invalidate(userId);
+    }
+
+    /**
+     * Retrieves user details from the user management service using a reactive WebClient.
+     * @param userId The ID of the user whose details are to be fetched.
+     * @return a Mono that emits the user details as a string or an error signal if an error occurs.
+     */
+    private Mono<String> fetchUserDetails(int userId) {
         return webClient.get()  // Create an HTTP GET request.
                         .uri(USER_SERVICE_URL + "/{userId}", userId)  // Append the user ID to the URL and set the variable in the path.
                         .retrieve()  // Extract the response body automatically.
                         .bodyToMono(String.class);  // Convert the response body to a Mono that emits strings.
     }
+
+    /**
+     * Resolves many users in a single call to the user management service's batch endpoint.
+     * @param userIds The IDs of the users whose details are to be fetched.
+     * @return a Mono that emits a map of userId to user details; unknown users are absent from the map.
+     */
+    private Mono<Map<Integer, String>> fetchUserDetailsBatch(Collection<Integer> userIds) {
+        return webClient.post()  // Create an HTTP POST request.
+                        .uri(USER_SERVICE_URL + "/batch")
+                        .bodyValue(userIds)  // Send the ids as a JSON array.
+                        .retrieve()
+                        .bodyToMono(new ParameterizedTypeReference<Map<Integer, String>>() {})
+                        .defaultIfEmpty(Map.of());
+    }
 }
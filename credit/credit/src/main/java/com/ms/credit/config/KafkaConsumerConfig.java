@@ -2,6 +2,7 @@ package com.ms.credit.config;
 
 // Import necessary classes and annotations from Spring Framework and Kafka libraries.
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
@@ -9,62 +10,147 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.Acknowledgment;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 import com.ms.credit.dto.FinancialDataDTO;
 import com.ms.credit.service.EmailService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * KafkaConsumerConfig configures Kafka consumer related beans and services.
  * It uses @EnableKafka to enable support for @KafkaListener annotations in Spring.
+ * <p>
+ * Notifications are consumed in batches by several concurrent containers, ideally one per topic partition.
+ * Offsets are committed manually once a batch has been handed off, and the consumer client metrics, including
+ * records-lag per partition, are bound to Micrometer.
+ * <p>
+ * A listener failure is retried without limit, with exponential backoff, so no record is skipped. When a listener
+ * reports the failing record with {@link BatchListenerFailedException}, the records before it are committed and
+ * only the rest of the batch is redelivered.
  */
 @EnableKafka
 @Configuration
 public class KafkaConsumerConfig {
+
     // Dependency injection for EmailService to send email notifications.
     @Autowired
-    private EmailService emailService;  
+    private EmailService emailService;
+
+    // Receives the consumer client metrics (lag, fetch rate) and the handoff counters.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${credit.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    // Number of listener containers; consumers beyond the partition count of the topic stay idle.
+    @Value("${credit.kafka.consumer.concurrency:3}")
+    private int concurrency;
+
+    // Upper bound of records handed to one batch listener call.
+    @Value("${credit.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // The broker waits for this many bytes, or fetch-max-wait-ms, before answering a fetch.
+    @Value("${credit.kafka.consumer.fetch-min-bytes:16384}")
+    private int fetchMinBytes;
+
+    @Value("${credit.kafka.consumer.fetch-max-wait-ms:200}")
+    private int fetchMaxWaitMs;
+
+    @Value("${credit.kafka.consumer.max-partition-fetch-bytes:1048576}")
+    private int maxPartitionFetchBytes;
+
+    // First and longest wait before a failed batch is redelivered. The consumer does not poll while it waits, so the
+    // longest wait must stay well below max.poll.interval.ms (5 minutes by default).
+    @Value("${credit.kafka.consumer.retry-backoff:PT1S}")
+    private Duration retryBackoff;
+
+    @Value("${credit.kafka.consumer.max-retry-backoff:PT30S}")
+    private Duration maxRetryBackoff;
 
     /**
      * Defines a bean to configure and create a ConsumerFactory for Kafka consumers.
-     * Sets necessary configurations like bootstrap servers, group ID, and deserializers.
+     * Sets necessary configurations like bootstrap servers, group ID, deserializers and fetch sizes.
      * @return ConsumerFactory configured for String keys and FinancialDataDTO values.
      */
     @Bean
     public ConsumerFactory<String, FinancialDataDTO> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");  // Address of the Kafka server.
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);  // Address of the Kafka server.
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "group_id");  // Group ID for this consumer group.
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());  // Deserializer for Kafka message keys.
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class.getName());  // Deserializer for Kafka message values configured for FinancialDataDTO.
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
-                new JsonDeserializer<>(FinancialDataDTO.class));
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);  // Offsets are acknowledged by the listener.
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, maxPartitionFetchBytes);
+        // A record that cannot be deserialized reaches the listener as null instead of failing every poll.
+        JsonDeserializer<FinancialDataDTO> valueDeserializer = new JsonDeserializer<>(FinancialDataDTO.class, false);
+        valueDeserializer.ignoreTypeHeaders();
+        DefaultKafkaConsumerFactory<String, FinancialDataDTO> factory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(valueDeserializer));
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));  // Exposes kafka.consumer.* metrics, including records-lag.
+        return factory;
     }
 
     /**
      * Bean that configures a KafkaListenerContainerFactory to manage listener containers.
-     * This factory supports concurrent message consumption from Kafka topics.
+     * The containers deliver batches and leave offset commits to the listener; failures are retried without limit.
      * @return a configured ConcurrentKafkaListenerContainerFactory for FinancialDataDTO messages.
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, FinancialDataDTO> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, FinancialDataDTO> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());  // Set up the factory using the defined consumer factory.
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        // The default error handler gives up after 10 attempts and skips the records; this one never gives up.
+        ExponentialBackOff backOff = new ExponentialBackOff(retryBackoff.toMillis(), 2.0);
+        backOff.setMaxInterval(maxRetryBackoff.toMillis());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
         return factory;
     }
 
     /**
-     * KafkaListener method configured to listen to 'credit-score-updates' topic.
-     * Processes incoming messages by triggering email notifications using the EmailService.
-     * @param message FinancialDataDTO object containing data from the consumed Kafka message.
+     * KafkaListener method configured to listen to 'credit-score-updates' topic in batches.
+     * Hands an email for each message to the dispatch queue, then acknowledges the batch. Invalid messages are
+     * counted and skipped. If the queue stays full the listener fails at that message: the messages before it are
+     * committed and the rest of the batch is redelivered after a backoff, until the queue has room again.
+     * @param messages       FinancialDataDTO objects of one poll; null for records that could not be deserialized.
+     * @param acknowledgment Commits the offsets of the batch.
      */
     @KafkaListener(topics = "credit-score-updates", groupId = "group_id")
-    public void handleClaimStatusUpdate(FinancialDataDTO message) {
-        // Sending an email about the credit score update.
-        emailService.sendEmail(message.getEmailId(), "Credit Score Update",
-            "Your Credit Score has been updated to: " + message.getCreditScore());
+    public void handleClaimStatusUpdate(List<FinancialDataDTO> messages, Acknowledgment acknowledgment) {
+        int failed = 0;
+        for (int i = 0; i < messages.size(); i++) {
+            FinancialDataDTO message = messages.get(i);
+            if (message == null || message.getEmailId() == null) {
+                failed++;
+                continue;
+            }
+            // Queue an email about the credit score update; a full queue throws and the rest of the batch is redelivered.
+            try {
+                emailService.sendEmail(message.getEmailId(), "Credit Score Update",
+                    "Your Credit Score has been updated to: " + message.getCreditScore());
+            } catch (IllegalStateException e) {
+                throw new BatchListenerFailedException("Email queue is full", e, i);
+            }
+        }
+        acknowledgment.acknowledge();
+        meterRegistry.counter("credit.notifications.consumed", "result", "handed-off").increment(messages.size() - failed);
+        meterRegistry.counter("credit.notifications.consumed", "result", "failed").increment(failed);
     }
 }
@@ -1,6 +1,7 @@
 package com.ms.credit.config;
 
 // Import necessary classes from Spring Framework and Kafka libraries.
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -10,16 +11,72 @@ import org.springframework.kafka.support.serializer.JsonSerializer;
 import com.ms.credit.dto.*;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * KafkaProducerConfig sets up the Kafka producer configuration for the application.
  * This configuration includes defining beans for the producer factory and KafkaTemplate.
+ * <p>
+ * Notifications are small and frequent, so the producer lingers briefly to fill compressed batches, and idempotence
+ * keeps retried sends from duplicating or reordering records within a partition. The producer retries a send until
+ * the delivery timeout expires, so failed sends are not resent by the application.
  */
 @Configuration
 public class KafkaProducerConfig {
-    
+
+    @Value("${credit.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    // How long the producer waits for more records before sending a partially filled batch.
+    @Value("${credit.kafka.producer.linger-ms:20}")
+    private int lingerMs;
+
+    // Upper bound in bytes of one per-partition batch.
+    @Value("${credit.kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    // none, gzip, snappy, lz4 or zstd.
+    @Value("${credit.kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${credit.kafka.producer.idempotence:true}")
+    private boolean idempotence;
+
+    // Upper bound on the time a send may take, retries included, before it is reported as failed.
+    @Value("${credit.kafka.producer.delivery-timeout:PT2M}")
+    private Duration deliveryTimeout;
+
+    /**
+     * Builds the producer properties shared by the producer factory and the publisher benchmark.
+     * @param bootstrapServers Kafka server addresses.
+     * @param lingerMs         Batching delay in milliseconds.
+     * @param batchSize        Batch size in bytes.
+     * @param compressionType  Batch compression codec.
+     * @param idempotence      Whether to enable idempotent delivery (implies acks=all).
+     * @param deliveryTimeout  How long the producer keeps retrying a send before failing it.
+     * @return the producer properties.
+     */
+    public static Map<String, Object> producerProperties(String bootstrapServers, int lingerMs, int batchSize,
+                                                         String compressionType, boolean idempotence, Duration deliveryTimeout) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);  // Kafka server address.
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);  // Serializer for message keys.
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);  // Serializer for message values.
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);  // Consumers bind to their own DTO type.
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        configProps.put(ProducerConfig.ACKS_CONFIG, idempotence ? "all" : "1");
+        configProps.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);  // Bounded by the delivery timeout instead.
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, (int) deliveryTimeout.toMillis());
+        // With idempotence 5 is the highest value that keeps ordering; without it only one request may be in flight.
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, idempotence ? 5 : 1);
+        return configProps;
+    }
+
     /**
      * Creates a ProducerFactory bean that configures the Kafka producer.
      * This factory is responsible for creating Kafka producer instances with specified serializers for keys and values.
@@ -27,11 +84,7 @@ public class KafkaProducerConfig {
      */
     @Bean
     public ProducerFactory<String, NotificationDTO> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");  // Kafka server address.
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);  // Serializer for message keys.
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);  // Serializer for message values.
-        return new DefaultKafkaProducerFactory<>(configProps);  // Return the producer factory configured with these settings.
+        return new DefaultKafkaProducerFactory<>(producerProperties(bootstrapServers, lingerMs, batchSize, compressionType, idempotence, deliveryTimeout));
     }
 
     /**
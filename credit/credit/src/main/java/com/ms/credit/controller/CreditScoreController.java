@@ -2,10 +2,25 @@ package com.ms.credit.controller;
 
 // Import necessary Spring MVC annotations and components.
 import org.springframework.web.bind.annotation.*;
+import com.ms.credit.batch.BatchFormat;
+import com.ms.credit.batch.BatchIngestService;
+import com.ms.credit.batch.BatchJobService;
+import com.ms.credit.dto.BatchIngestSummaryDTO;
+import com.ms.credit.dto.BatchJobDTO;
 import com.ms.credit.dto.CreditScoreDTO;
+import com.ms.credit.dto.CreditScoreStatisticsDTO;
+import com.ms.credit.dto.RefreshProgressDTO;
 import com.ms.credit.dto.ScoreHistoryDTO;
 import com.ms.credit.service.CreditScoreService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Mono;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -20,6 +35,18 @@ public class CreditScoreController {
     @Autowired
     private CreditScoreService creditScoreService;
 
+    // Handles chunked ingestion of large NDJSON/CSV uploads.
+    @Autowired
+    private BatchIngestService batchIngestService;
+
+    // Writes streamed history entries as JSON lines.
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Runs large uploads as asynchronous, resumable jobs.
+    @Autowired
+    private BatchJobService batchJobService;
+
     // Handles GET requests for retrieving a user's credit score by user ID.
     @GetMapping("/{userId}")
     public CreditScoreDTO getCreditScore(@PathVariable int userId) {
@@ -32,6 +59,18 @@ public class CreditScoreController {
         return creditScoreService.calculateCreditScore(creditScoreDTO);
     }
 
+    // Handles GET requests for a user's latest score without blocking a servlet thread on the userms/Redis round-trips.
+    @GetMapping("/reactive/{userId}")
+    public Mono<CreditScoreDTO> getCreditScoreReactive(@PathVariable int userId) {
+        return creditScoreService.getCreditScoreByEmailIdReactive(userId);
+    }
+
+    // Handles POST requests to calculate a new credit score through the non-blocking pipeline.
+    @PostMapping("/reactive/calculate")
+    public Mono<CreditScoreDTO> calculateCreditScoreReactive(@RequestBody CreditScoreDTO creditScoreDTO) {
+        return creditScoreService.calculateCreditScoreReactive(creditScoreDTO);
+    }
+
     // Handles PUT requests to update an existing credit score for a specified user ID.
     @PutMapping("/{userId}")
     public CreditScoreDTO updateCreditScore(@PathVariable int userId, @RequestBody CreditScoreDTO creditScoreDTO) {
@@ -44,10 +83,36 @@ public class CreditScoreController {
         creditScoreService.deleteCreditScoreByUserId(userId);
     }
 
-    // Handles GET requests to fetch the credit score history for a specified user ID.
+    // Handles GET requests to fetch one page of the credit score history for a specified user ID, newest first.
+    // "from" is inclusive and "to" exclusive (ISO date or date-time); pass the returned nextCursor as "cursor" for the next page.
     @GetMapping("/history/{userId}")
-    public List<ScoreHistoryDTO> getCreditScoreHistory(@PathVariable int userId) {
-        return creditScoreService.getCreditScoreHistoryByUserId(userId);
+    public ScoreHistoryDTO getCreditScoreHistory(@PathVariable int userId,
+                                                 @RequestParam(required = false) String from,
+                                                 @RequestParam(required = false) String to,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer limit) {
+        return creditScoreService.getCreditScoreHistoryByUserId(userId, from, to, cursor, limit);
+    }
+
+    // Handles GET requests streaming the whole history of a user as NDJSON, one score per line, without buffering it.
+    @GetMapping(value = "/history/{userId}/stream", produces = BatchFormat.NDJSON_VALUE)
+    public StreamingResponseBody streamCreditScoreHistory(@PathVariable int userId,
+                                                          @RequestParam(required = false) String from,
+                                                          @RequestParam(required = false) String to) {
+        return out -> creditScoreService.streamCreditScoreHistoryByUserId(userId, from, to, details -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(details));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // Handles POST requests looking up the latest scores of many users at once; the body is a JSON array of user IDs.
+    @PostMapping("/lookup")
+    public List<CreditScoreDTO> lookupCreditScores(@RequestBody List<Integer> userIds) {
+        return creditScoreService.lookupCreditScores(userIds);
     }
 
     // Handles POST requests to calculate credit scores in batch from a list of CreditScoreDTO objects.
@@ -56,15 +121,61 @@ public class CreditScoreController {
         return creditScoreService.calculateBatchCreditScores(creditScores);
     }
 
-    // Handles GET requests to compute the average credit score of all records.
+    // Handles POST requests streaming an NDJSON or CSV upload of credit scores; rows are parsed and persisted chunk by chunk.
+    @PostMapping(value = "/batch/stream", consumes = {BatchFormat.NDJSON_VALUE, BatchFormat.CSV_VALUE})
+    public BatchIngestSummaryDTO ingestBatchCreditScores(HttpServletRequest request) throws IOException {
+        return batchIngestService.ingest(request.getInputStream(), BatchFormat.fromContentType(request.getContentType()));
+    }
+
+    // Handles POST requests submitting an asynchronous batch job; returns the job id immediately while rows are processed in the background.
+    @PostMapping(value = "/batch/jobs", consumes = {MediaType.APPLICATION_JSON_VALUE, BatchFormat.NDJSON_VALUE, BatchFormat.CSV_VALUE})
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BatchJobDTO submitBatchJob(HttpServletRequest request) throws IOException {
+        return batchJobService.submit(request.getInputStream(), request.getContentType());
+    }
+
+    // Handles GET requests for the status and progress (rows done, failed, throughput) of a batch job.
+    @GetMapping("/batch/jobs/{jobId}")
+    public BatchJobDTO getBatchJob(@PathVariable String jobId) {
+        return batchJobService.getJob(jobId);
+    }
+
+    // Handles GET requests to compute the average credit score of all records, archived history included.
     @GetMapping("/average")
     public double getAverageCreditScore() {
         return creditScoreService.getAverageCreditScore();
     }
 
-    // Handles PUT requests to refresh all credit scores, possibly recalculating or updating them.
+    // Handles GET requests for count, average, min, max and histogram of all scores, archived history included.
+    @GetMapping("/statistics")
+    public CreditScoreStatisticsDTO getCreditScoreStatistics() {
+        return creditScoreService.getCreditScoreStatistics();
+    }
+
+    // Handles PUT requests to start refreshing all credit scores in the background; progress is polled at /refresh/status.
     @PutMapping("/refresh")
-    public void refreshCreditScores() {
-        creditScoreService.refreshCreditScores();
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RefreshProgressDTO refreshCreditScores() {
+        return creditScoreService.refreshCreditScores();
+    }
+
+    // Handles GET requests for the progress of a running refresh or the result of the last one.
+    @GetMapping("/refresh/status")
+    public RefreshProgressDTO getRefreshProgress() {
+        return creditScoreService.getRefreshProgress();
+    }
+
+    // Handles PUT requests to start rescoring, in the background, the users with transactions in this node's streaming
+    // window with the active scoring model; progress is polled at /rescore/active/status on the same node.
+    @PutMapping("/rescore/active")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public RefreshProgressDTO rescoreActiveCreditScores() {
+        return creditScoreService.rescoreActiveCreditScores();
+    }
+
+    // Handles GET requests for the progress of a running bulk rescoring or the result of the last one.
+    @GetMapping("/rescore/active/status")
+    public RefreshProgressDTO getRescoreProgress() {
+        return creditScoreService.getRescoreProgress();
     }
 }
@@ -0,0 +1,65 @@
+package com.ms.credit.dto;
+
+
+public class BatchIngestSummaryDTO {
+    private long rowsRead;
+    private long rowsWritten;
+    private long rowsFailed;
+    private int chunks;
+    private long elapsedMillis;
+
+    // Default constructor
+    public BatchIngestSummaryDTO() {
+    }
+
+    // Parameterized constructor
+    public BatchIngestSummaryDTO(long rowsRead, long rowsWritten, long rowsFailed, int chunks, long elapsedMillis) {
+        this.rowsRead = rowsRead;
+        this.rowsWritten = rowsWritten;
+        this.rowsFailed = rowsFailed;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getters
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Setters
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public void setRowsFailed(long rowsFailed) {
+        this.rowsFailed = rowsFailed;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
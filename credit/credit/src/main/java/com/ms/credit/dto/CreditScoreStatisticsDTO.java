@@ -0,0 +1,66 @@
+package com.ms.credit.dto;
+
+import java.util.Map;
+
+public class CreditScoreStatisticsDTO {
+    private long count;
+    private double average;
+    private Long min;
+    private Long max;
+    private Map<Long, Long> histogram;  // Lower bound of each bucket -> number of scores in it
+
+    // Default constructor
+    public CreditScoreStatisticsDTO() {
+    }
+
+    // Parameterized constructor
+    public CreditScoreStatisticsDTO(long count, double average, Long min, Long max, Map<Long, Long> histogram) {
+        this.count = count;
+        this.average = average;
+        this.min = min;
+        this.max = max;
+        this.histogram = histogram;
+    }
+
+    // Getters
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverage() {
+        return average;
+    }
+
+    public Long getMin() {
+        return min;
+    }
+
+    public Long getMax() {
+        return max;
+    }
+
+    public Map<Long, Long> getHistogram() {
+        return histogram;
+    }
+
+    // Setters
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public void setAverage(double average) {
+        this.average = average;
+    }
+
+    public void setMin(Long min) {
+        this.min = min;
+    }
+
+    public void setMax(Long max) {
+        this.max = max;
+    }
+
+    public void setHistogram(Map<Long, Long> histogram) {
+        this.histogram = histogram;
+    }
+}
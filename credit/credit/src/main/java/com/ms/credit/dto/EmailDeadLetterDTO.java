@@ -0,0 +1,75 @@
+package com.ms.credit.dto;
+
+import java.time.LocalDateTime;
+
+public class EmailDeadLetterDTO {
+    private String to;
+    private String subject;
+    private String text;
+    private int attempts;
+    private String error;
+    private LocalDateTime failedAt;
+
+    // Default constructor
+    public EmailDeadLetterDTO() {
+    }
+
+    // Parameterized constructor
+    public EmailDeadLetterDTO(String to, String subject, String text, int attempts, String error, LocalDateTime failedAt) {
+        this.to = to;
+        this.subject = subject;
+        this.text = text;
+        this.attempts = attempts;
+        this.error = error;
+        this.failedAt = failedAt;
+    }
+
+    // Getters and Setters
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getFailedAt() {
+        return failedAt;
+    }
+
+    public void setFailedAt(LocalDateTime failedAt) {
+        this.failedAt = failedAt;
+    }
+}
@@ -5,7 +5,8 @@ import java.util.List;
 
 public class ScoreHistoryDTO {
     private int userId;
-    private List<CreditScoreDetails> scores;
+    private List<CreditScoreDetails> scores;  // Newest first
+    private String nextCursor;  // Pass as "cursor" to fetch the next page; null on the last page
 
     public static class CreditScoreDetails {
         private Long score;
@@ -57,6 +58,10 @@ public class ScoreHistoryDTO {
         return scores;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
     // Setters
     public void setUserId(int userId) {
         this.userId = userId;
@@ -65,5 +70,9 @@ public class ScoreHistoryDTO {
     public void setScores(List<CreditScoreDetails> scores) {
         this.scores = scores;
     }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
 }
 
@@ -7,10 +7,19 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "credit_scores")
+@Table(name = "credit_scores", indexes = {
+        // Latest-score lookups (ORDER BY date DESC LIMIT 1) are served by a backward index seek instead of a filesort.
+        @Index(name = "idx_credit_scores_user_scored_at", columnList = "user_id, scored_at DESC"),
+        @Index(name = "idx_credit_scores_email_scored_at", columnList = "email_id, scored_at DESC"),
+        // Range scans of the stale-score jobs.
+        @Index(name = "idx_credit_scores_last_updated", columnList = "last_updated")
+})
 public class CreditScore {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,11 +28,14 @@ public class CreditScore {
     @Column(name = "user_id")
     private int userId;
 
+    @Column(name = "email_id")
+    private String emailId;  // Email of the user when the score was recorded, if known
+
     @Column(name = "score")
     private Long score;
 
-    @Column(name = "date")
-    private String date;  // Storing date as String for simplicity, consider using LocalDate or LocalDateTime in a real application
+    @Column(name = "scored_at")
+    private LocalDateTime date;  // When the score was recorded; replaces the former String "date" column
 
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;  // Timestamp of the last update
@@ -32,11 +44,25 @@ public class CreditScore {
     }
 
     // Parameterized constructor
-    public CreditScore(int userId, Long score, String date) {
+    public CreditScore(int userId, Long score, LocalDateTime date) {
         this.userId = userId;
         this.score = score;
         this.date = date;
     }
+
+    // Keeps last_updated current for writes made through JPA; the JDBC batch paths set it explicitly.
+    @PrePersist
+    void onCreate() {
+        lastUpdated = LocalDateTime.now();
+        if (date == null) {
+            date = lastUpdated;  // A score without an explicit date is recorded as of now.
+        }
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        lastUpdated = LocalDateTime.now();
+    }
     
     public LocalDateTime getLastUpdated() {
         return lastUpdated;
@@ -63,6 +89,14 @@ public class CreditScore {
         this.userId = userId;
     }
 
+    public String getEmailId() {
+        return emailId;
+    }
+
+    public void setEmailId(String emailId) {
+        this.emailId = emailId;
+    }
+
     public Long getScore() {
         return score;
     }
@@ -71,12 +105,11 @@ public class CreditScore {
         this.score = score;
     }
 
-    public String getDate() {
+    public LocalDateTime getDate() {
         return date;
     }
 
-    public void setDate(String date) {
+    public void setDate(LocalDateTime date) {
         this.date = date;
     }
 }
-
@@ -0,0 +1,103 @@
+package com.ms.credit.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Projection holding the latest credit score of each user, one row per user.
+ * It is rebuilt from credit_scores in the same transaction as every write, so latest-score reads are a primary key
+ * lookup however much history a user has. Rows are written by the native statements in CurrentCreditScoreRepository.
+ */
+@Entity
+@Table(name = "current_credit_scores", indexes = {
+        @Index(name = "idx_current_credit_scores_email", columnList = "email_id")
+})
+public class CurrentCreditScore {
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    @Column(name = "score_id")
+    private int scoreId;  // Id of the credit_scores row this projection reflects
+
+    @Column(name = "email_id")
+    private String emailId;
+
+    @Column(name = "score")
+    private Long score;
+
+    @Column(name = "scored_at")
+    private LocalDateTime date;
+
+    @Column(name = "last_updated")
+    private LocalDateTime lastUpdated;
+
+    // Default constructor
+    public CurrentCreditScore() {
+    }
+
+    /**
+     * Returns the projected row as a detached CreditScore, the type used by the cache and the DTO converters.
+     */
+    public CreditScore toCreditScore() {
+        CreditScore creditScore = new CreditScore(userId, score, date);
+        creditScore.setId(scoreId);
+        creditScore.setEmailId(emailId);
+        creditScore.setLastUpdated(lastUpdated);
+        return creditScore;
+    }
+
+    // Getters and Setters
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getScoreId() {
+        return scoreId;
+    }
+
+    public void setScoreId(int scoreId) {
+        this.scoreId = scoreId;
+    }
+
+    public String getEmailId() {
+        return emailId;
+    }
+
+    public void setEmailId(String emailId) {
+        this.emailId = emailId;
+    }
+
+    public Long getScore() {
+        return score;
+    }
+
+    public void setScore(Long score) {
+        this.score = score;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+}
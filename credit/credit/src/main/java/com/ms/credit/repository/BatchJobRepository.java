@@ -0,0 +1,38 @@
+package com.ms.credit.repository;
+
+// Import necessary classes and annotations from Spring Data JPA and other packages.
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import com.ms.credit.entity.BatchJob;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * BatchJobRepository stores the state and progress of asynchronous batch scoring jobs.
+ */
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, String> {
+
+    /**
+     * Finds jobs in any of the given states, used to resume unfinished jobs after a restart.
+     * @param statuses The states to match.
+     * @return A list of matching jobs.
+     */
+    List<BatchJob> findByStatusIn(Collection<BatchJob.Status> statuses);
+
+    /**
+     * Records a committed chunk. Runs inside the chunk's transaction so progress and data commit together.
+     * @param id          The job ID.
+     * @param recordsDone Records covered by committed chunks, the point a resumed job continues from.
+     * @param written     Rows written by the chunk.
+     * @param failed      Rows of the chunk that failed.
+     */
+    @Modifying
+    @Query("UPDATE BatchJob j SET j.recordsDone = :recordsDone, j.rowsWritten = j.rowsWritten + :written, "
+            + "j.rowsFailed = j.rowsFailed + :failed, j.chunksDone = j.chunksDone + 1 WHERE j.id = :id")
+    void recordChunk(@Param("id") String id, @Param("recordsDone") long recordsDone,
+                     @Param("written") long written, @Param("failed") long failed);
+}
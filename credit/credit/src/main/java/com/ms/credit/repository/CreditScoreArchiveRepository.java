@@ -0,0 +1,109 @@
+package com.ms.credit.repository;
+
+// Import necessary Spring JDBC classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import com.ms.credit.entity.CreditScore;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * CreditScoreArchiveRepository moves old history rows from credit_scores into the monthly-partitioned
+ * credit_scores_archive table and maintains its partitions.
+ * A row that is the user's current score (referenced by current_credit_scores) is never archived.
+ */
+@Repository
+public class CreditScoreArchiveRepository {
+
+    private static final String NOT_CURRENT = "NOT EXISTS (SELECT 1 FROM current_credit_scores cur WHERE cur.score_id = c.id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Keyset page of hot rows scored before the cutoff that are not a user's current score.
+     * @param cutoff  Rows scored strictly before this are archivable.
+     * @param afterId Id of the last row of the previous page.
+     * @param limit   Page size.
+     * @return rows holding id, user id, score and date.
+     */
+    public List<CreditScore> findArchivableAfter(LocalDateTime cutoff, int afterId, int limit) {
+        return jdbcTemplate.query("SELECT c.id, c.user_id, c.score, c.scored_at FROM credit_scores c "
+                + "WHERE c.id > ? AND c.scored_at < ? AND " + NOT_CURRENT + " ORDER BY c.id LIMIT ?",
+                (rs, rowNum) -> {
+                    CreditScore score = new CreditScore();
+                    score.setId(rs.getInt("id"));
+                    score.setUserId(rs.getInt("user_id"));
+                    long value = rs.getLong("score");
+                    score.setScore(rs.wasNull() ? null : value);
+                    score.setDate(rs.getTimestamp("scored_at").toLocalDateTime());
+                    return score;
+                }, afterId, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * Copies the given rows into the archive and deletes them from the hot table. Must run in one transaction.
+     * Rows that became a current score since they were selected are left in place.
+     * @param ids Ids of rows returned by {@link #findArchivableAfter}.
+     * @return the number of rows moved.
+     */
+    public int moveToArchive(Collection<Integer> ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+        namedParameterJdbcTemplate.update("INSERT INTO credit_scores_archive "
+                + "(id, user_id, email_id, score, scored_at, last_updated, archived_at) "
+                + "SELECT c.id, c.user_id, c.email_id, c.score, c.scored_at, c.last_updated, NOW(6) FROM credit_scores c "
+                + "WHERE c.id IN (:ids) AND " + NOT_CURRENT, params);
+        return namedParameterJdbcTemplate.update("DELETE c FROM credit_scores c WHERE c.id IN (:ids) AND " + NOT_CURRENT
+                + " AND EXISTS (SELECT 1 FROM credit_scores_archive a WHERE a.id = c.id AND a.scored_at = c.scored_at)", params);
+    }
+
+    /**
+     * Returns the scores of a user's archived rows.
+     * @param userId The ID of the user.
+     * @return the non-null scores of the user's archived rows.
+     */
+    public List<Long> findScoresByUserId(int userId) {
+        return jdbcTemplate.queryForList("SELECT score FROM credit_scores_archive WHERE user_id = ? AND score IS NOT NULL",
+                Long.class, userId);
+    }
+
+    /**
+     * Deletes all archived rows of a user.
+     * @param userId The ID of the user.
+     */
+    public void deleteByUserId(int userId) {
+        jdbcTemplate.update("DELETE FROM credit_scores_archive WHERE user_id = ?", userId);
+    }
+
+    /**
+     * Returns the newest month that has its own archive partition, or null if only the catch-all partition exists.
+     */
+    public YearMonth findLastPartitionMonth() {
+        List<String> names = jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'credit_scores_archive' AND PARTITION_NAME LIKE 'p______'",
+                String.class);
+        return names.stream()
+                .map(name -> YearMonth.of(Integer.parseInt(name.substring(1, 5)), Integer.parseInt(name.substring(5, 7))))
+                .max(YearMonth::compareTo)
+                .orElse(null);
+    }
+
+    /**
+     * Splits the empty catch-all partition so the given month gets its own partition.
+     * DDL commits implicitly in MySQL, so this must not run inside a data transaction.
+     * @param month A month after every existing monthly partition.
+     */
+    public void addMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute(String.format("ALTER TABLE credit_scores_archive REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION p%04d%02d VALUES LESS THAN ('%s'), PARTITION p_future VALUES LESS THAN (MAXVALUE))",
+                month.getYear(), month.getMonthValue(), month.plusMonths(1).atDay(1)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.ms.credit.repository;
+
+// Import necessary Spring JDBC classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import com.ms.credit.entity.CreditScore;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * CreditScoreBatchRepository writes credit scores with plain JDBC batch statements.
+ * It bypasses the JPA persistence context so bulk loads do not accumulate managed entities in memory.
+ */
+@Repository
+public class CreditScoreBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO credit_scores (user_id, email_id, score, scored_at, last_updated) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts all given scores as one JDBC batch.
+     * With rewriteBatchedStatements=true on the MySQL URL the driver sends them as multi-row INSERTs.
+     * @param scores The credit scores to insert.
+     */
+    public void insertAll(List<CreditScore> scores) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, scores, scores.size(), (ps, score) -> {
+            ps.setInt(1, score.getUserId());
+            ps.setString(2, score.getEmailId());
+            ps.setObject(3, score.getScore());
+            ps.setTimestamp(4, score.getDate() != null ? Timestamp.valueOf(score.getDate()) : now);
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    /**
+     * Returns the highest row id, the upper bound for id-range scans.
+     */
+    public int findMaxId() {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM credit_scores", Integer.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * Returns the distinct users owning rows in an id range.
+     * @param fromExclusive Lower id bound, exclusive.
+     * @param toInclusive   Upper id bound, inclusive.
+     */
+    public Set<Integer> findUserIdsInRange(int fromExclusive, int toInclusive) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT user_id FROM credit_scores WHERE id > ? AND id <= ?", Integer.class, fromExclusive, toInclusive));
+    }
+
+    /**
+     * Applies a SQL score expression to every row in an id range with one set-based UPDATE.
+     * last_updated is left alone, so a refresh does not hide the rows from the hourly stale score job.
+     * @param scoreExpression SQL expression over the score column, supplied by code (never by request input).
+     * @param fromExclusive   Lower id bound, exclusive.
+     * @param toInclusive     Upper id bound, inclusive.
+     * @return the number of rows updated.
+     */
+    public int updateScoresInRange(String scoreExpression, int fromExclusive, int toInclusive) {
+        return jdbcTemplate.update("UPDATE credit_scores SET score = " + scoreExpression + " "
+                + "WHERE id > ? AND id <= ? AND score IS NOT NULL", fromExclusive, toInclusive);
+    }
+
+    /**
+     * Keyset page of rows after a given id, holding only the columns a refresh needs.
+     * @param afterId Id of the last row of the previous page.
+     * @param limit   Page size.
+     */
+    public List<CreditScore> findPageAfter(int afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, user_id, score FROM credit_scores WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> {
+                    CreditScore score = new CreditScore();
+                    score.setId(rs.getInt("id"));
+                    score.setUserId(rs.getInt("user_id"));
+                    long value = rs.getLong("score");
+                    score.setScore(rs.wasNull() ? null : value);
+                    return score;
+                }, afterId, limit);
+    }
+
+    /**
+     * Writes new scores for existing rows as one JDBC batch, leaving last_updated alone like
+     * {@link #updateScoresInRange(String, int, int)}.
+     * @param scores Rows carrying their id and new score.
+     */
+    public void updateScores(List<CreditScore> scores) {
+        jdbcTemplate.batchUpdate("UPDATE credit_scores SET score = ? WHERE id = ?", scores, scores.size(),
+                (ps, score) -> {
+                    ps.setObject(1, score.getScore());
+                    ps.setInt(2, score.getId());
+                });
+    }
+}
@@ -0,0 +1,99 @@
+package com.ms.credit.repository;
+
+// Import necessary Spring JDBC classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import com.ms.credit.scoring.TransactionFeatureState;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CreditScoreFeatureRepository stores the window feature totals of streamed users, one row per user.
+ * Vectors are indexed by the {@link TransactionFeatureState} feature constants.
+ */
+@Repository
+public class CreditScoreFeatureRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO credit_score_features "
+            + "(user_id, credit, debit, loan_payment, loan_payment_count, transactions, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE credit = VALUES(credit), debit = VALUES(debit), loan_payment = VALUES(loan_payment), "
+            + "loan_payment_count = VALUES(loan_payment_count), transactions = VALUES(transactions), updated_at = VALUES(updated_at)";
+
+    private static final String SELECT_SQL =
+            "SELECT user_id, credit, debit, loan_payment, loan_payment_count, transactions FROM credit_score_features";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Inserts or replaces the feature rows of the given users as one JDBC batch.
+     * @param features Feature vector per user ID.
+     */
+    public void upsertAll(Map<Integer, double[]> features) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<Integer, double[]>> rows = new ArrayList<>(features.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            double[] vector = row.getValue();
+            ps.setInt(1, row.getKey());
+            ps.setDouble(2, vector[TransactionFeatureState.CREDIT]);
+            ps.setDouble(3, vector[TransactionFeatureState.DEBIT]);
+            ps.setDouble(4, vector[TransactionFeatureState.LOAN_PAYMENT]);
+            ps.setDouble(5, vector[TransactionFeatureState.LOAN_PAYMENT_COUNT]);
+            ps.setDouble(6, vector[TransactionFeatureState.TRANSACTIONS]);
+            ps.setTimestamp(7, now);
+        });
+    }
+
+    /**
+     * Returns the stored feature vector of a user, or null if the user has none.
+     */
+    public double[] findFeatures(int userId) {
+        List<double[]> rows = jdbcTemplate.query(SELECT_SQL + " WHERE user_id = ?", (rs, rowNum) -> vector(rs), userId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Returns the stored feature vectors of several users with one primary-key IN query; users without features are absent.
+     */
+    public Map<Integer, double[]> findFeatures(Collection<Integer> userIds) {
+        Map<Integer, double[]> features = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return features;
+        }
+        namedParameterJdbcTemplate.query(SELECT_SQL + " WHERE user_id IN (:userIds)",
+                new MapSqlParameterSource("userIds", userIds), rs -> {
+                    features.put(rs.getInt("user_id"), vector(rs));
+                });
+        return features;
+    }
+
+    /**
+     * Removes the feature row of a deleted user.
+     */
+    public void deleteByUserId(int userId) {
+        jdbcTemplate.update("DELETE FROM credit_score_features WHERE user_id = ?", userId);
+    }
+
+    private static double[] vector(ResultSet rs) throws SQLException {
+        double[] vector = new double[TransactionFeatureState.FEATURES];
+        vector[TransactionFeatureState.CREDIT] = rs.getDouble("credit");
+        vector[TransactionFeatureState.DEBIT] = rs.getDouble("debit");
+        vector[TransactionFeatureState.LOAN_PAYMENT] = rs.getDouble("loan_payment");
+        vector[TransactionFeatureState.LOAN_PAYMENT_COUNT] = rs.getDouble("loan_payment_count");
+        vector[TransactionFeatureState.TRANSACTIONS] = rs.getDouble("transactions");
+        return vector;
+    }
+}
@@ -0,0 +1,97 @@
+package com.ms.credit.repository;
+
+// Import necessary Spring JDBC classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import com.ms.credit.entity.CreditScore;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * CreditScoreHistoryRepository reads a user's score history across the hot table (credit_scores) and the archive
+ * (credit_scores_archive), so callers do not need to know which tier a row lives in.
+ * Archived rows keep their original ids, so (scored_at, id) stays a unique sort key across both tiers.
+ */
+@Repository
+public class CreditScoreHistoryRepository {
+
+    private static final String TIER_PAGE = "SELECT id, score, scored_at FROM %s WHERE user_id = ? AND scored_at >= ? "
+            + "AND scored_at < ? AND (scored_at < ? OR (scored_at = ? AND id < ?)) ORDER BY scored_at DESC, id DESC LIMIT ?";
+
+    // Each tier returns at most one page through its (user_id, scored_at DESC) index, then the two are merged.
+    private static final String PAGE_SQL = "(" + String.format(TIER_PAGE, "credit_scores") + ") UNION ALL ("
+            + String.format(TIER_PAGE, "credit_scores_archive") + ") ORDER BY scored_at DESC, id DESC LIMIT ?";
+
+    private static final String TIER_STREAM = "SELECT id, score, scored_at FROM %s WHERE user_id = ? AND scored_at >= ? AND scored_at < ?";
+
+    // One statement, since a streaming result set holds its connection until it is fully read.
+    private static final String STREAM_SQL = String.format(TIER_STREAM, "credit_scores") + " UNION ALL "
+            + String.format(TIER_STREAM, "credit_scores_archive") + " ORDER BY scored_at DESC, id DESC";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Keyset page of a user's history within [from, to), newest first, starting strictly after the cursor row.
+     * @param userId     The ID of the user.
+     * @param from       Inclusive lower bound on the score date.
+     * @param to         Exclusive upper bound on the score date.
+     * @param cursorDate Score date of the last row of the previous page.
+     * @param cursorId   Id of the last row of the previous page.
+     * @param limit      Maximum rows to return.
+     * @return up to limit rows holding id, score and date.
+     */
+    public List<CreditScore> findPage(int userId, LocalDateTime from, LocalDateTime to, LocalDateTime cursorDate, int cursorId, int limit) {
+        Timestamp fromTs = Timestamp.valueOf(from);
+        Timestamp toTs = Timestamp.valueOf(to);
+        Timestamp cursorTs = Timestamp.valueOf(cursorDate);
+        RowMapper<CreditScore> mapper = (rs, rowNum) -> mapRow(rs, userId);
+        return jdbcTemplate.query(PAGE_SQL, mapper,
+                userId, fromTs, toTs, cursorTs, cursorTs, cursorId, limit,
+                userId, fromTs, toTs, cursorTs, cursorTs, cursorId, limit,
+                limit);
+    }
+
+    /**
+     * Streams a user's history within [from, to), newest first, without materializing it in the JVM.
+     * Both tiers are merged by date in the database: a hot row can be older than archived ones, e.g. a back-dated
+     * batch row inserted after the archive run, so the tiers cannot simply be read one after the other.
+     * The statement uses MySQL's row-streaming mode (forward-only, fetch size Integer.MIN_VALUE), so rows are read
+     * from the socket as the consumer handles them.
+     * @param userId   The ID of the user.
+     * @param from     Inclusive lower bound on the score date.
+     * @param to       Exclusive upper bound on the score date.
+     * @param consumer Receives each row, holding the score and its date.
+     */
+    public void stream(int userId, LocalDateTime from, LocalDateTime to, Consumer<CreditScore> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAM_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            for (int offset = 0; offset <= 3; offset += 3) {
+                ps.setInt(offset + 1, userId);
+                ps.setTimestamp(offset + 2, Timestamp.valueOf(from));
+                ps.setTimestamp(offset + 3, Timestamp.valueOf(to));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs, userId)));
+    }
+
+    private static CreditScore mapRow(ResultSet rs, int userId) throws SQLException {
+        CreditScore score = new CreditScore();
+        score.setId(rs.getInt("id"));
+        score.setUserId(userId);
+        long value = rs.getLong("score");
+        score.setScore(rs.wasNull() ? null : value);
+        Timestamp scoredAt = rs.getTimestamp("scored_at");
+        score.setDate(scoredAt == null ? null : scoredAt.toLocalDateTime());
+        return score;
+    }
+}
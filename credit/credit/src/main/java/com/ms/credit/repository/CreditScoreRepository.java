@@ -2,9 +2,10 @@ package com.ms.credit.repository;
 
 // Import necessary classes and annotations from Spring Data JPA and other packages.
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.ms.credit.entity.CreditScore;
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -14,41 +15,36 @@ import java.util.List;
 @Repository  // Marks the interface as a Spring-managed repository.
 public interface CreditScoreRepository extends JpaRepository<CreditScore, Integer> {
 
-    /**
-     * Retrieves a list of CreditScore entities associated with a specific user ID.
-     * @param userId The ID of the user whose credit scores are to be retrieved.
-     * @return A list of CreditScore entities.
-     */
-    List<CreditScore> findByUserId(int userId);
-
     /**
      * Deletes all credit scores associated with a specific user ID.
      * This is typically used when a user is removed from the system or their data is purged.
      * @param userId The ID of the user whose credit scores are to be deleted.
      */
     void deleteByUserId(int userId);
-    
+
     /**
-     * Finds the most recent credit score for a specific user, sorted by date in descending order.
-     * This is useful for applications where the latest score is frequently accessed.
+     * Retrieves the scores of all rows belonging to a user, used to adjust running aggregates before a delete.
      * @param userId The ID of the user.
-     * @return The latest CreditScore entity.
+     * @return the non-null scores of the user's rows.
      */
-    CreditScore findTopByUserIdOrderByDateDesc(int userId);
+    @Query("SELECT c.score FROM CreditScore c WHERE c.userId = :userId AND c.score IS NOT NULL")
+    List<Long> findScoresByUserId(@Param("userId") int userId);
 
     /**
-     * Finds the most recent credit score based on the email ID of the user, sorted by date in descending order.
-     * Useful for quick lookups by email when user ID is not readily available.
-     * @param emailId The email ID associated with the user's credit score.
-     * @return The latest CreditScore entity for the given email.
+     * Computes count, sum, min and max of all scores in the database, hot and archived, in one pass.
+     * @return a single row of [count, sum, min, max].
      */
-	CreditScore findTopByEmailIdOrderByDateDesc(String emailId);
-	
+    @Query(value = "SELECT COUNT(score), COALESCE(SUM(score), 0), MIN(score), MAX(score) FROM "
+            + "(SELECT score FROM credit_scores UNION ALL SELECT score FROM credit_scores_archive) s", nativeQuery = true)
+    List<Object[]> fetchScoreTotals();
+
     /**
-     * Retrieves all credit scores that were last updated before a specific date and time.
-     * This can be used for batch processing or cleanup of old records.
-     * @param dateTime The cutoff LocalDateTime before which all records should be selected.
-     * @return A list of CreditScore entities.
+     * Counts scores, hot and archived, per fixed-width histogram bucket.
+     * @param width The bucket width; bucket n covers [n * width, (n + 1) * width).
+     * @return rows of [bucket, count].
      */
-	 List<CreditScore> findByLastUpdatedBefore(LocalDateTime dateTime);
+    @Query(value = "SELECT FLOOR(score / :width) AS bucket, COUNT(*) FROM "
+            + "(SELECT score FROM credit_scores UNION ALL SELECT score FROM credit_scores_archive) s "
+            + "WHERE score IS NOT NULL GROUP BY bucket", nativeQuery = true)
+    List<Object[]> fetchScoreHistogram(@Param("width") long width);
 }
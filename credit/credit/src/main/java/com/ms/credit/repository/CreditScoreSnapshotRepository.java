@@ -0,0 +1,67 @@
+package com.ms.credit.repository;
+
+// Import necessary Spring JDBC classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * CreditScoreSnapshotRepository reads the whole current-score projection for the local score snapshot file.
+ */
+@Repository
+public class CreditScoreSnapshotRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Receives one projection row at a time.
+     */
+    @FunctionalInterface
+    public interface CurrentScoreHandler {
+        void handle(int userId, int scoreId, Long score, LocalDateTime scoredAt);
+    }
+
+    /**
+     * Counts the users with a current score.
+     */
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM current_credit_scores", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Returns the users whose current score was scored or written at or after a point in time.
+     * @param since Earliest score or write time to include.
+     */
+    public List<Integer> findUserIdsChangedSince(LocalDateTime since) {
+        Timestamp from = Timestamp.valueOf(since);
+        return jdbcTemplate.queryForList("SELECT user_id FROM current_credit_scores WHERE scored_at >= ? OR last_updated >= ?",
+                Integer.class, from, from);
+    }
+
+    /**
+     * Streams every row of current_credit_scores without materializing them, using MySQL's row-streaming mode
+     * (forward-only, fetch size Integer.MIN_VALUE).
+     * @param handler Receives each row.
+     */
+    public void streamAll(CurrentScoreHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT user_id, score_id, score, scored_at FROM current_credit_scores",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long score = rs.getLong("score");
+            Long value = rs.wasNull() ? null : score;
+            Timestamp scoredAt = rs.getTimestamp("scored_at");
+            handler.handle(rs.getInt("user_id"), rs.getInt("score_id"), value, scoredAt.toLocalDateTime());
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.ms.credit.repository;
+
+// Import necessary classes and annotations from Spring Data JPA and other packages.
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import com.ms.credit.entity.CurrentCreditScore;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * CurrentCreditScoreRepository reads and maintains the latest-score-per-user projection.
+ * The maintenance statements must run in the same transaction as the credit_scores write they follow.
+ */
+@Repository
+public interface CurrentCreditScoreRepository extends JpaRepository<CurrentCreditScore, Integer> {
+
+    /**
+     * Finds the current score of the user with the given email.
+     * @param emailId The email ID recorded with the score.
+     * @return the projection row, or null.
+     */
+    CurrentCreditScore findFirstByEmailId(String emailId);
+
+    /**
+     * Finds the current scores of several users with one primary-key IN query.
+     * @param userIds The IDs of the users.
+     * @return the projection rows of the users that have a score.
+     */
+    @Query("SELECT c FROM CurrentCreditScore c WHERE c.userId IN :userIds")
+    List<CurrentCreditScore> findByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+    /**
+     * Keyset page of the users whose current score was last updated before a cutoff, ordered by userId, starting after
+     * a given userId. Lets the cron job walk one row per user instead of the whole history.
+     * @param dateTime    The cutoff LocalDateTime.
+     * @param afterUserId Last userId of the previous page (0 for the first page).
+     * @param pageable    Page size; the page number should stay 0.
+     * @return up to pageable.getPageSize() user IDs.
+     */
+    @Query("SELECT c.userId FROM CurrentCreditScore c WHERE c.lastUpdated < :dateTime AND c.userId > :afterUserId "
+            + "ORDER BY c.userId ASC")
+    List<Integer> findStaleUserIds(@Param("dateTime") LocalDateTime dateTime, @Param("afterUserId") int afterUserId,
+            Pageable pageable);
+
+    /**
+     * Same keyset page as above, restricted to one shard of the userId space (userId mod shards).
+     * Used when several replicas split the stale users between them.
+     * @param dateTime    The cutoff LocalDateTime.
+     * @param afterUserId Last userId of the previous page (0 for the first page).
+     * @param shards      Total number of shards.
+     * @param shard       The shard to read, between 0 and shards - 1.
+     * @param pageable    Page size; the page number should stay 0.
+     * @return up to pageable.getPageSize() user IDs of the shard.
+     */
+    @Query("SELECT c.userId FROM CurrentCreditScore c WHERE c.lastUpdated < :dateTime AND c.userId > :afterUserId "
+            + "AND MOD(c.userId, :shards) = :shard ORDER BY c.userId ASC")
+    List<Integer> findStaleShardUserIds(@Param("dateTime") LocalDateTime dateTime, @Param("afterUserId") int afterUserId,
+            @Param("shards") int shards, @Param("shard") int shard, Pageable pageable);
+
+    /**
+     * Recomputes the projection rows of the given users from their newest credit_scores row
+     * (latest scored_at, ties broken by the highest id), inserting or replacing them.
+     * Each NOT EXISTS probe is a seek on (user_id, scored_at DESC).
+     * @param userIds The users whose scores were written.
+     * @return the affected row count as reported by MySQL.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO current_credit_scores (user_id, score_id, email_id, score, scored_at, last_updated) "
+            + "SELECT * FROM (SELECT c.user_id, c.id AS score_id, c.email_id, c.score, c.scored_at, c.last_updated "
+            + "FROM credit_scores c WHERE c.user_id IN (:userIds) AND NOT EXISTS (SELECT 1 FROM credit_scores n "
+            + "WHERE n.user_id = c.user_id AND (n.scored_at > c.scored_at OR (n.scored_at = c.scored_at AND n.id > c.id)))) AS latest "
+            + "ON DUPLICATE KEY UPDATE score_id = latest.score_id, email_id = latest.email_id, score = latest.score, "
+            + "scored_at = latest.scored_at, last_updated = latest.last_updated", nativeQuery = true)
+    int refreshForUsers(@Param("userIds") Collection<Integer> userIds);
+
+    /**
+     * Copies score changes made in place on credit_scores rows in an id range into the projection rows that reflect them.
+     * @param fromExclusive Lower id bound, exclusive.
+     * @param toInclusive   Upper id bound, inclusive.
+     * @return the number of projection rows updated.
+     */
+    @Modifying
+    @Query(value = "UPDATE current_credit_scores cur JOIN credit_scores c ON c.id = cur.score_id "
+            + "SET cur.score = c.score WHERE c.id > :fromExclusive AND c.id <= :toInclusive",
+            nativeQuery = true)
+    int syncScoresInRange(@Param("fromExclusive") int fromExclusive, @Param("toInclusive") int toInclusive);
+
+    /**
+     * Removes the projection row of a user whose history was deleted.
+     * @param userId The ID of the user.
+     */
+    @Modifying
+    @Query("DELETE FROM CurrentCreditScore c WHERE c.userId = :userId")
+    void deleteByUserId(@Param("userId") int userId);
+}
@@ -0,0 +1,211 @@
+package com.ms.credit.scoring;
+
+// Import necessary Spring, Micrometer and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import com.ms.credit.dto.RefreshProgressDTO;
+import com.ms.credit.entity.CreditScore;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rescores the active users, those with transactions in the streaming window held on this node, with the active
+ * model in one bulk pass.
+ * <p>
+ * Transactions are not stored, so the window features exist only in the streaming engine's memory and there is
+ * nothing to rescore other users from: users without recent transactions keep their stored score. Each replica
+ * holds the users of its own transaction partitions, so a run covers this node's share; run it on every replica to
+ * cover all active users.
+ * <p>
+ * The feature state is exported into columns, one primitive array per feature, and the model evaluates the columns
+ * in fork/join chunks on a dedicated pool. Only users whose score changed are written, as batched JDBC inserts
+ * through the same path as the streaming flush. A user whose score an event changed during the run is skipped,
+ * because the streaming flush writes the newer score.
+ * <p>
+ * The column loops are left to the JIT. The JDK Vector API is still an incubator module on Java 17 and is not used.
+ */
+@Service
+public class BulkRescoringService {
+
+    private static final Logger logger = LogManager.getLogger(BulkRescoringService.class);
+
+    @Autowired
+    private TransactionScoringEngine transactionScoringEngine;
+    @Autowired
+    private ScoringModelLoader scoringModelLoader;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Fork/join workers evaluating the model; 0 uses every available core.
+    @Value("${credit.scoring.bulk.parallelism:0}")
+    private int parallelism;
+
+    // Rows evaluated by one fork/join leaf task.
+    @Value("${credit.scoring.bulk.chunk-size:65536}")
+    private int chunkSize;
+
+    // Rows per JDBC batch and transaction when writing the new scores.
+    @Value("${credit.scoring.bulk.write-batch-size:5000}")
+    private int writeBatchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RefreshProgressDTO progress = new RefreshProgressDTO();
+    private ExecutorService executor;
+    private ForkJoinPool pool;
+
+    /**
+     * Creates the thread that runs rescorings and the fork/join pool they share.
+     */
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "bulk-rescoring"));
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Interrupts a running rescoring on shutdown; batches already written stay written.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Starts a bulk rescoring of this node's active users in the background. Only one can run at a time per node.
+     * @return the progress report of the started run; rowsUpdated will count the users whose score changed and was written.
+     * @throws IllegalStateException if a rescoring is already running on this node.
+     */
+    public RefreshProgressDTO rescoreActiveUsers() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A bulk rescoring is already running");
+        }
+        RefreshProgressDTO current = new RefreshProgressDTO();
+        current.setRunning(true);
+        current.setMode("columnar");
+        current.setStartedAt(LocalDateTime.now());
+        try {
+            executor.execute(() -> run(current));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        progress = current;
+        return current;
+    }
+
+    private void run(RefreshProgressDTO current) {
+        long start = System.nanoTime();
+        try {
+            TransactionFeatureState state = transactionScoringEngine.getState();
+            FeatureColumns snapshot = state.exportColumns();
+            long exported = System.nanoTime();
+            ScoringModel model = scoringModelLoader.current();
+            int[] scores = new int[snapshot.getSize()];
+            scoreParallel(pool, model, snapshot.getColumns(), snapshot.getSize(), scores, chunkSize);
+            long scored = System.nanoTime();
+            write(state, snapshot, scores, current);
+            long written = System.nanoTime();
+            meterRegistry.timer("credit.scoring.bulk", "phase", "export").record(exported - start, TimeUnit.NANOSECONDS);
+            meterRegistry.timer("credit.scoring.bulk", "phase", "score").record(scored - exported, TimeUnit.NANOSECONDS);
+            meterRegistry.timer("credit.scoring.bulk", "phase", "write").record(written - scored, TimeUnit.NANOSECONDS);
+            logger.info(String.format("Bulk rescoring with model %s: %d users scored in %d ms, %d changed scores written in %d ms",
+                    model.getVersion(), snapshot.getSize(), TimeUnit.NANOSECONDS.toMillis(scored - exported),
+                    current.getRowsUpdated(), TimeUnit.NANOSECONDS.toMillis(written - scored)));
+        } catch (RuntimeException e) {
+            logger.error("Bulk rescoring stopped after " + current.getChunks() + " batches: " + e.getMessage());
+        } finally {
+            double seconds = Math.max((System.nanoTime() - start) / 1e9, 0.001);
+            current.setRowsPerSecond(current.getRowsUpdated() / seconds);
+            current.setFinishedAt(LocalDateTime.now());
+            current.setRunning(false);
+            running.set(false);
+        }
+    }
+
+    /**
+     * Reports the progress of the running bulk rescoring, or the result of the last one.
+     */
+    public RefreshProgressDTO getProgress() {
+        return progress;
+    }
+
+    /**
+     * Scores rows 0..size-1 of the columns into scores, split into fork/join tasks of at most chunkSize rows.
+     */
+    static void scoreParallel(ForkJoinPool pool, ScoringModel model, double[][] columns, int size, int[] scores, int chunkSize) {
+        pool.invoke(new ScoreTask(model, columns, scores, 0, size, Math.max(1, chunkSize)));
+    }
+
+    // Writes users whose score changed, claiming each in the feature state first so a concurrent event wins.
+    private void write(TransactionFeatureState state, FeatureColumns snapshot, int[] scores, RefreshProgressDTO current) {
+        int[] userIds = snapshot.getUserIds();
+        int[] previous = snapshot.getScores();
+        List<CreditScore> batch = new ArrayList<>(writeBatchSize);
+        for (int i = 0; i < snapshot.getSize(); i++) {
+            if (scores[i] == previous[i] || !state.compareAndSetScore(userIds[i], previous[i], scores[i])) {
+                continue;
+            }
+            CreditScore creditScore = new CreditScore(userIds[i], (long) scores[i], null);
+            creditScore.setEmailId(snapshot.getEmails()[i]);
+            batch.add(creditScore);
+            if (batch.size() == writeBatchSize) {
+                flush(batch, current);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, current);
+        }
+    }
+
+    private void flush(List<CreditScore> batch, RefreshProgressDTO current) {
+        if (transactionScoringEngine.writeBatch(batch)) {
+            current.setRowsUpdated(current.getRowsUpdated() + batch.size());
+        }
+        current.setChunks(current.getChunks() + 1);
+        batch.clear();
+    }
+
+    // Splits the row range in halves until it fits one chunk, then scores it column by column.
+    private static final class ScoreTask extends RecursiveAction {
+        private final ScoringModel model;
+        private final double[][] columns;
+        private final int[] scores;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        ScoreTask(ScoringModel model, double[][] columns, int[] scores, int from, int to, int chunkSize) {
+            this.model = model;
+            this.columns = columns;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                model.scoreColumns(columns, from, to, scores);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(model, columns, scores, from, middle, chunkSize),
+                    new ScoreTask(model, columns, scores, middle, to, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.ms.credit.scoring;
+
+/**
+ * Columnar snapshot of the feature state: one primitive array per feature, indexed by row, plus the user, email and
+ * stored score of each row. Used for whole-portfolio rescoring, where a model runs down each column instead of
+ * visiting users one by one.
+ */
+public final class FeatureColumns {
+    private final int size;
+    private final int[] userIds;
+    private final double[][] columns;   // columns[feature][row]
+    private final String[] emails;
+    private final int[] scores;
+
+    public FeatureColumns(int size, int[] userIds, double[][] columns, String[] emails, int[] scores) {
+        this.size = size;
+        this.userIds = userIds;
+        this.columns = columns;
+        this.emails = emails;
+        this.scores = scores;
+    }
+
+    // Getters
+    public int getSize() {
+        return size;
+    }
+
+    public int[] getUserIds() {
+        return userIds;
+    }
+
+    public double[][] getColumns() {
+        return columns;
+    }
+
+    public String[] getEmails() {
+        return emails;
+    }
+
+    public int[] getScores() {
+        return scores;
+    }
+}
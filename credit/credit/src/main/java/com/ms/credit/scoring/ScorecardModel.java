@@ -0,0 +1,180 @@
+package com.ms.credit.scoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A points-based scorecard compiled into flat arrays.
+ * <p>
+ * The declarative form lists characteristics. Each one reads a feature, optionally divided by another feature
+ * ("per", with the divisor floored at 1), and maps the value to points through ascending bins; a value falls into
+ * the first bin whose "below" bound exceeds it, and the last bin has no bound. The score is the base score plus the
+ * points of every characteristic, rounded and clamped to [minScore, maxScore].
+ * <p>
+ * Compilation resolves feature names to indices and lays all bins out back to back, so an evaluation is a loop
+ * over primitive arrays with no allocation.
+ */
+public final class ScorecardModel implements ScoringModel {
+
+    private static final Map<String, Integer> FEATURES = Map.of(
+            "credit", TransactionFeatureState.CREDIT,
+            "debit", TransactionFeatureState.DEBIT,
+            "loanPayment", TransactionFeatureState.LOAN_PAYMENT,
+            "loanPaymentCount", TransactionFeatureState.LOAN_PAYMENT_COUNT,
+            "transactions", TransactionFeatureState.TRANSACTIONS);
+
+    private final String version;
+    private final double baseScore;
+    private final int minScore;
+    private final int maxScore;
+    private final int[] featureIndex;      // per characteristic
+    private final int[] divisorIndex;      // per characteristic, -1 without divisor
+    private final int[] binStart;          // characteristic c owns bins binStart[c] .. binStart[c + 1] - 1
+    private final double[] binUpper;       // exclusive upper bound; +Infinity for the last bin of a characteristic
+    private final double[] binPoints;
+
+    private ScorecardModel(String version, double baseScore, int minScore, int maxScore, int[] featureIndex,
+                           int[] divisorIndex, int[] binStart, double[] binUpper, double[] binPoints) {
+        this.version = version;
+        this.baseScore = baseScore;
+        this.minScore = minScore;
+        this.maxScore = maxScore;
+        this.featureIndex = featureIndex;
+        this.divisorIndex = divisorIndex;
+        this.binStart = binStart;
+        this.binUpper = binUpper;
+        this.binPoints = binPoints;
+    }
+
+    /**
+     * Reads and compiles a JSON scorecard.
+     * @param inputStream  The scorecard document.
+     * @param objectMapper Mapper used to read it.
+     * @return the compiled model.
+     * @throws IllegalArgumentException if the scorecard is malformed.
+     */
+    public static ScorecardModel compile(InputStream inputStream, ObjectMapper objectMapper) throws IOException {
+        return compile(objectMapper.readTree(inputStream));
+    }
+
+    /**
+     * Compiles a parsed JSON scorecard.
+     * @throws IllegalArgumentException if the scorecard is malformed.
+     */
+    public static ScorecardModel compile(JsonNode scorecard) {
+        JsonNode characteristics = scorecard.path("characteristics");
+        if (!characteristics.isArray() || characteristics.isEmpty()) {
+            throw new IllegalArgumentException("Scorecard has no characteristics");
+        }
+        int count = characteristics.size();
+        int[] featureIndex = new int[count];
+        int[] divisorIndex = new int[count];
+        int[] binStart = new int[count + 1];
+        List<double[]> bins = new ArrayList<>();
+        for (int c = 0; c < count; c++) {
+            JsonNode characteristic = characteristics.get(c);
+            featureIndex[c] = featureIndex(characteristic.path("feature").asText(null));
+            divisorIndex[c] = characteristic.has("per") ? featureIndex(characteristic.get("per").asText(null)) : -1;
+            JsonNode binNodes = characteristic.path("bins");
+            if (!binNodes.isArray() || binNodes.isEmpty()) {
+                throw new IllegalArgumentException("Characteristic " + c + " has no bins");
+            }
+            binStart[c] = bins.size();
+            double previous = Double.NEGATIVE_INFINITY;
+            for (int b = 0; b < binNodes.size(); b++) {
+                JsonNode bin = binNodes.get(b);
+                boolean last = b == binNodes.size() - 1;
+                if (last == bin.has("below")) {
+                    throw new IllegalArgumentException("Characteristic " + c + ": every bin but the last needs a 'below' bound");
+                }
+                double upper = last ? Double.POSITIVE_INFINITY : bin.get("below").asDouble();
+                if (upper <= previous) {
+                    throw new IllegalArgumentException("Characteristic " + c + ": bin bounds must be ascending");
+                }
+                if (!bin.path("points").isNumber()) {
+                    throw new IllegalArgumentException("Characteristic " + c + ": bin " + b + " has no points");
+                }
+                bins.add(new double[] {upper, bin.get("points").asDouble()});
+                previous = upper;
+            }
+        }
+        binStart[count] = bins.size();
+        double[] binUpper = new double[bins.size()];
+        double[] binPoints = new double[bins.size()];
+        for (int i = 0; i < bins.size(); i++) {
+            binUpper[i] = bins.get(i)[0];
+            binPoints[i] = bins.get(i)[1];
+        }
+        int minScore = scorecard.path("minScore").asInt(300);
+        int maxScore = scorecard.path("maxScore").asInt(850);
+        if (minScore > maxScore) {
+            throw new IllegalArgumentException("Scorecard minScore is above maxScore");
+        }
+        return new ScorecardModel(scorecard.path("version").asText("unversioned"), scorecard.path("baseScore").asDouble(0),
+                minScore, maxScore, featureIndex, divisorIndex, binStart, binUpper, binPoints);
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public int score(double[] features, int offset) {
+        double total = baseScore;
+        for (int c = 0; c < featureIndex.length; c++) {
+            double value = features[offset + featureIndex[c]];
+            if (divisorIndex[c] >= 0) {
+                value /= Math.max(features[offset + divisorIndex[c]], 1);
+            }
+            int bin = binStart[c];
+            int last = binStart[c + 1] - 1;
+            while (bin < last && !(value < binUpper[bin])) {
+                bin++;
+            }
+            total += binPoints[bin];
+        }
+        return (int) Math.max(minScore, Math.min(maxScore, Math.round(total)));
+    }
+
+    /**
+     * Evaluates one characteristic at a time over the whole row range, so each pass reads one or two contiguous
+     * columns and the loop bodies stay simple enough for the JIT to unroll.
+     */
+    @Override
+    public void scoreColumns(double[][] columns, int from, int to, int[] scores) {
+        double[] totals = new double[to - from];
+        Arrays.fill(totals, baseScore);
+        for (int c = 0; c < featureIndex.length; c++) {
+            double[] values = columns[featureIndex[c]];
+            double[] divisors = divisorIndex[c] >= 0 ? columns[divisorIndex[c]] : null;
+            int first = binStart[c];
+            int last = binStart[c + 1] - 1;
+            for (int i = from; i < to; i++) {
+                double value = divisors == null ? values[i] : values[i] / Math.max(divisors[i], 1);
+                int bin = first;
+                while (bin < last && !(value < binUpper[bin])) {
+                    bin++;
+                }
+                totals[i - from] += binPoints[bin];
+            }
+        }
+        for (int i = from; i < to; i++) {
+            scores[i] = (int) Math.max(minScore, Math.min(maxScore, Math.round(totals[i - from])));
+        }
+    }
+
+    private static int featureIndex(String name) {
+        Integer index = name == null ? null : FEATURES.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown scorecard feature: " + name + ", expected one of " + FEATURES.keySet());
+        }
+        return index;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ms.credit.scoring;
+
+/**
+ * A credit scoring model evaluated over a feature vector.
+ * <p>
+ * Feature vectors use the layout of {@link TransactionFeatureState}: one double per feature constant, starting at an
+ * offset so a model can read a user's features in place from the flat state arrays. Implementations must be
+ * thread-safe and should not allocate per evaluation.
+ */
+public interface ScoringModel extends TransactionFeatureState.ScoreFunction {
+
+    /**
+     * Identifies the model, e.g. for logs and the reload metrics.
+     */
+    String getVersion();
+
+    /**
+     * Scores one feature vector.
+     * @param features Array holding the feature vector.
+     * @param offset   Index of the vector's first feature.
+     * @return the score.
+     */
+    @Override
+    int score(double[] features, int offset);
+
+    /**
+     * Scores rows from..to-1 of a columnar feature set.
+     * Models should override this with a column-at-a-time evaluation; the default scores row by row.
+     * @param columns Feature columns, indexed by the TransactionFeatureState feature constants.
+     * @param from    First row, inclusive.
+     * @param to      Last row, exclusive.
+     * @param scores  Receives the score of each row at the row's index.
+     */
+    default void scoreColumns(double[][] columns, int from, int to, int[] scores) {
+        double[] row = new double[columns.length];
+        for (int i = from; i < to; i++) {
+            for (int f = 0; f < columns.length; f++) {
+                row[f] = columns[f][i];
+            }
+            scores[i] = score(row, 0);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.ms.credit.scoring;
+
+// Import necessary Spring, Jackson, Micrometer and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the scorecard from credit.scoring.model.location and keeps it current.
+ * <p>
+ * The location is polled for a newer modification time. A changed scorecard is compiled off the scoring path and
+ * swapped in with a single volatile write, so evaluations in flight finish on the model they started with. A
+ * scorecard that fails to compile is logged and the previous model stays active.
+ */
+@Service
+public class ScoringModelLoader {
+
+    private static final Logger logger = LogManager.getLogger(ScoringModelLoader.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // A classpath: or file: location; only file locations change while the application runs.
+    @Value("${credit.scoring.model.location:classpath:scoring/scorecard.json}")
+    private String location;
+
+    private volatile ScoringModel current;
+    private long loadedModified = Long.MIN_VALUE;
+
+    /**
+     * Loads the initial model; the application does not start with an invalid scorecard.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = lastModified(resource);
+        current = load(resource);
+        loadedModified = modified;
+        logger.info("Loaded scoring model " + current.getVersion() + " from " + location);
+    }
+
+    /**
+     * Returns the active model.
+     */
+    public ScoringModel current() {
+        return current;
+    }
+
+    /**
+     * Reloads the scorecard if it changed since it was last loaded.
+     * @return true if a new model was swapped in.
+     */
+    @Scheduled(fixedDelayString = "${credit.scoring.model.reload-interval:PT30S}")
+    public synchronized boolean reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = lastModified(resource);
+        if (modified == loadedModified) {
+            return false;
+        }
+        try {
+            ScoringModel model = load(resource);
+            current = model;
+            logger.info("Reloaded scoring model " + model.getVersion() + " from " + location);
+            meterRegistry.counter("credit.scoring.model.reloads", "result", "loaded").increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Keeping scoring model " + current.getVersion() + ": " + location + " is invalid: " + e.getMessage());
+            meterRegistry.counter("credit.scoring.model.reloads", "result", "failed").increment();
+            return false;
+        } finally {
+            loadedModified = modified;  // Do not retry a broken file until it changes again.
+        }
+    }
+
+    private ScoringModel load(Resource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return ScorecardModel.compile(inputStream, objectMapper);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+}
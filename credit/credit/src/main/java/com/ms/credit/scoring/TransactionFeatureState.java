@@ -0,0 +1,450 @@
+package com.ms.credit.scoring;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * Per-user transaction features over a sliding event-time window, kept in flat primitive arrays.
+ * <p>
+ * The window is split into a fixed number of buckets. Each user owns a ring of bucket sums per feature plus the
+ * window totals. Recording an event adds to the newest bucket and the totals, and when a new bucket starts, the
+ * expired buckets are cleared and the totals summed again from the ring. Nothing is rescanned per event, and the
+ * score is recomputed from the totals only.
+ * <p>
+ * Users map to slots of open-addressing tables split into lock stripes, so concurrent listeners only contend on
+ * users that share a stripe. Users whose whole window has expired are dropped when a stripe grows.
+ * <p>
+ * Each user remembers the source partition of its latest event, so the users of a partition can be dropped when the
+ * partition moves to another consumer.
+ */
+public final class TransactionFeatureState {
+
+    // Feature indices within a user's totals.
+    public static final int CREDIT = 0;
+    public static final int DEBIT = 1;
+    public static final int LOAN_PAYMENT = 2;
+    public static final int LOAN_PAYMENT_COUNT = 3;
+    public static final int TRANSACTIONS = 4;
+    public static final int FEATURES = 5;
+
+    // Transaction types accepted by record.
+    public static final int TYPE_CREDIT = 0;
+    public static final int TYPE_DEBIT = 1;
+    public static final int TYPE_LOAN_PAYMENT = 2;
+
+    // Returned by evaluate for a user without state.
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    /**
+     * Computes a score from a user's window totals.
+     */
+    public interface ScoreFunction {
+        /**
+         * @param totals Feature totals of all users; the user's features start at offset.
+         * @param offset Index of the user's first feature.
+         * @return the score.
+         */
+        int score(double[] totals, int offset);
+    }
+
+    /**
+     * Receives users whose score changed since the previous drain.
+     */
+    public interface ChangedScoreConsumer {
+        void accept(int userId, int score, String emailId);
+    }
+
+    private final Stripe[] stripes;
+    private final long bucketMillis;
+    private final int buckets;
+    private final ScoreFunction scoreFunction;
+
+    /**
+     * @param stripes         Number of lock stripes.
+     * @param initialCapacity Initial slots per stripe; rounded up to a power of two.
+     * @param windowMillis    Length of the sliding window.
+     * @param buckets         Number of buckets the window is divided into.
+     * @param scoreFunction   Computes a score from the window totals.
+     */
+    public TransactionFeatureState(int stripes, int initialCapacity, long windowMillis, int buckets, ScoreFunction scoreFunction) {
+        if (stripes < 1 || buckets < 1 || windowMillis < buckets) {
+            throw new IllegalArgumentException("Invalid feature state dimensions");
+        }
+        this.bucketMillis = windowMillis / buckets;
+        this.buckets = buckets;
+        this.scoreFunction = scoreFunction;
+        this.stripes = new Stripe[stripes];
+        int capacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * Adds one transaction to the user's window and recomputes the score.
+     * @param userId          The user the transaction belongs to.
+     * @param timestampMillis Event time of the transaction.
+     * @param type            One of the TYPE_ constants.
+     * @param amount          The transaction amount.
+     * @param emailId         Email of the user if the event carries one, or null.
+     * @return false if the event is older than the user's window and was ignored.
+     */
+    public boolean record(int userId, long timestampMillis, int type, double amount, String emailId) {
+        return record(userId, timestampMillis, type, amount, emailId, -1, false);
+    }
+
+    /**
+     * Adds one transaction to the user's window and recomputes the score.
+     * @param userId          The user the transaction belongs to.
+     * @param timestampMillis Event time of the transaction.
+     * @param type            One of the TYPE_ constants.
+     * @param amount          The transaction amount.
+     * @param emailId         Email of the user if the event carries one, or null.
+     * @param partition       Source partition of the event, or -1.
+     * @param replay          True for an event whose score was already written, e.g. when the window is rebuilt
+     *                        after a restart: the score is updated without flagging it as changed.
+     * @return false if the event is older than the user's window and was ignored.
+     */
+    public boolean record(int userId, long timestampMillis, int type, double amount, String emailId, int partition, boolean replay) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            return stripe.record(userId, Math.floorDiv(timestampMillis, bucketMillis), type, amount, emailId, partition, replay);
+        }
+    }
+
+    /**
+     * Drops every user whose latest event came from one of the partitions, along with any unflushed change.
+     * @return the number of users dropped.
+     */
+    public int removePartitions(Set<Integer> partitions) {
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                removed += stripe.removePartitions(partitions);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Hands every user whose score changed since the last drain to the consumer and clears their changed flag.
+     * The consumer runs under the stripe lock and should only collect the values.
+     */
+    public void drainChanged(ChangedScoreConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.drainChanged(consumer);
+            }
+        }
+    }
+
+    /**
+     * Flags a user's score as changed again, e.g. after a failed write.
+     */
+    public void markChanged(int userId) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            int slot = stripe.find(userId);
+            if (slot >= 0) {
+                stripe.markChanged(slot);
+            }
+        }
+    }
+
+    /**
+     * Returns the user's current score, or null if the user has no state.
+     */
+    public Integer score(int userId) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            int slot = stripe.find(userId);
+            return slot < 0 || stripe.scores[slot] == NO_SCORE ? null : stripe.scores[slot];
+        }
+    }
+
+    /**
+     * Scores the user's current window totals in place with the given function, without changing the stored score.
+     * @return the score, or NO_SCORE if the user has no state.
+     */
+    public int evaluate(int userId, ScoreFunction function) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            int slot = stripe.find(userId);
+            return slot < 0 ? NO_SCORE : function.score(stripe.totals, slot * FEATURES);
+        }
+    }
+
+    /**
+     * Returns a copy of the user's window totals, indexed by the feature constants, or null if the user has no state.
+     */
+    public double[] features(int userId) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            int slot = stripe.find(userId);
+            return slot < 0 ? null : Arrays.copyOfRange(stripe.totals, slot * FEATURES, (slot + 1) * FEATURES);
+        }
+    }
+
+    /**
+     * Copies the state of every user into columns, one stripe at a time; users recorded during the copy may be missing.
+     */
+    public FeatureColumns exportColumns() {
+        int capacity = size() + 1024;
+        int[] userIds = new int[capacity];
+        double[][] columns = new double[FEATURES][capacity];
+        String[] emails = new String[capacity];
+        int[] scores = new int[capacity];
+        int rows = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (rows + stripe.size > capacity) {
+                    capacity = Math.max(capacity * 2, rows + stripe.size);
+                    userIds = Arrays.copyOf(userIds, capacity);
+                    for (int f = 0; f < FEATURES; f++) {
+                        columns[f] = Arrays.copyOf(columns[f], capacity);
+                    }
+                    emails = Arrays.copyOf(emails, capacity);
+                    scores = Arrays.copyOf(scores, capacity);
+                }
+                for (int slot = 0; slot < stripe.keys.length; slot++) {
+                    if (stripe.keys[slot] == EMPTY) {
+                        continue;
+                    }
+                    userIds[rows] = stripe.keys[slot];
+                    for (int f = 0; f < FEATURES; f++) {
+                        columns[f][rows] = stripe.totals[slot * FEATURES + f];
+                    }
+                    emails[rows] = stripe.emails[slot];
+                    scores[rows] = stripe.scores[slot];
+                    rows++;
+                }
+            }
+        }
+        return new FeatureColumns(rows, userIds, columns, emails, scores);
+    }
+
+    /**
+     * Replaces the user's stored score if it still equals the expected value, without flagging it as changed.
+     * @return false if the user is gone or an event changed the score in the meantime.
+     */
+    public boolean compareAndSetScore(int userId, int expected, int score) {
+        Stripe stripe = stripeOf(userId);
+        synchronized (stripe) {
+            int slot = stripe.find(userId);
+            if (slot < 0 || stripe.scores[slot] != expected) {
+                return false;
+            }
+            stripe.scores[slot] = score;
+            return true;
+        }
+    }
+
+    /**
+     * Returns the number of users held in memory.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(int userId) {
+        return stripes[Math.floorMod(mix(userId), stripes.length)];
+    }
+
+    // Spreads sequential ids over stripes and slots.
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // One open-addressing table with linear probing; every per-user value lives in a parallel array.
+    private final class Stripe {
+        private int[] keys;
+        private long[] newestBucket;
+        private double[] ring;      // slot * FEATURES * buckets + bucket * FEATURES + feature
+        private double[] totals;    // slot * FEATURES + feature
+        private int[] scores;
+        private String[] emails;
+        private int[] partitions;
+        private boolean[] changed;
+        private int[] changedSlots;
+        private int changedCount;
+        private int size;
+
+        Stripe(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            newestBucket = new long[capacity];
+            ring = new double[capacity * FEATURES * buckets];
+            totals = new double[capacity * FEATURES];
+            scores = new int[capacity];
+            emails = new String[capacity];
+            partitions = new int[capacity];
+            changed = new boolean[capacity];
+            changedSlots = new int[capacity];
+            changedCount = 0;
+            size = 0;
+        }
+
+        int find(int userId) {
+            int mask = keys.length - 1;
+            for (int slot = (mix(userId) >>> 8) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == userId) {
+                    return slot;
+                }
+                if (keys[slot] == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        private int findOrInsert(int userId, long bucket) {
+            int mask = keys.length - 1;
+            int slot = (mix(userId) >>> 8) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == userId) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow(bucket);
+                return findOrInsert(userId, bucket);
+            }
+            keys[slot] = userId;
+            newestBucket[slot] = bucket;
+            scores[slot] = NO_SCORE;
+            partitions[slot] = -1;
+            size++;
+            return slot;
+        }
+
+        boolean record(int userId, long bucket, int type, double amount, String emailId, int partition, boolean replay) {
+            int slot = findOrInsert(userId, bucket);
+            if (partition >= 0) {
+                partitions[slot] = partition;
+            }
+            long newest = newestBucket[slot];
+            if (bucket <= newest - buckets) {
+                return false;  // Older than the window.
+            }
+            int ringBase = slot * FEATURES * buckets;
+            int totalBase = slot * FEATURES;
+            if (bucket > newest) {
+                // Clear the buckets that fell out of the window, then rebuild the totals from the ring.
+                long expired = Math.min(bucket - newest, buckets);
+                for (long b = bucket - expired + 1; b <= bucket; b++) {
+                    Arrays.fill(ring, ringBase + (int) Math.floorMod(b, (long) buckets) * FEATURES,
+                            ringBase + ((int) Math.floorMod(b, (long) buckets) + 1) * FEATURES, 0);
+                }
+                newestBucket[slot] = bucket;
+                for (int f = 0; f < FEATURES; f++) {
+                    double sum = 0;
+                    for (int b = 0; b < buckets; b++) {
+                        sum += ring[ringBase + b * FEATURES + f];
+                    }
+                    totals[totalBase + f] = sum;
+                }
+            }
+            int bucketBase = ringBase + (int) Math.floorMod(bucket, (long) buckets) * FEATURES;
+            int feature = type == TYPE_CREDIT ? CREDIT : type == TYPE_DEBIT ? DEBIT : LOAN_PAYMENT;
+            ring[bucketBase + feature] += amount;
+            totals[totalBase + feature] += amount;
+            ring[bucketBase + TRANSACTIONS] += 1;
+            totals[totalBase + TRANSACTIONS] += 1;
+            if (type == TYPE_LOAN_PAYMENT) {
+                ring[bucketBase + LOAN_PAYMENT_COUNT] += 1;
+                totals[totalBase + LOAN_PAYMENT_COUNT] += 1;
+            }
+            if (emailId != null) {
+                emails[slot] = emailId;
+            }
+            int score = scoreFunction.score(totals, totalBase);
+            if (score != scores[slot]) {
+                scores[slot] = score;
+                if (!replay) {
+                    markChanged(slot);
+                }
+            }
+            return true;
+        }
+
+        void markChanged(int slot) {
+            if (!changed[slot]) {
+                changed[slot] = true;
+                changedSlots[changedCount++] = slot;
+            }
+        }
+
+        void drainChanged(ChangedScoreConsumer consumer) {
+            for (int i = 0; i < changedCount; i++) {
+                int slot = changedSlots[i];
+                changed[slot] = false;
+                consumer.accept(keys[slot], scores[slot], emails[slot]);
+            }
+            changedCount = 0;
+        }
+
+        int removePartitions(Set<Integer> removed) {
+            int before = size;
+            rehash(keys.length, slot -> !removed.contains(partitions[slot]));
+            return before - size;
+        }
+
+        // Doubles the table unless dropping users with an expired window frees enough room.
+        private void grow(long currentBucket) {
+            IntPredicate live = slot -> changed[slot] || newestBucket[slot] > currentBucket - buckets;
+            int liveCount = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY && live.test(slot)) {
+                    liveCount++;
+                }
+            }
+            rehash((liveCount + 1) * 4 > keys.length ? keys.length * 2 : keys.length, live);
+        }
+
+        // Moves the users accepted by keep (tested against the current slots) into new tables of the given capacity.
+        private void rehash(int capacity, IntPredicate keep) {
+            int[] oldKeys = keys;
+            long[] oldNewest = newestBucket;
+            double[] oldRing = ring;
+            double[] oldTotals = totals;
+            int[] oldScores = scores;
+            String[] oldEmails = emails;
+            int[] oldPartitions = partitions;
+            boolean[] oldChanged = changed;
+            boolean[] kept = new boolean[oldKeys.length];
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                kept[slot] = oldKeys[slot] != EMPTY && keep.test(slot);
+            }
+            allocate(capacity);
+            int ringStride = FEATURES * buckets;
+            for (int old = 0; old < oldKeys.length; old++) {
+                if (!kept[old]) {
+                    continue;
+                }
+                int slot = findOrInsert(oldKeys[old], oldNewest[old]);
+                System.arraycopy(oldRing, old * ringStride, ring, slot * ringStride, ringStride);
+                System.arraycopy(oldTotals, old * FEATURES, totals, slot * FEATURES, FEATURES);
+                scores[slot] = oldScores[old];
+                emails[slot] = oldEmails[old];
+                partitions[slot] = oldPartitions[old];
+                if (oldChanged[old]) {
+                    markChanged(slot);
+                }
+            }
+        }
+    }
+}
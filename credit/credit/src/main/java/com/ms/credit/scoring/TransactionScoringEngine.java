@@ -0,0 +1,305 @@
+package com.ms.credit.scoring;
+
+// Import necessary Spring, Kafka, Micrometer and Java classes.
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.dto.FinancialDataDTO;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreBatchRepository;
+import com.ms.credit.repository.CreditScoreFeatureRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import com.ms.credit.service.CreditScoreAggregateService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Scores users from their transaction events.
+ * <p>
+ * Events from the transactions topic update the user's sliding-window features in {@link TransactionFeatureState},
+ * and the active {@link ScoringModel} rescores the window totals on every event. After a model reload, stored
+ * scores move to the new model as their users' next events arrive. Changed scores are not written one by one. A
+ * scheduled flush collects every user whose score changed since the last flush and inserts them as one JDBC batch,
+ * together with the users' window features, the current-score projection, the cache and the aggregates.
+ * <p>
+ * The feature state is held in memory. A batch's offsets are only committed by the flush that wrote the scores its
+ * events changed, so every event before a committed offset has its score in the database. Whenever partitions are
+ * assigned, after a restart or a rebalance, their users are dropped and the consumer seeks back to the start of the
+ * window (the topic's retention must cover it). Events before the committed offset are replayed into the state
+ * without writing scores, since their scores were written before; live events resume at the committed offset.
+ * <p>
+ * The state of a user lives only on the replica that owns the user's partition. {@link #scoreWithCurrentModel}
+ * therefore scores the features stored by the flush, which every replica reads alike.
+ */
+@Service
+public class TransactionScoringEngine implements ConsumerSeekAware {
+
+    private static final Logger logger = LogManager.getLogger(TransactionScoringEngine.class);
+
+    @Autowired
+    private CreditScoreBatchRepository creditScoreBatchRepository;
+    @Autowired
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+    @Autowired
+    private CreditScoreFeatureRepository creditScoreFeatureRepository;
+    @Autowired
+    private CreditScoreCache creditScoreCache;
+    @Autowired
+    private CreditScoreAggregateService creditScoreAggregateService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ScoringModelLoader scoringModelLoader;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Length of the sliding feature window and the number of buckets it is divided into.
+    @Value("${credit.scoring.window:P30D}")
+    private Duration window;
+    @Value("${credit.scoring.window-buckets:6}")
+    private int windowBuckets;
+
+    // Lock stripes of the feature state; more stripes mean less contention between listener threads.
+    @Value("${credit.scoring.stripes:64}")
+    private int stripes;
+
+    // Rows per JDBC batch when flushing changed scores.
+    @Value("${credit.scoring.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    private TransactionFeatureState state;
+    // Per assigned partition, the committed offset at assignment; records before it are replayed.
+    private final Map<Integer, Long> replayUntil = new ConcurrentHashMap<>();
+    // Acknowledgments of applied batches, committed by the next flush that writes every score changed before them.
+    private final Queue<Acknowledgment> pendingAcks = new ConcurrentLinkedQueue<>();
+    // Acknowledgments held back by a failed flush; only touched under the flush lock.
+    private final List<Acknowledgment> unflushedAcks = new ArrayList<>();
+    private Counter applied;
+    private Counter late;
+    private Counter invalid;
+    private Counter replayed;
+
+    @PostConstruct
+    public void init() {
+        state = new TransactionFeatureState(stripes, 1024, window.toMillis(), windowBuckets,
+                (totals, offset) -> scoringModelLoader.current().score(totals, offset));
+        applied = meterRegistry.counter("credit.scoring.events", "result", "applied");
+        late = meterRegistry.counter("credit.scoring.events", "result", "late");
+        invalid = meterRegistry.counter("credit.scoring.events", "result", "invalid");
+        replayed = meterRegistry.counter("credit.scoring.events", "result", "replayed");
+        meterRegistry.gauge("credit.scoring.users", state, TransactionFeatureState::size);
+    }
+
+    /**
+     * Drops any state left from an earlier assignment of the partitions and rewinds them to the start of the window,
+     * remembering where the replay ends.
+     */
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Set<Integer> partitions = assignments.keySet().stream().map(TopicPartition::partition).collect(Collectors.toSet());
+        assignments.forEach((partition, committed) -> replayUntil.put(partition.partition(), committed));
+        int dropped = state.removePartitions(partitions);
+        callback.seekToTimestamp(assignments.keySet(), System.currentTimeMillis() - window.toMillis());
+        logger.info("Replaying the scoring window of partitions " + partitions + " up to offsets " + assignments.values()
+                + (dropped > 0 ? " (dropped " + dropped + " users of an earlier assignment)" : ""));
+    }
+
+    /**
+     * Writes pending scores and drops the users of revoked partitions; their new owner rebuilds them.
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> revoked) {
+        Set<Integer> partitions = revoked.stream().map(TopicPartition::partition).collect(Collectors.toSet());
+        flush();
+        partitions.forEach(replayUntil::remove);
+        state.removePartitions(partitions);
+    }
+
+    /**
+     * Applies a batch of transaction events to the feature state and hands its acknowledgment to the next flush, which
+     * commits the offsets once the changed scores are written. A batch holding replayed events is not acknowledged,
+     * so the committed offsets never move back; the next live batch commits past it.
+     * @param records        Transaction events of one poll; the record timestamp is the event time.
+     * @param acknowledgment Commits the offsets of the batch.
+     */
+    @KafkaListener(topics = "${credit.scoring.topic:credit-transactions}", groupId = "credit-scoring",
+            autoStartup = "${credit.scoring.enabled:true}")
+    public void onTransactions(List<ConsumerRecord<String, FinancialDataDTO>> records, Acknowledgment acknowledgment) {
+        boolean anyReplayed = false;
+        for (ConsumerRecord<String, FinancialDataDTO> record : records) {
+            boolean replay = record.offset() < replayUntil.getOrDefault(record.partition(), -1L);
+            anyReplayed |= replay;
+            apply(record.value(), record.timestamp(), record.partition(), replay);
+        }
+        if (!anyReplayed) {
+            pendingAcks.add(acknowledgment);
+        }
+    }
+
+    /**
+     * Applies one transaction event.
+     * @param event           The transaction.
+     * @param timestampMillis Event time of the transaction.
+     * @param partition       Source partition of the event.
+     * @param replay          True if the event's score was already written and only the state is rebuilt.
+     */
+    public void apply(FinancialDataDTO event, long timestampMillis, int partition, boolean replay) {
+        int type = event == null ? -1 : typeOf(event.getTransactionType());
+        if (type < 0 || !Double.isFinite(event.getTransactionAmount())) {
+            invalid.increment();
+            return;
+        }
+        if (state.record(event.getUserId(), timestampMillis, type, Math.abs(event.getTransactionAmount()), event.getEmailId(),
+                partition, replay)) {
+            (replay ? replayed : applied).increment();
+        } else {
+            late.increment();
+        }
+    }
+
+    /**
+     * Returns the user's current streaming score, or null if the user has no transactions in the window.
+     */
+    public Integer getScore(int userId) {
+        return state.score(userId);
+    }
+
+    /**
+     * Scores the user's stored window features with the active model, which may be newer than the one behind
+     * getScore. The features are those of the user's last flushed event, so the answer is the same on every replica
+     * and does not depend on a partition replay.
+     * @return the score, or TransactionFeatureState.NO_SCORE if no features are stored for the user.
+     */
+    public int scoreWithCurrentModel(int userId) {
+        double[] features = creditScoreFeatureRepository.findFeatures(userId);
+        return features == null ? TransactionFeatureState.NO_SCORE : scoringModelLoader.current().score(features, 0);
+    }
+
+    /**
+     * Bulk variant of {@link #scoreWithCurrentModel(int)}: loads the stored features with one query and scores them.
+     * @return the score per user; users without stored features are absent.
+     */
+    public Map<Integer, Integer> scoreAllWithCurrentModel(Collection<Integer> userIds) {
+        ScoringModel model = scoringModelLoader.current();
+        Map<Integer, Integer> scores = new HashMap<>();
+        creditScoreFeatureRepository.findFeatures(userIds).forEach((userId, features) -> scores.put(userId, model.score(features, 0)));
+        return scores;
+    }
+
+    /**
+     * Writes the scores that changed since the previous flush in JDBC batches, then acknowledges the listener batches
+     * applied before it started. Users of a batch that fails are flagged again and retried by the next flush, which
+     * also takes over the acknowledgments held back.
+     */
+    @Scheduled(fixedDelayString = "${credit.scoring.flush-interval:PT1S}")
+    public synchronized void flush() {
+        // Taken before the changes are drained, so every change of these batches is written by this flush or was
+        // written by an earlier one.
+        for (Acknowledgment acknowledgment; (acknowledgment = pendingAcks.poll()) != null; ) {
+            unflushedAcks.add(acknowledgment);
+        }
+        List<CreditScore> changed = new ArrayList<>();
+        state.drainChanged((userId, score, emailId) -> {
+            CreditScore creditScore = new CreditScore(userId, (long) score, null);
+            creditScore.setEmailId(emailId);
+            changed.add(creditScore);
+        });
+        boolean written = true;
+        if (!changed.isEmpty()) {
+            long start = System.nanoTime();
+            for (int from = 0; from < changed.size(); from += flushBatchSize) {
+                List<CreditScore> batch = changed.subList(from, Math.min(from + flushBatchSize, changed.size()));
+                if (writeBatch(batch)) {
+                    meterRegistry.counter("credit.scoring.flushed").increment(batch.size());
+                } else {
+                    written = false;
+                }
+            }
+            meterRegistry.timer("credit.scoring.flush").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (written) {
+            // In arrival order, so the last acknowledgment of a partition commits its furthest offset. The container
+            // queues acknowledgments made off the consumer thread and commits them on its next poll.
+            unflushedAcks.forEach(Acknowledgment::acknowledge);
+            unflushedAcks.clear();
+        }
+    }
+
+    /**
+     * Inserts a batch of new scores with the users' current window features and the projection refresh in one
+     * transaction, then updates the cache and the aggregates. Users of a failed batch are flagged as changed so the
+     * next flush writes them.
+     * @return true if the batch was written.
+     */
+    boolean writeBatch(List<CreditScore> batch) {
+        Map<Integer, double[]> features = new HashMap<>();
+        for (CreditScore creditScore : batch) {
+            double[] userFeatures = state.features(creditScore.getUserId());
+            if (userFeatures != null) {
+                features.put(creditScore.getUserId(), userFeatures);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                creditScoreBatchRepository.insertAll(batch);
+                creditScoreFeatureRepository.upsertAll(features);
+                currentCreditScoreRepository.refreshForUsers(batch.stream().map(CreditScore::getUserId).collect(Collectors.toSet()));
+            });
+        } catch (RuntimeException e) {
+            logger.error("Failed to write " + batch.size() + " streaming scores: " + e.getMessage());
+            batch.forEach(score -> state.markChanged(score.getUserId()));
+            return false;
+        }
+        creditScoreCache.evictAll(batch.stream().map(CreditScore::getUserId).collect(Collectors.toSet()));
+        creditScoreAggregateService.recordInserts(batch.stream().map(CreditScore::getScore).collect(Collectors.toList()));
+        return true;
+    }
+
+    /**
+     * Returns the feature state, for bulk rescoring.
+     */
+    TransactionFeatureState getState() {
+        return state;
+    }
+
+    // Maps "credit", "debit" and "loan payment" (any case, with space, '_' or '-') to a feature state type.
+    static int typeOf(String transactionType) {
+        if (transactionType == null) {
+            return -1;
+        }
+        switch (transactionType.trim().toLowerCase(Locale.ROOT).replace('_', ' ').replace('-', ' ')) {
+            case "credit":
+                return TransactionFeatureState.TYPE_CREDIT;
+            case "debit":
+                return TransactionFeatureState.TYPE_DEBIT;
+            case "loan payment":
+                return TransactionFeatureState.TYPE_LOAN_PAYMENT;
+            default:
+                return -1;
+        }
+    }
+}
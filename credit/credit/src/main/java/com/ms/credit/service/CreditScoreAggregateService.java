@@ -0,0 +1,203 @@
+package com.ms.credit.service;
+
+// Import necessary Spring, Redis and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import com.ms.credit.dto.CreditScoreStatisticsDTO;
+import com.ms.credit.repository.CreditScoreRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains running aggregates (count, sum, min, max and a score histogram) over all credit scores, including the
+ * history moved to credit_scores_archive. Archiving only moves rows between tiers, so it leaves the aggregates as they are.
+ * The aggregates live in a Redis hash shared by all credit nodes and are adjusted on every create, update and delete,
+ * so statistics are read in O(1) instead of scanning the table. A scheduled reconcile job recomputes them from the
+ * database to correct any drift.
+ * <p>
+ * Deletes cannot shrink min/max incrementally, so after a delete they are bounds until the next reconcile.
+ */
+@Service
+public class CreditScoreAggregateService {
+
+    private static final Logger logger = LogManager.getLogger(CreditScoreAggregateService.class);
+    private static final String AGGREGATES_KEY = "credit-score:aggregates";
+    private static final String BUCKET_PREFIX = "bucket:";
+
+    // ARGV: countDelta, sumDelta, minCandidate|'', maxCandidate|'', then bucketField, bucketDelta pairs.
+    private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HINCRBY', KEYS[1], 'count', ARGV[1]) "
+            + "redis.call('HINCRBY', KEYS[1], 'sum', ARGV[2]) "
+            + "if ARGV[3] ~= '' then local cur = redis.call('HGET', KEYS[1], 'min') "
+            + "  if not cur or tonumber(ARGV[3]) < tonumber(cur) then redis.call('HSET', KEYS[1], 'min', ARGV[3]) end end "
+            + "if ARGV[4] ~= '' then local cur = redis.call('HGET', KEYS[1], 'max') "
+            + "  if not cur or tonumber(ARGV[4]) > tonumber(cur) then redis.call('HSET', KEYS[1], 'max', ARGV[4]) end end "
+            + "for i = 5, #ARGV, 2 do redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "return 1", Long.class);
+
+    // ARGV: field, value pairs replacing the whole hash atomically.
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+            + "for i = 1, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+            + "return 1", Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private CreditScoreRepository creditScoreRepository;
+
+    // Width of each histogram bucket in score points.
+    @Value("${credit.aggregates.bucket-width:50}")
+    private long bucketWidth;
+
+    /**
+     * Records newly inserted scores.
+     * @param scores The scores of the inserted rows; null scores are ignored.
+     */
+    public void recordInserts(Collection<Long> scores) {
+        apply(scores, List.of());
+    }
+
+    /**
+     * Records a single score change on an existing row.
+     * @param oldScore The score before the update, or null.
+     * @param newScore The score after the update, or null.
+     */
+    public void recordUpdate(Long oldScore, Long newScore) {
+        apply(newScore == null ? List.of() : List.of(newScore), oldScore == null ? List.of() : List.of(oldScore));
+    }
+
+    /**
+     * Records deleted rows.
+     * @param scores The scores of the deleted rows; null scores are ignored.
+     */
+    public void recordDeletes(Collection<Long> scores) {
+        apply(List.of(), scores);
+    }
+
+    /**
+     * Returns the average of all scores in O(1), rebuilding the aggregates first if they do not exist yet.
+     * @return the average score, or NaN when there are no scores.
+     */
+    public double getAverage() {
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(AGGREGATES_KEY, List.of("count", "sum"));
+        if (values.get(0) == null) {
+            reconcile();
+            values = stringRedisTemplate.opsForHash().multiGet(AGGREGATES_KEY, List.of("count", "sum"));
+        }
+        long count = parse(values.get(0));
+        return count == 0 ? Double.NaN : (double) parse(values.get(1)) / count;
+    }
+
+    /**
+     * Returns count, average, min, max and histogram of all scores from the running aggregates.
+     * @return the current statistics.
+     */
+    public CreditScoreStatisticsDTO getStatistics() {
+        Map<Object, Object> hash = stringRedisTemplate.opsForHash().entries(AGGREGATES_KEY);
+        if (hash.isEmpty()) {
+            reconcile();
+            hash = stringRedisTemplate.opsForHash().entries(AGGREGATES_KEY);
+        }
+        long count = parse(hash.get("count"));
+        Map<Long, Long> histogram = new TreeMap<>();
+        hash.forEach((field, value) -> {
+            String name = field.toString();
+            if (name.startsWith(BUCKET_PREFIX) && parse(value) > 0) {
+                histogram.put(Long.parseLong(name.substring(BUCKET_PREFIX.length())) * bucketWidth, parse(value));
+            }
+        });
+        return new CreditScoreStatisticsDTO(count, count == 0 ? Double.NaN : (double) parse(hash.get("sum")) / count,
+                count == 0 ? null : parseNullable(hash.get("min")), count == 0 ? null : parseNullable(hash.get("max")), histogram);
+    }
+
+    /**
+     * Recomputes the aggregates with DB-side COUNT/SUM/MIN/MAX and GROUP BY queries and replaces the Redis copy.
+     * Writes that land between the queries and the replace are picked up by the next run.
+     */
+    @Scheduled(cron = "${credit.aggregates.reconcile-cron:0 */15 * * * *}")
+    public void reconcile() {
+        Object[] totals = creditScoreRepository.fetchScoreTotals().get(0);
+        long count = ((Number) totals[0]).longValue();
+        long sum = ((Number) totals[1]).longValue();
+        List<String> args = new ArrayList<>();
+        args.add("count");
+        args.add(Long.toString(count));
+        args.add("sum");
+        args.add(Long.toString(sum));
+        if (totals[2] != null) {
+            args.add("min");
+            args.add(Long.toString(((Number) totals[2]).longValue()));
+            args.add("max");
+            args.add(Long.toString(((Number) totals[3]).longValue()));
+        }
+        for (Object[] bucket : creditScoreRepository.fetchScoreHistogram(bucketWidth)) {
+            args.add(BUCKET_PREFIX + ((Number) bucket[0]).longValue());
+            args.add(Long.toString(((Number) bucket[1]).longValue()));
+        }
+        List<Object> previous = stringRedisTemplate.opsForHash().multiGet(AGGREGATES_KEY, List.of("count", "sum"));
+        if (previous.get(0) != null && (parse(previous.get(0)) != count || parse(previous.get(1)) != sum)) {
+            logger.warn("Credit score aggregates drifted: count " + previous.get(0) + " -> " + count + ", sum " + previous.get(1) + " -> " + sum);
+        }
+        stringRedisTemplate.execute(REPLACE_SCRIPT, List.of(AGGREGATES_KEY), args.toArray());
+    }
+
+    // Applies added and removed scores to the hash in one atomic script call.
+    private void apply(Collection<Long> added, Collection<Long> removed) {
+        long countDelta = 0;
+        long sumDelta = 0;
+        Long min = null;
+        Long max = null;
+        Map<Long, Long> bucketDeltas = new HashMap<>();
+        for (Long score : added) {
+            if (score != null) {
+                countDelta++;
+                sumDelta += score;
+                min = min == null ? score : Math.min(min, score);
+                max = max == null ? score : Math.max(max, score);
+                bucketDeltas.merge(Math.floorDiv(score, bucketWidth), 1L, Long::sum);
+            }
+        }
+        for (Long score : removed) {
+            if (score != null) {
+                countDelta--;
+                sumDelta -= score;
+                bucketDeltas.merge(Math.floorDiv(score, bucketWidth), -1L, Long::sum);
+            }
+        }
+        if (countDelta == 0 && sumDelta == 0 && min == null) {
+            return;
+        }
+        List<String> args = new ArrayList<>();
+        args.add(Long.toString(countDelta));
+        args.add(Long.toString(sumDelta));
+        args.add(min == null ? "" : min.toString());
+        args.add(max == null ? "" : max.toString());
+        bucketDeltas.forEach((bucket, delta) -> {
+            if (delta != 0) {
+                args.add(BUCKET_PREFIX + bucket);
+                args.add(delta.toString());
+            }
+        });
+        stringRedisTemplate.execute(APPLY_SCRIPT, List.of(AGGREGATES_KEY), args.toArray());
+    }
+
+    private static long parse(Object value) {
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+
+    private static Long parseNullable(Object value) {
+        return value == null ? null : Long.valueOf(value.toString());
+    }
+}
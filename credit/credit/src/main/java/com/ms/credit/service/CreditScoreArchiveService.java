@@ -0,0 +1,111 @@
+package com.ms.credit.service;
+
+// Import necessary Spring and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreArchiveRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Moves credit score history older than a configurable horizon from credit_scores into the monthly-partitioned
+ * archive table, in batches that each commit on their own, so the hot table and its indexes stay small.
+ * <p>
+ * The running aggregates and history reads (CreditScoreHistoryRepository) cover both tiers, so a move changes neither.
+ */
+@Service
+public class CreditScoreArchiveService {
+
+    private static final Logger logger = LogManager.getLogger(CreditScoreArchiveService.class);
+
+    @Autowired
+    private CreditScoreArchiveRepository creditScoreArchiveRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    // Makes sure only one replica archives per scheduled run.
+    @Autowired
+    private CronShardLeaseService cronShardLeaseService;
+
+    @Value("${credit.archive.enabled:false}")
+    private boolean enabled;
+
+    // Scores recorded longer ago than this are archived, except each user's current score.
+    @Value("${credit.archive.horizon:P730D}")
+    private Duration horizon;
+
+    // Rows moved per transaction.
+    @Value("${credit.archive.batch-size:5000}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Scheduled archive run. Skipped when disabled or when the previous run is still going.
+     * @return the number of rows moved.
+     */
+    @Scheduled(cron = "${credit.archive.cron:0 30 2 * * *}")
+    public long archive() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return 0;
+        }
+        String runId = "archive-" + LocalDate.now();
+        try {
+            if (!cronShardLeaseService.tryAcquire(runId, 0)) {
+                return 0;  // Another replica is archiving or already has today.
+            }
+            long moved = archiveBefore(LocalDateTime.now().minus(horizon), () -> cronShardLeaseService.renew(runId, 0));
+            cronShardLeaseService.complete(runId, 0);
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long archiveBefore(LocalDateTime cutoff, BooleanSupplier keepGoing) {
+        long start = System.currentTimeMillis();
+        long moved = 0;
+        int batches = 0;
+        int lastId = 0;
+        List<CreditScore> page;
+        while (!(page = creditScoreArchiveRepository.findArchivableAfter(cutoff, lastId, batchSize)).isEmpty()) {
+            lastId = page.get(page.size() - 1).getId();
+            ensurePartitions(page);
+            List<CreditScore> batch = page;
+            Integer count = transactionTemplate.execute(status -> creditScoreArchiveRepository.moveToArchive(
+                    batch.stream().map(CreditScore::getId).collect(Collectors.toList())));
+            moved += count == null ? 0 : count;
+            batches++;
+            if (!keepGoing.getAsBoolean()) {
+                logger.warn("Lost the archive lease; stopping after " + batches + " batches");
+                break;
+            }
+        }
+        logger.info("Archived " + moved + " credit scores older than " + cutoff + " in " + batches + " batches, "
+                + (System.currentTimeMillis() - start) + " ms");
+        return moved;
+    }
+
+    // Gives every month in the batch its own partition before rows are inserted, so p_future stays empty and cheap to split.
+    private void ensurePartitions(List<CreditScore> batch) {
+        YearMonth newest = batch.stream().map(score -> YearMonth.from(score.getDate())).max(YearMonth::compareTo).orElseThrow();
+        YearMonth last = creditScoreArchiveRepository.findLastPartitionMonth();
+        if (last == null) {
+            last = batch.stream().map(score -> YearMonth.from(score.getDate())).min(YearMonth::compareTo).orElseThrow().minusMonths(1);
+        }
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(newest); month = month.plusMonths(1)) {
+            creditScoreArchiveRepository.addMonthlyPartition(month);
+        }
+    }
+}
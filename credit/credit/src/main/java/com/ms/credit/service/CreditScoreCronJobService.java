@@ -2,37 +2,296 @@ package com.ms.credit.service;
 
 // Import necessary Spring framework and Java utility classes.
 import org.springframework.scheduling.annotation.Scheduled;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import com.ms.credit.dto.CreditScoreDTO;
+import com.ms.credit.client.UserManagementClient;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * CreditScoreCronJobService is a service class that schedules and executes periodic tasks
  * related to credit scores using Spring's scheduling capabilities.
+ * <p>
+ * Users whose current score is stale are read from the one-row-per-user projection in keyset pages and fanned out
+ * over a bounded worker pool. Users are split into partitions by userId, and each partition has its own concurrency
+ * limit so one hot partition cannot take over the pool. A run executes on its own thread, so it never holds up the
+ * other scheduled tasks while it waits for its users.
+ * With several replicas, distributed mode leases userId shards through {@link CronShardLeaseService} so the work of a
+ * run is divided between the nodes rather than repeated on each.
  */
 @Service  // Marks this class as a Spring-managed service.
 public class CreditScoreCronJobService {
 
+    private static final Logger logger = LogManager.getLogger(CreditScoreCronJobService.class);
+
     // Automatically injects CreditScoreService to access its methods.
     @Autowired
-    private CreditScoreService creditScoreService; 
+    private CreditScoreService creditScoreService;
+
+    // Used to resolve the emails of each page in one batch request before it is processed.
+    @Autowired
+    private UserManagementClient userManagementClient;
+
+    // Reads the users with stale current scores page by page.
+    @Autowired
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+
+    // Coordinates the shards of a run between replicas in distributed mode.
+    @Autowired
+    private CronShardLeaseService cronShardLeaseService;
+
+    // Records per-run duration and item counts.
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Users read per keyset page.
+    @Value("${credit.cron.page-size:1000}")
+    private int pageSize;
+
+    // Worker threads processing users in parallel.
+    @Value("${credit.cron.threads:16}")
+    private int threads;
+
+    // Number of userId partitions; users map to partition userId mod partitions.
+    @Value("${credit.cron.partitions:16}")
+    private int partitions;
+
+    // Maximum users of one partition processed at the same time.
+    @Value("${credit.cron.partition-concurrency:2}")
+    private int partitionConcurrency;
+
+    // "local" processes every stale user on this node, "distributed" splits the run between replicas by userId shard.
+    @Value("${credit.cron.mode:local}")
+    private String mode;
+
+    // Number of userId shards leased out to replicas in distributed mode.
+    @Value("${credit.cron.shards:64}")
+    private int shards;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Runs one cron run at a time, off the shared scheduler thread.
+    private ExecutorService runner;
+    private ThreadPoolExecutor workers;
+    private Semaphore[] partitionPermits;
+
+    /**
+     * Creates the run thread, the worker pool and the per-partition concurrency limits.
+     */
+    @PostConstruct
+    public void init() {
+        runner = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "credit-cron-run"));
+        AtomicInteger threadCount = new AtomicInteger();
+        // A small bounded queue plus caller-runs gives backpressure to the page reader instead of buffering the whole run.
+        // Unlike CallerRunsPolicy, a task rejected after shutdown is refused rather than dropped, so submit() can
+        // release its permit and phaser party.
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 4),
+                runnable -> new Thread(runnable, "credit-cron-" + threadCount.incrementAndGet()),
+                (runnable, executor) -> {
+                    if (executor.isShutdown()) {
+                        throw new RejectedExecutionException("Credit score cron workers are shut down");
+                    }
+                    runnable.run();
+                });
+        partitionPermits = new Semaphore[partitions];
+        for (int i = 0; i < partitions; i++) {
+            partitionPermits[i] = new Semaphore(partitionConcurrency);
+        }
+    }
+
+    /**
+     * Stops the run thread and the worker pool on shutdown. Queued users that will never run give back their permit
+     * and phaser party, so a run waiting for them can finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        for (Runnable queued : workers.shutdownNow()) {
+            if (queued instanceof UserTask) {
+                ((UserTask) queued).cancel();
+            }
+        }
+    }
 
     /**
      * Scheduled method to process pending credit scores on an hourly basis.
-     * It fetches credit scores that have been updated more than 24 hours ago and processes them.
+     * It starts a run over the users whose current score was last updated more than 24 hours ago, processing each
+     * user once, and returns without waiting for it. A run is skipped if the previous one has not finished yet.
+     * In distributed mode the replicas split the run by userId shard, so each stale user is processed once across
+     * the cluster.
      */
     @Scheduled(cron = "0 0 * * * *") // Cron expression for hourly execution: runs at the top of every hour.
     public void processPendingClaims() {
-        // Fetch a list of credit scores that need to be updated or processed.
-        List<CreditScoreDTO> creditScores = creditScoreService.fetchScoresUpdatedMoreThan24HoursAgo(); 
-        for (CreditScoreDTO creditScore : creditScores) {
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Skipping credit score cron run: the previous run is still in progress");
+            return;
+        }
+        // Every replica derives the same run start and cutoff from the schedule, not from its own clock skew.
+        LocalDateTime runStart = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        try {
+            runner.execute(() -> run(runStart));
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            logger.warn("Skipping credit score cron run: " + e.getMessage());
+        }
+    }
+
+    // Processes the stale users of one run and records its metrics.
+    private void run(LocalDateTime runStart) {
+        try {
+            LocalDateTime cutoff = runStart.minusHours(24);
+            long start = System.nanoTime();
+            AtomicLong processed = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            int shardsDone;
+            if ("distributed".equals(mode)) {
+                shardsDone = processShards(runStart.toString(), cutoff, processed, failed);
+            } else {
+                processPages(afterUserId -> currentCreditScoreRepository.findStaleUserIds(
+                        cutoff, afterUserId, PageRequest.of(0, pageSize)), () -> true, processed, failed);
+                shardsDone = 1;
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            meterRegistry.timer("credit.cron.run").record(elapsedNanos, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("credit.cron.users", "result", "processed").increment(processed.get());
+            meterRegistry.counter("credit.cron.users", "result", "failed").increment(failed.get());
+            double seconds = Math.max(elapsedNanos / 1e9, 0.001);
+            logger.info(String.format("Credit score cron run (%s, %d shards on this node): %d users processed, %d failed in %.1f s (%.1f users/s)",
+                    mode, shardsDone, processed.get(), failed.get(), seconds, processed.get() / seconds));
+        } catch (RuntimeException e) {
+            logger.error("Credit score cron run " + runStart + " failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Makes one pass over the shards of the run, starting at an offset derived from this node's id so replicas do not
+    // all contend for shard 0, and processes every shard it can lease. Shards leased by other nodes are left to them; if
+    // a node dies its users are still stale at the next run and are picked up then.
+    private int processShards(String runId, LocalDateTime cutoff, AtomicLong processed, AtomicLong failed) {
+        int offset = Math.floorMod(cronShardLeaseService.getNodeId().hashCode(), shards);
+        int shardsDone = 0;
+        for (int i = 0; i < shards; i++) {
+            int shard = (offset + i) % shards;
+            if (!cronShardLeaseService.tryAcquire(runId, shard)) {
+                continue;  // Done, or leased by another node.
+            }
+            boolean finished = processPages(afterUserId -> currentCreditScoreRepository.findStaleShardUserIds(
+                            cutoff, afterUserId, shards, shard, PageRequest.of(0, pageSize)),
+                    () -> cronShardLeaseService.renew(runId, shard), processed, failed);
+            if (finished) {
+                cronShardLeaseService.complete(runId, shard);
+                shardsDone++;
+            } else {
+                logger.warn("Lost the lease of credit cron shard " + shard + " in run " + runId);
+            }
+        }
+        return shardsDone;
+    }
+
+    // Pages through stale users by userId and hands each one to the worker pool, then waits for them to finish.
+    // Returns false if keepGoing reported that the work should stop after a page.
+    private boolean processPages(IntFunction<List<Integer>> nextPage, BooleanSupplier keepGoing,
+            AtomicLong processed, AtomicLong failed) {
+        Phaser inFlight = new Phaser(1);
+        boolean completed = true;
+        int lastUserId = 0;
+        List<Integer> userIds;
+        try {
+            while (!(userIds = nextPage.apply(lastUserId)).isEmpty()) {
+                lastUserId = userIds.get(userIds.size() - 1);
+                // Warm the email cache with a single batch call so the per-user lookups are served locally. Best effort:
+                // if it fails, each user falls back to its own lookup.
+                try {
+                    userManagementClient.getAllUserDetails(userIds).block();
+                } catch (RuntimeException e) {
+                    logger.warn("Could not warm the email cache for " + userIds.size() + " users: " + e.getMessage());
+                }
+                for (Integer userId : userIds) {
+                    submit(userId, inFlight, processed, failed);
+                }
+                if (!keepGoing.getAsBoolean()) {
+                    completed = false;
+                    break;
+                }
+            }
+        } finally {
+            inFlight.arriveAndAwaitAdvance();  // Wait for the last users to finish.
+        }
+        return completed;
+    }
+
+    // Waits for a permit of the user's partition, then processes the user on the worker pool.
+    private void submit(int userId, Phaser inFlight, AtomicLong processed, AtomicLong failed) {
+        Semaphore permits = partitionPermits[Math.floorMod(userId, partitions)];
+        permits.acquireUninterruptibly();
+        inFlight.register();
+        UserTask task = new UserTask(userId, permits, inFlight, processed, failed);
+        try {
+            workers.execute(task);
+        } catch (RuntimeException e) {
+            task.cancel();
+            throw e;
+        }
+    }
+
+    // One user's work; its permit and phaser party are given back exactly once, whether it runs or is cancelled.
+    private class UserTask implements Runnable {
+        private final int userId;
+        private final Semaphore permits;
+        private final Phaser inFlight;
+        private final AtomicLong processed;
+        private final AtomicLong failed;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        UserTask(int userId, Semaphore permits, Phaser inFlight, AtomicLong processed, AtomicLong failed) {
+            this.userId = userId;
+            this.permits = permits;
+            this.inFlight = inFlight;
+            this.processed = processed;
+            this.failed = failed;
+        }
+
+        @Override
+        public void run() {
             try {
                 // Attempt to process each credit score, here simplified to retrieving a score by user ID.
-                creditScoreService.getCreditScoreByEmailId(creditScore.getUserId());
+                creditScoreService.getCreditScoreByEmailId(userId);
+                processed.incrementAndGet();
             } catch (Exception e) {
                 // Log or handle the exception if processing fails.
-                System.out.println("Error processing Credit ID: " + creditScore.getUserId() + " with error: " + e.getMessage());
+                failed.incrementAndGet();
+                logger.error("Error processing Credit ID: " + userId + " with error: " + e.getMessage());
+            } finally {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                permits.release();
+                inFlight.arriveAndDeregister();
             }
         }
     }
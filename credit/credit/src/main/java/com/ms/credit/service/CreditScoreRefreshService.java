@@ -0,0 +1,213 @@
+package com.ms.credit.service;
+
+// Import necessary Spring and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.dto.RefreshProgressDTO;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreBatchRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the configured {@link RefreshRule} to every stored score with bounded memory.
+ * <p>
+ * When the rule has a SQL form the table is updated with set-based UPDATEs over consecutive id ranges, so no rows
+ * are loaded into the JVM. Otherwise it is paged by keyset (id), each page evaluated in Java and written back with one
+ * JDBC batch. Either way each chunk commits on its own, the caller can pause between chunks to limit load, and the
+ * affected users are evicted from the cache as their chunk commits.
+ * <p>
+ * A refresh runs in the background. It holds a Redis lease (see {@link CronShardLeaseService}) for its whole run,
+ * renewed after every chunk, so only one replica refreshes at a time; a chunk plus the pause after it must take less
+ * than the lease TTL. Progress is reported by the replica running the refresh.
+ */
+@Service
+public class CreditScoreRefreshService {
+
+    private static final Logger logger = LogManager.getLogger(CreditScoreRefreshService.class);
+    private static final String LEASE_RUN_ID = "score-refresh";
+
+    @Autowired
+    private CreditScoreBatchRepository creditScoreBatchRepository;
+    @Autowired
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+    @Autowired
+    private CreditScoreCache creditScoreCache;
+    @Autowired
+    private CreditScoreAggregateService creditScoreAggregateService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RefreshRule refreshRule;
+    // Makes sure only one replica refreshes at a time.
+    @Autowired
+    private CronShardLeaseService cronShardLeaseService;
+
+    // "auto" uses set-based updates when the rule has a SQL form, "chunked" always evaluates in Java.
+    @Value("${credit.refresh.mode:auto}")
+    private String mode;
+
+    // Ids covered by one set-based UPDATE, or rows per keyset page in chunked mode.
+    @Value("${credit.refresh.chunk-size:5000}")
+    private int chunkSize;
+
+    // Pause between chunks to limit the load on the database and replicas.
+    @Value("${credit.refresh.pause-between-chunks:PT0S}")
+    private Duration pauseBetweenChunks;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RefreshProgressDTO progress = new RefreshProgressDTO();
+    private ExecutorService executor;
+
+    /**
+     * Creates the thread that runs refreshes.
+     */
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "score-refresh"));
+    }
+
+    /**
+     * Interrupts a running refresh on shutdown; its lease is released and the committed chunks stay applied.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a full refresh in the background. Only one refresh can run at a time across all replicas.
+     * @return the progress report of the started refresh.
+     * @throws IllegalStateException if a refresh is already running on this or another replica.
+     */
+    public RefreshProgressDTO refresh() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A credit score refresh is already running");
+        }
+        try {
+            if (!cronShardLeaseService.tryAcquire(LEASE_RUN_ID, 0)) {
+                throw new IllegalStateException("A credit score refresh is already running on another replica");
+            }
+            String sqlExpression = "chunked".equals(mode) ? null : refreshRule.sqlExpression();
+            RefreshProgressDTO current = new RefreshProgressDTO();
+            current.setRunning(true);
+            current.setMode(sqlExpression != null ? "set-based" : "chunked");
+            current.setStartedAt(LocalDateTime.now());
+            executor.execute(() -> run(sqlExpression, current));
+            progress = current;
+            return current;
+        } catch (RuntimeException e) {
+            cronShardLeaseService.release(LEASE_RUN_ID, 0);  // Only deletes the lease if this node took it.
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void run(String sqlExpression, RefreshProgressDTO current) {
+        try {
+            if (sqlExpression != null) {
+                refreshSetBased(sqlExpression, current);
+            } else {
+                refreshChunked(current);
+            }
+            creditScoreAggregateService.reconcile();  // Every score moved, so rebuild rather than patch the histogram.
+            logger.info("Credit score refresh (" + current.getMode() + ") updated " + current.getRowsUpdated() + " rows in " + current.getChunks() + " chunks");
+        } catch (RuntimeException e) {
+            logger.error("Credit score refresh stopped after " + current.getChunks() + " chunks: " + e.getMessage());
+        } finally {
+            current.setFinishedAt(LocalDateTime.now());
+            updateThroughput(current);
+            current.setRunning(false);
+            cronShardLeaseService.release(LEASE_RUN_ID, 0);
+            running.set(false);
+        }
+    }
+
+    /**
+     * Returns the progress of the running refresh, or the result of the last one.
+     */
+    public RefreshProgressDTO getProgress() {
+        updateThroughput(progress);
+        return progress;
+    }
+
+    private void refreshSetBased(String sqlExpression, RefreshProgressDTO current) {
+        int maxId = creditScoreBatchRepository.findMaxId();
+        for (int from = 0; from < maxId; from += chunkSize) {
+            int fromExclusive = from;
+            int toInclusive = Math.min(maxId, from + chunkSize);
+            Set<Integer> userIds = transactionTemplate.execute(status -> {
+                int updated = creditScoreBatchRepository.updateScoresInRange(sqlExpression, fromExclusive, toInclusive);
+                currentCreditScoreRepository.syncScoresInRange(fromExclusive, toInclusive);
+                current.setRowsUpdated(current.getRowsUpdated() + updated);
+                return updated == 0 ? Set.<Integer>of() : creditScoreBatchRepository.findUserIdsInRange(fromExclusive, toInclusive);
+            });
+            creditScoreCache.evictAll(userIds);
+            current.setChunks(current.getChunks() + 1);
+            renewLease();
+            pause();
+        }
+    }
+
+    private void refreshChunked(RefreshProgressDTO current) {
+        int lastId = 0;
+        List<CreditScore> page;
+        while (!(page = creditScoreBatchRepository.findPageAfter(lastId, chunkSize)).isEmpty()) {
+            int fromExclusive = lastId;
+            int toInclusive = page.get(page.size() - 1).getId();
+            lastId = toInclusive;
+            List<CreditScore> changed = page.stream().filter(score -> score.getScore() != null).collect(Collectors.toList());
+            changed.forEach(score -> score.setScore(refreshRule.apply(score.getScore())));
+            transactionTemplate.executeWithoutResult(status -> {
+                creditScoreBatchRepository.updateScores(changed);
+                currentCreditScoreRepository.syncScoresInRange(fromExclusive, toInclusive);
+            });
+            creditScoreCache.evictAll(changed.stream().map(CreditScore::getUserId).collect(Collectors.toSet()));
+            current.setRowsUpdated(current.getRowsUpdated() + changed.size());
+            current.setChunks(current.getChunks() + 1);
+            renewLease();
+            pause();
+        }
+    }
+
+    // Stops the refresh if its lease expired, since another replica may have started one.
+    private void renewLease() {
+        if (!cronShardLeaseService.renew(LEASE_RUN_ID, 0)) {
+            throw new IllegalStateException("Lost the credit score refresh lease");
+        }
+    }
+
+    private void pause() {
+        if (pauseBetweenChunks.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunks.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Credit score refresh interrupted", e);
+        }
+    }
+
+    private static void updateThroughput(RefreshProgressDTO current) {
+        if (current.getStartedAt() != null) {
+            LocalDateTime end = current.getFinishedAt() != null ? current.getFinishedAt() : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(current.getStartedAt(), end).toMillis());
+            current.setRowsPerSecond(current.getRowsUpdated() * 1000.0 / millis);
+        }
+    }
+}
@@ -5,18 +5,44 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.cache.CreditScoreSnapshotService;
 import com.ms.credit.dto.CreditScoreDTO;
-import com.ms.credit.dto.NotificationDTO;
+import com.ms.credit.dto.CreditScoreStatisticsDTO;
+import com.ms.credit.dto.RefreshProgressDTO;
 import com.ms.credit.dto.ScoreHistoryDTO;
 import com.ms.credit.entity.CreditScore;
+import com.ms.credit.entity.CurrentCreditScore;
+import com.ms.credit.repository.CreditScoreArchiveRepository;
+import com.ms.credit.repository.CreditScoreFeatureRepository;
+import com.ms.credit.repository.CreditScoreHistoryRepository;
 import com.ms.credit.repository.CreditScoreRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
 import com.ms.credit.client.UserManagementClient;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.data.redis.core.RedisTemplate;
+import com.ms.credit.scoring.BulkRescoringService;
+import com.ms.credit.scoring.TransactionFeatureState;
+import com.ms.credit.scoring.TransactionScoringEngine;
+import com.ms.credit.util.ScoreDates;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.annotation.PostConstruct;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -28,147 +54,448 @@ public class CreditScoreService {
     @Autowired
     private CreditScoreRepository creditScoreRepository;
     @Autowired
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+    @Autowired
+    private CreditScoreArchiveRepository creditScoreArchiveRepository;
+    @Autowired
+    private CreditScoreFeatureRepository creditScoreFeatureRepository;
+    @Autowired
+    private NotificationGate notificationGate;
+    @Autowired
+    private CreditScoreCache creditScoreCache;
+    @Autowired
+    private CreditScoreSnapshotService creditScoreSnapshotService;
+    @Autowired
+    private CreditScoreAggregateService creditScoreAggregateService;
+    @Autowired
+    private CreditScoreRefreshService creditScoreRefreshService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TransactionScoringEngine transactionScoringEngine;
+    @Autowired
+    private BulkRescoringService bulkRescoringService;
     private static final Logger logger = LogManager.getLogger(CreditScoreService.class);
-    private static final String CREDIT_SCORE_UPDATE = "credit-score-updates";
+    // Bounds used when a history filter is not set; both fit MySQL DATETIME.
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // Default and maximum number of entries per history page.
+    @Value("${credit.history.default-page-size:100}")
+    private int historyDefaultPageSize;
+    @Value("${credit.history.max-page-size:1000}")
+    private int historyMaxPageSize;
+
+    // Maximum number of users in one bulk lookup.
+    @Value("${credit.score-lookup.max-users:1000}")
+    private int lookupMaxUsers;
     @Autowired
     private UserManagementClient userManagementClient;
 
     /**
-     * Retrieves the latest credit score by user ID from Redis cache or database, then sends an update to Kafka.
+     * Rejects history page sizes that would make every page empty or cap it below its default.
+     */
+    @PostConstruct
+    public void validateHistoryPageSizes() {
+        if (historyDefaultPageSize < 1 || historyMaxPageSize < historyDefaultPageSize) {
+            throw new IllegalArgumentException("credit.history.default-page-size must be positive and at most credit.history.max-page-size, was "
+                    + historyDefaultPageSize + " and " + historyMaxPageSize);
+        }
+    }
+
+    /**
+     * Retrieves the latest credit score by user ID from the two-tier cache, the local snapshot or the database, then
+     * offers it to the notification gate, which only notifies when the score changed.
      */
     public CreditScoreDTO getCreditScoreByEmailId(int userId) {
         String emailId = userManagementClient.getUserDetails(userId).block();  // Synchronous call to get user details.
-        CreditScore creditScore = (CreditScore) redisTemplate.opsForValue().get(emailId);
+        CreditScore creditScore = creditScoreCache.get(userId);
         if (creditScore == null) {
-            logger.info("Fetching from DB");
-            creditScore = creditScoreRepository.findTopByEmailIdOrderByDateDesc(emailId);
+            creditScore = loadLatest(userId, emailId);
         } else {
-            logger.info("Fetched from Redis");
+            logger.info("Fetched from cache");
         }
-        sendToKafka(creditScore.getScore(), emailId);
+        notificationGate.offer(userId, creditScore.getScore(), emailId);
         return convertToDTO(creditScore);
     }
 
     /**
-     * Sends credit score updates to a Kafka topic.
+     * Non-blocking variant of {@link #getCreditScoreByEmailId(int)}.
+     * Chains the user lookup, the cache read and the repository fallback without parking the caller's thread.
+     * JPA is blocking, so the repository fallback runs on the bounded elastic scheduler.
+     */
+    public Mono<CreditScoreDTO> getCreditScoreByEmailIdReactive(int userId) {
+        return userManagementClient.getUserDetails(userId)
+                .flatMap(emailId -> creditScoreCache.getReactive(userId)
+                        .doOnNext(creditScore -> logger.info("Fetched from cache"))
+                        .switchIfEmpty(Mono.fromCallable(() -> loadLatest(userId, emailId))
+                                .subscribeOn(Schedulers.boundedElastic()))
+                        .doOnNext(creditScore -> notificationGate.offer(userId, creditScore.getScore(), emailId)))
+                .map(this::convertToDTO);
+    }
+
+    /**
+     * Reads the latest score after a cache miss: from the local snapshot if it holds the user, otherwise from the
+     * database, in which case the cache is filled. Snapshot hits are not copied into the cache, since the snapshot
+     * rows carry no email.
      */
-    private void sendToKafka(Long score, String emailId) {
-        NotificationDTO message = new NotificationDTO(score, emailId);
-        kafkaTemplate.send(CREDIT_SCORE_UPDATE, message);
+    private CreditScore loadLatest(int userId, String emailId) {
+        CreditScore creditScore = creditScoreSnapshotService.get(userId);
+        if (creditScore != null) {
+            logger.info("Fetched from snapshot");
+            return creditScore;
+        }
+        logger.info("Fetching from DB");
+        creditScore = findLatest(userId, emailId);
+        if (creditScore != null) {
+            creditScoreCache.fill(creditScore);
+        }
+        return creditScore;
     }
 
     /**
-     * Retrieves the latest credit score for a user by ID from the database.
+     * Reads the latest score from the current-score projection by email, falling back to the user ID for rows
+     * stored before email_id was recorded.
+     */
+    private CreditScore findLatest(int userId, String emailId) {
+        CurrentCreditScore current = emailId != null ? currentCreditScoreRepository.findFirstByEmailId(emailId) : null;
+        if (current == null) {
+            current = currentCreditScoreRepository.findById(userId).orElse(null);
+        }
+        return current != null ? current.toCreditScore() : null;
+    }
+
+    /**
+     * Retrieves the latest credit score for a user by ID from the current-score projection.
      */
     public CreditScoreDTO getCreditScoreByUserId(int userId) {
-        CreditScore creditScore = creditScoreRepository.findTopByUserIdOrderByDateDesc(userId);
-        return convertToDTO(creditScore);
+        CurrentCreditScore current = currentCreditScoreRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Credit score not found"));
+        return convertToDTO(current.toCreditScore());
+    }
+
+    /**
+     * Retrieves the latest scores of several users. Cache hits come from the heap and one Redis MGET, then the
+     * local snapshot answers what it can, and the remaining users are read with a single IN query whose rows are
+     * written back to the cache in one pipeline. Bulk reads do not go through the notification gate.
+     * @param userIds The IDs of the users; duplicates are ignored.
+     * @return the scores in request order; users without a score are left out.
+     * @throws IllegalArgumentException if more than credit.score-lookup.max-users users are requested.
+     */
+    public List<CreditScoreDTO> lookupCreditScores(List<Integer> userIds) {
+        List<Integer> distinct = userIds.stream().distinct().collect(Collectors.toList());
+        if (distinct.size() > lookupMaxUsers) {
+            throw new IllegalArgumentException("At most " + lookupMaxUsers + " users can be looked up at once");
+        }
+        Map<Integer, CreditScore> found = creditScoreCache.getAll(distinct);
+        List<Integer> misses = new ArrayList<>();
+        for (Integer userId : distinct) {
+            if (found.containsKey(userId)) {
+                continue;
+            }
+            CreditScore creditScore = creditScoreSnapshotService.get(userId);
+            if (creditScore != null) {
+                found.put(userId, creditScore);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<CreditScore> loaded = currentCreditScoreRepository.findByUserIds(misses).stream()
+                    .map(CurrentCreditScore::toCreditScore).collect(Collectors.toList());
+            loaded.forEach(creditScore -> found.put(creditScore.getUserId(), creditScore));
+            creditScoreCache.fillAll(loaded);
+        }
+        return distinct.stream().map(found::get).filter(Objects::nonNull).map(this::convertToDTO).collect(Collectors.toList());
     }
 
     /**
-     * Calculates a new credit score, saves it to the database and cache.
+     * Calculates a new credit score, saves it to the database together with the user's current-score row
+     * and writes it through the cache once the transaction commits. The user is resolved through the cached user
+     * client first, which rejects unknown users and supplies the email stored with the score. Without a posted score,
+     * the user is scored by the active scoring model from their transaction features.
      */
+    @Transactional
     public CreditScoreDTO calculateCreditScore(CreditScoreDTO creditScoreDTO) {
         String emailId = userManagementClient.getUserDetails(creditScoreDTO.getUserId()).block();
-        redisTemplate.opsForValue().set(emailId, convertToEntity(creditScoreDTO));
-        CreditScore creditScore = creditScoreRepository.save(convertToEntity(creditScoreDTO));
+        CreditScore creditScore = saveAndProject(newScore(creditScoreDTO, emailId));
+        afterCommit(() -> {
+            creditScoreCache.put(creditScore);
+            creditScoreAggregateService.recordInserts(Collections.singletonList(creditScore.getScore()));
+        });
         return convertToDTO(creditScore);
     }
 
     /**
-     * Updates an existing credit score in the database.
+     * Non-blocking variant of {@link #calculateCreditScore(CreditScoreDTO)}.
+     * The user lookup is chained without blocking; the save and cache write-through are offloaded to the bounded
+     * elastic scheduler.
      */
+    public Mono<CreditScoreDTO> calculateCreditScoreReactive(CreditScoreDTO creditScoreDTO) {
+        return userManagementClient.getUserDetails(creditScoreDTO.getUserId())
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("User not found: " + creditScoreDTO.getUserId())))
+                .publishOn(Schedulers.boundedElastic())
+                .map(emailId -> {
+                    // @Transactional does not reach this worker thread, so the save and projection share an explicit transaction.
+                    CreditScore creditScore = transactionTemplate.execute(status -> saveAndProject(newScore(creditScoreDTO, emailId)));
+                    creditScoreCache.put(creditScore);
+                    creditScoreAggregateService.recordInserts(Collections.singletonList(creditScore.getScore()));
+                    return creditScore;
+                })
+                .map(this::convertToDTO);
+    }
+
+    /**
+     * Updates the user's current credit score in the database and the projection, and writes it through the cache.
+     */
+    @Transactional
     public CreditScoreDTO updateCreditScore(int userId, CreditScoreDTO creditScoreDTO) {
-        CreditScore existingScore = creditScoreRepository.findTopByUserIdOrderByDateDesc(userId);
-        if (existingScore == null) {
-            throw new IllegalArgumentException("Credit score not found");
-        }
+        CreditScore existingScore = currentCreditScoreRepository.findById(userId)
+                .flatMap(current -> creditScoreRepository.findById(current.getScoreId()))
+                .orElseThrow(() -> new IllegalArgumentException("Credit score not found"));
+        Long oldScore = existingScore.getScore();
         existingScore.setScore(creditScoreDTO.getScore());
-        existingScore.setDate(creditScoreDTO.getDate());
-        existingScore = creditScoreRepository.save(existingScore);
-        return convertToDTO(existingScore);
+        existingScore.setDate(ScoreDates.parse(creditScoreDTO.getDate()));
+        CreditScore saved = saveAndProject(existingScore);
+        afterCommit(() -> {
+            creditScoreCache.put(saved);
+            creditScoreAggregateService.recordUpdate(oldScore, saved.getScore());
+        });
+        return convertToDTO(saved);
     }
 
     /**
-     * Deletes a credit score by user ID.
+     * Deletes a credit score by user ID, together with its current-score row and archived history, and evicts it from the cache.
      */
+    @Transactional
     public void deleteCreditScoreByUserId(int userId) {
+        List<Long> deletedScores = new ArrayList<>(creditScoreRepository.findScoresByUserId(userId));
+        deletedScores.addAll(creditScoreArchiveRepository.findScoresByUserId(userId));
         creditScoreRepository.deleteByUserId(userId);
+        currentCreditScoreRepository.deleteByUserId(userId);
+        creditScoreArchiveRepository.deleteByUserId(userId);
+        creditScoreFeatureRepository.deleteByUserId(userId);
+        afterCommit(() -> {
+            creditScoreCache.evict(userId);
+            creditScoreAggregateService.recordDeletes(deletedScores);
+        });
+    }
+
+    /**
+     * Retrieves one page of a user's credit score history across the hot and archive tiers, newest first, grouped into a single DTO.
+     * Pages are addressed by an opaque keyset cursor, so deep pages cost the same as the first one.
+     * @param from   Inclusive lower date bound, or null.
+     * @param to     Exclusive upper date bound, or null.
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param limit  Page size, capped at credit.history.max-page-size; null uses the default.
+     */
+    public ScoreHistoryDTO getCreditScoreHistoryByUserId(int userId, String from, String to, String cursor, Integer limit) {
+        int pageSize = limit == null ? historyDefaultPageSize : Math.max(1, Math.min(limit, historyMaxPageSize));
+        LocalDateTime cursorDate = HISTORY_END;
+        int cursorId = Integer.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            cursorDate = LocalDateTime.parse(parts[0]);
+            cursorId = Integer.parseInt(parts[1]);
+        }
+        // One extra row tells whether another page follows without a COUNT query.
+        List<CreditScore> rows = creditScoreHistoryRepository.findPage(userId, lowerBound(from), upperBound(to),
+                cursorDate, cursorId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<CreditScore> page = hasMore ? rows.subList(0, pageSize) : rows;
+        ScoreHistoryDTO history = new ScoreHistoryDTO(userId, page.stream().map(this::convertToScoreDetails).collect(Collectors.toList()));
+        if (hasMore) {
+            CreditScore last = page.get(page.size() - 1);
+            history.setNextCursor(encodeCursor(last.getDate() + "|" + last.getId()));
+        }
+        return history;
     }
 
     /**
-     * Retrieves the credit score history for a user, transforming each score into a detailed DTO.
+     * Streams a user's whole credit score history, newest first, to the consumer row by row without loading it into memory.
+     * @param from Inclusive lower date bound, or null.
+     * @param to   Exclusive upper date bound, or null.
      */
-    public List<ScoreHistoryDTO> getCreditScoreHistoryByUserId(int userId) {
-        List<CreditScore> scoreHistory = creditScoreRepository.findByUserId(userId);
-        return scoreHistory.stream().map(this::convertToScoreHistoryDTO).collect(Collectors.toList());
+    public void streamCreditScoreHistoryByUserId(int userId, String from, String to, Consumer<ScoreHistoryDTO.CreditScoreDetails> consumer) {
+        creditScoreHistoryRepository.stream(userId, lowerBound(from), upperBound(to),
+                creditScore -> consumer.accept(convertToScoreDetails(creditScore)));
     }
 
     /**
      * Handles batch processing of credit scores, useful for bulk operations.
+     * Entries without a score are scored by the active scoring model, as in calculateCreditScore; their stored
+     * features are loaded with one query.
      */
+    @Transactional
     public List<CreditScoreDTO> calculateBatchCreditScores(List<CreditScoreDTO> creditScoresDTOs) {
-        List<CreditScore> scores = creditScoresDTOs.stream().map(this::convertToEntity).collect(Collectors.toList());
+        Set<Integer> unscored = creditScoresDTOs.stream().filter(dto -> dto.getScore() == null)
+                .map(CreditScoreDTO::getUserId).collect(Collectors.toSet());
+        Map<Integer, Integer> modelScores = unscored.isEmpty() ? Map.of() : transactionScoringEngine.scoreAllWithCurrentModel(unscored);
+        List<CreditScore> scores = creditScoresDTOs.stream()
+                .map(dto -> convertToEntity(dto, userId -> requireModelScore(userId, modelScores.getOrDefault(userId, TransactionFeatureState.NO_SCORE))))
+                .collect(Collectors.toList());
         creditScoreRepository.saveAll(scores);
+        Set<Integer> userIds = scores.stream().map(CreditScore::getUserId).collect(Collectors.toSet());
+        if (!userIds.isEmpty()) {
+            creditScoreRepository.flush();  // The projection is rebuilt with SQL, so the inserts must reach the database first.
+            currentCreditScoreRepository.refreshForUsers(userIds);
+        }
+        afterCommit(() -> {
+            creditScoreCache.evictAll(userIds);
+            creditScoreAggregateService.recordInserts(scores.stream().map(CreditScore::getScore).collect(Collectors.toList()));
+        });
         return scores.stream().map(this::convertToDTO).collect(Collectors.toList());
     }
 
     /**
-     * Calculates the average credit score of all entries in the database.
+     * Returns the average credit score of all entries in the database, archived history included, from the running aggregates.
      */
     public double getAverageCreditScore() {
-        return creditScoreRepository.findAll().stream().mapToLong(CreditScore::getScore).average().orElse(Double.NaN);
+        return creditScoreAggregateService.getAverage();
     }
 
     /**
-     * Refreshes all credit scores, potentially recalculating or updating them.
+     * Returns count, average, min, max and histogram of all credit scores, archived history included, from the running aggregates.
      */
-    public void refreshCreditScores() {
-        List<CreditScore> scores = creditScoreRepository.findAll();
-        scores.forEach(score -> score.setScore(score.getScore() + 1));  // Example update logic.
-        creditScoreRepository.saveAll(scores);
+    public CreditScoreStatisticsDTO getCreditScoreStatistics() {
+        return creditScoreAggregateService.getStatistics();
+    }
+
+    /**
+     * Starts a background refresh of all credit scores, applying the configured refresh rule in bounded chunks.
+     */
+    public RefreshProgressDTO refreshCreditScores() {
+        return creditScoreRefreshService.refresh();
+    }
+
+    /**
+     * Reports the progress of the running refresh, or the result of the last one.
+     */
+    public RefreshProgressDTO getRefreshProgress() {
+        return creditScoreRefreshService.getProgress();
+    }
+
+    /**
+     * Starts rescoring this node's active users (those with transactions in the streaming window) with the active
+     * scoring model, in one columnar bulk pass in the background.
+     */
+    public RefreshProgressDTO rescoreActiveCreditScores() {
+        return bulkRescoringService.rescoreActiveUsers();
+    }
+
+    /**
+     * Reports the progress of the running bulk rescoring, or the result of the last one.
+     */
+    public RefreshProgressDTO getRescoreProgress() {
+        return bulkRescoringService.getProgress();
+    }
+
+    /**
+     * Saves a score row and rebuilds the user's current-score row from the history in the caller's transaction.
+     */
+    private CreditScore saveAndProject(CreditScore creditScore) {
+        CreditScore saved = creditScoreRepository.saveAndFlush(creditScore);
+        currentCreditScoreRepository.refreshForUsers(Set.of(saved.getUserId()));
+        return saved;
+    }
+
+    /**
+     * Builds the entity of a newly calculated score for a user resolved by the user management service.
+     * @throws IllegalArgumentException if the user is unknown.
+     */
+    private CreditScore newScore(CreditScoreDTO creditScoreDTO, String emailId) {
+        if (emailId == null) {
+            throw new IllegalArgumentException("User not found: " + creditScoreDTO.getUserId());
+        }
+        CreditScore creditScore = convertToEntity(creditScoreDTO);
+        creditScore.setEmailId(emailId);
+        return creditScore;
+    }
+
+    /**
+     * Runs an action once the caller's transaction commits, or right away outside a transaction, so a rollback
+     * leaves the cache and the running aggregates untouched.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
      * Converts a CreditScore entity to a CreditScoreDTO.
      */
-    private CreditScoreDTO convertToDTO(CreditScore creditScore) {
-        return new CreditScoreDTO(creditScore.getUserId(), creditScore.getScore(), creditScore.getDate());
+    CreditScoreDTO convertToDTO(CreditScore creditScore) {
+        return new CreditScoreDTO(creditScore.getUserId(), creditScore.getScore(), ScoreDates.format(creditScore.getDate()));
     }
 
     /**
      * Converts a CreditScoreDTO to a CreditScore entity.
      */
-    private CreditScore convertToEntity(CreditScoreDTO creditScoreDTO) {
+    CreditScore convertToEntity(CreditScoreDTO creditScoreDTO) {
+        return convertToEntity(creditScoreDTO, userId -> requireModelScore(userId, transactionScoringEngine.scoreWithCurrentModel(userId)));
+    }
+
+    /**
+     * Converts a CreditScoreDTO to a CreditScore entity, taking the score from modelScore when none is posted.
+     */
+    private CreditScore convertToEntity(CreditScoreDTO creditScoreDTO, IntToLongFunction modelScore) {
         CreditScore creditScore = new CreditScore();
         creditScore.setUserId(creditScoreDTO.getUserId());
-        creditScore.setScore(creditScoreDTO.getScore());
-        creditScore.setDate(creditScoreDTO.getDate());
+        creditScore.setScore(creditScoreDTO.getScore() != null ? creditScoreDTO.getScore() : modelScore.applyAsLong(creditScoreDTO.getUserId()));
+        creditScore.setDate(ScoreDates.parse(creditScoreDTO.getDate()));
         return creditScore;
     }
 
     /**
-     * Converts a CreditScore entity into a ScoreHistoryDTO.
+     * Checks a score of the active scoring model, computed from the user's stored transaction features.
+     * @throws IllegalArgumentException if the user has no stored features.
      */
-    private ScoreHistoryDTO convertToScoreHistoryDTO(CreditScore creditScore) {
-        ScoreHistoryDTO scoreHistoryDTO = new ScoreHistoryDTO();
-        scoreHistoryDTO.setUserId(creditScore.getUserId());
-        ScoreHistoryDTO.CreditScoreDetails details = new ScoreHistoryDTO.CreditScoreDetails();
-        details.setScore(creditScore.getScore());
-        details.setDate(creditScore.getDate());
-        scoreHistoryDTO.setScores(List.of(details));
-        return scoreHistoryDTO;
+    private static long requireModelScore(int userId, int score) {
+        if (score == TransactionFeatureState.NO_SCORE) {
+            throw new IllegalArgumentException("No score given and no transactions to score for user " + userId);
+        }
+        return score;
     }
-    
+
     /**
-     * Fetches credit scores that were last updated more than 24 hours ago.
+     * Converts a CreditScore entity into one entry of a ScoreHistoryDTO.
      */
-    public List<CreditScoreDTO> fetchScoresUpdatedMoreThan24HoursAgo() {
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        List<CreditScore> scores = creditScoreRepository.findByLastUpdatedBefore(twentyFourHoursAgo);
-        return scores.stream().map(this::convertToDTO).collect(Collectors.toList());
+    private ScoreHistoryDTO.CreditScoreDetails convertToScoreDetails(CreditScore creditScore) {
+        return new ScoreHistoryDTO.CreditScoreDetails(creditScore.getScore(), ScoreDates.format(creditScore.getDate()));
+    }
+
+    private static LocalDateTime lowerBound(String from) {
+        LocalDateTime parsed = ScoreDates.parse(from);
+        return parsed != null ? parsed : HISTORY_START;
+    }
+
+    private static LocalDateTime upperBound(String to) {
+        LocalDateTime parsed = ScoreDates.parse(to);
+        return parsed != null ? parsed : HISTORY_END;
+    }
+
+    private static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            LocalDateTime.parse(parts[0]);
+            Integer.parseInt(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
     }
 }
@@ -0,0 +1,113 @@
+package com.ms.credit.service;
+
+// Import necessary Spring, Redis and Java classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis-backed leases that let several credit replicas split one cron run between them.
+ * <p>
+ * A run is identified by its scheduled time, so every replica derives the same run id. Each shard of the run is
+ * claimed with SET NX and a TTL; the owner renews the lease while it works and marks the shard done when finished.
+ * If a replica dies its leases expire, so the shards can be leased again by another node.
+ */
+@Service
+public class CronShardLeaseService {
+
+    private static final String KEY_PREFIX = "credit-cron:";
+
+    // Extends the lease only if this node still owns it.
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+
+    // Marks the shard done and drops the lease, only if this node still owns it.
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then "
+            + "redis.call('SET', KEYS[2], ARGV[1], 'PX', ARGV[2]) redis.call('DEL', KEYS[1]) return 1 end return 0",
+            Long.class);
+
+    // Drops the lease without marking the shard done, only if this node still owns it.
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // How long a lease survives without renewal; a dead node's shards are taken over after this.
+    @Value("${credit.cron.lease-ttl:PT2M}")
+    private Duration leaseTtl;
+
+    // How long completed-shard markers are kept; must exceed the run interval.
+    @Value("${credit.cron.done-ttl:PT2H}")
+    private Duration doneTtl;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * Tries to take the lease of a shard for a run.
+     * @return true if this node now owns the shard, false if it is leased by another node or already done.
+     */
+    public boolean tryAcquire(String runId, int shard) {
+        if (isDone(runId, shard)) {
+            return false;
+        }
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(leaseKey(runId, shard), nodeId, leaseTtl);
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    /**
+     * Extends a lease held by this node.
+     * @return false if the lease was lost, in which case another node may be processing the shard.
+     */
+    public boolean renew(String runId, int shard) {
+        Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, List.of(leaseKey(runId, shard)),
+                nodeId, Long.toString(leaseTtl.toMillis()));
+        return renewed != null && renewed == 1;
+    }
+
+    /**
+     * Marks a shard finished so no other node processes it again in this run.
+     */
+    public void complete(String runId, int shard) {
+        stringRedisTemplate.execute(COMPLETE_SCRIPT, List.of(leaseKey(runId, shard), doneKey(runId, shard)),
+                nodeId, Long.toString(doneTtl.toMillis()));
+    }
+
+    /**
+     * Gives up a lease held by this node without marking the shard done, so it can be acquired again at once.
+     */
+    public void release(String runId, int shard) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(leaseKey(runId, shard)), nodeId);
+    }
+
+    /**
+     * Returns true if the shard has been completed by any node in this run.
+     */
+    public boolean isDone(String runId, int shard) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(doneKey(runId, shard)));
+    }
+
+    /**
+     * Id of this node, used to spread the starting shard of each replica.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String leaseKey(String runId, int shard) {
+        return KEY_PREFIX + runId + ":lease:" + shard;
+    }
+
+    private static String doneKey(String runId, int shard) {
+        return KEY_PREFIX + runId + ":done:" + shard;
+    }
+}
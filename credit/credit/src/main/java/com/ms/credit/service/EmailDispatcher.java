@@ -0,0 +1,321 @@
+package com.ms.credit.service;
+
+// Import necessary Spring, Redis, Micrometer and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.credit.dto.EmailDeadLetterDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends emails asynchronously from a bounded in-memory queue.
+ * <p>
+ * A pool of workers drains the queue in batches, and each batch is sent over one SMTP connection. Every recipient
+ * domain has a rate limiter that hands each email its own send slot, and an email whose slot lies in the future
+ * waits in a delay queue instead of blocking the worker. Failed sends are retried with exponential backoff. Once the attempts run out the email is written to a
+ * Redis dead-letter list. Submitting blocks for a bounded time when the queue is full, so a slow SMTP server slows
+ * the caller down instead of using unbounded memory.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger logger = LogManager.getLogger(EmailDispatcher.class);
+    static final String DEAD_LETTER_KEY = "credit-email:dead-letter";
+
+    @Autowired
+    private JavaMailSender emailSender;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Emails accepted but not yet sent or dead-lettered, including those waiting for a retry or a rate slot.
+    @Value("${credit.email.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // How long submit waits for room in a full queue before failing.
+    @Value("${credit.email.submit-timeout:PT30S}")
+    private Duration submitTimeout;
+
+    @Value("${credit.email.workers:4}")
+    private int workers;
+
+    // Emails sent over one SMTP connection.
+    @Value("${credit.email.batch-size:50}")
+    private int batchSize;
+
+    // Emails per second allowed to one recipient domain on this node; also the burst size. Most recipients share a
+    // few large domains, so this is close to the node's total send rate: at 50/s a full queue of 10000 emails for
+    // one domain drains in 200 s, and the cluster-wide rate per domain is this times the number of replicas.
+    @Value("${credit.email.domain-rate:50}")
+    private double domainRate;
+
+    // Total send attempts per email, including the first.
+    @Value("${credit.email.max-attempts:5}")
+    private int maxAttempts;
+
+    // Delay before the first retry; doubled for each further attempt up to max-backoff.
+    @Value("${credit.email.retry-backoff:PT2S}")
+    private Duration retryBackoff;
+
+    @Value("${credit.email.max-backoff:PT5M}")
+    private Duration maxBackoff;
+
+    // Oldest dead letters are trimmed beyond this size.
+    @Value("${credit.email.dead-letter-max-size:10000}")
+    private long deadLetterMaxSize;
+
+    // How long shutdown waits for queued emails to be sent.
+    @Value("${credit.email.shutdown-grace:PT10S}")
+    private Duration shutdownGrace;
+
+    private final BlockingQueue<OutgoingEmail> queue = new LinkedBlockingQueue<>();
+    private final DelayQueue<OutgoingEmail> delayed = new DelayQueue<>();
+    private final Map<String, DomainBucket> buckets = new ConcurrentHashMap<>();
+    private Semaphore capacity;
+    private volatile boolean stopping;
+    private final List<Thread> workerThreads = new ArrayList<>();
+
+    /**
+     * Starts the worker threads.
+     */
+    @PostConstruct
+    public void init() {
+        capacity = new Semaphore(queueCapacity);
+        meterRegistry.gauge("credit.email.queued", capacity, permits -> queueCapacity - permits.availablePermits());
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "credit-email-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workerThreads.add(worker);
+        }
+    }
+
+    /**
+     * Lets the workers send what is queued for up to the grace period, then dead-letters whatever is left.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        long deadline = System.nanoTime() + shutdownGrace.toNanos();
+        for (Thread worker : workerThreads) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            worker.interrupt();
+        }
+        List<OutgoingEmail> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.addAll(delayed);
+        delayed.clear();
+        for (OutgoingEmail email : left) {
+            deadLetter(email, "not sent before shutdown");
+        }
+    }
+
+    /**
+     * Queues an email for sending.
+     * @param to      The recipient's email address.
+     * @param subject The subject line of the email.
+     * @param text    The body of the email.
+     * @throws IllegalStateException if the queue stays full for the submit timeout.
+     */
+    public void submit(String to, String subject, String text) {
+        try {
+            if (!capacity.tryAcquire(submitTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Email queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room in the email queue", e);
+        }
+        queue.add(new OutgoingEmail(to, subject, text));
+    }
+
+    private void work() {
+        List<OutgoingEmail> batch = new ArrayList<>(batchSize);
+        while (!(stopping && queue.isEmpty() && delayed.isEmpty())) {
+            try {
+                collect(batch);
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Email worker error: " + e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Fills the batch with due retries first, then new emails, skipping over domains that are out of tokens.
+    private void collect(List<OutgoingEmail> batch) throws InterruptedException {
+        OutgoingEmail email = delayed.poll();
+        if (email == null) {
+            email = queue.poll(100, TimeUnit.MILLISECONDS);
+        }
+        while (email != null) {
+            // An email deferred to its slot already holds it and must not reserve another one.
+            long waitNanos = email.slotReserved ? 0
+                    : buckets.computeIfAbsent(domainOf(email.to), domain -> new DomainBucket(domainRate)).reserve();
+            if (waitNanos == 0) {
+                email.slotReserved = false;
+                batch.add(email);
+            } else {
+                email.notBefore = System.nanoTime() + waitNanos;
+                email.slotReserved = true;
+                delayed.add(email);
+                meterRegistry.counter("credit.email", "result", "deferred").increment();
+            }
+            if (batch.size() >= batchSize) {
+                return;
+            }
+            email = delayed.poll();
+            if (email == null) {
+                email = queue.poll();
+            }
+        }
+    }
+
+    // Sends the batch in one call, which JavaMailSender does over a single connection, and retries the failures.
+    private void sendBatch(List<OutgoingEmail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        Map<SimpleMailMessage, OutgoingEmail> byMessage = new IdentityHashMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            OutgoingEmail email = batch.get(i);
+            email.attempts++;
+            messages[i] = email.toMessage();
+            byMessage.put(messages[i], email);
+        }
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        try {
+            emailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = failures.isEmpty() ? e : null;
+        } catch (MailException e) {
+            batchFailure = e;  // e.g. authentication or connection setup failed for the whole batch.
+        }
+        for (SimpleMailMessage message : messages) {
+            OutgoingEmail email = byMessage.get(message);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(message);
+            if (failure == null) {
+                capacity.release();
+                meterRegistry.counter("credit.email", "result", "sent").increment();
+            } else {
+                retryOrDeadLetter(email, failure);
+            }
+        }
+    }
+
+    private void retryOrDeadLetter(OutgoingEmail email, Exception failure) {
+        if (email.attempts >= maxAttempts || stopping) {
+            deadLetter(email, failure.getMessage());
+            return;
+        }
+        long backoff = Math.min(retryBackoff.toNanos() << Math.min(email.attempts - 1, 30), maxBackoff.toNanos());
+        email.notBefore = System.nanoTime() + backoff;
+        delayed.add(email);
+        meterRegistry.counter("credit.email", "result", "retried").increment();
+    }
+
+    private void deadLetter(OutgoingEmail email, String error) {
+        capacity.release();
+        meterRegistry.counter("credit.email", "result", "dead-lettered").increment();
+        logger.error("Dead-lettering email to " + email.to + " after " + email.attempts + " attempts: " + error);
+        try {
+            String json = objectMapper.writeValueAsString(new EmailDeadLetterDTO(email.to, email.subject, email.text,
+                    email.attempts, error, LocalDateTime.now()));
+            stringRedisTemplate.opsForList().leftPush(DEAD_LETTER_KEY, json);
+            stringRedisTemplate.opsForList().trim(DEAD_LETTER_KEY, 0, deadLetterMaxSize - 1);
+        } catch (Exception e) {
+            logger.error("Could not store dead letter for " + email.to + ": " + e.getMessage());
+        }
+    }
+
+    private static String domainOf(String address) {
+        int at = address.lastIndexOf('@');
+        return at < 0 ? "" : address.substring(at + 1).toLowerCase();
+    }
+
+    // An email with its attempt count and the earliest time it may be sent again.
+    private static final class OutgoingEmail implements Delayed {
+        private final String to;
+        private final String subject;
+        private final String text;
+        private int attempts;
+        private long notBefore;
+        private boolean slotReserved;
+
+        OutgoingEmail(String to, String subject, String text) {
+            this.to = to;
+            this.subject = subject;
+            this.text = text;
+        }
+
+        SimpleMailMessage toMessage() {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("no-reply@example.com");
+            message.setTo(to);
+            message.setSubject(subject);
+            message.setText(text);
+            return message;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(notBefore - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(notBefore, ((OutgoingEmail) other).notBefore);
+        }
+    }
+
+    // Generic cell rate algorithm: every reservation advances the theoretical arrival time by one interval, so
+    // concurrent callers get distinct slots; reserve returns how long the caller waits for its slot.
+    static final class DomainBucket {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private long theoreticalArrival = System.nanoTime();
+
+        DomainBucket(double ratePerSecond) {
+            this.intervalNanos = Math.max(1, (long) (1e9 / ratePerSecond));
+            this.toleranceNanos = (long) (Math.max(1, ratePerSecond) - 1) * intervalNanos;  // burst - 1 intervals
+        }
+
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            long arrival = Math.max(theoreticalArrival, now);
+            theoreticalArrival = arrival + intervalNanos;
+            return Math.max(0, arrival - toleranceNanos - now);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ms.credit.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Default refresh rule: adds one point to every score.
+ */
+@Component
+public class IncrementRefreshRule implements RefreshRule {
+
+    @Override
+    public long apply(long score) {
+        return score + 1;
+    }
+
+    @Override
+    public String sqlExpression() {
+        return "score + 1";
+    }
+}
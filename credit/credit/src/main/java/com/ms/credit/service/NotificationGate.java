@@ -0,0 +1,121 @@
+package com.ms.credit.service;
+
+// Import necessary Spring, Redis, Micrometer and Java classes.
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Decides which score reads turn into notifications.
+ * <p>
+ * For each user the gate keeps, in Redis, the last score that was notified. A read with the same score is suppressed.
+ * A changed score is held as pending for the debounce window, and further changes inside the window only replace
+ * the pending value. When the window ends the pending score is published, unless it went back to the value that
+ * was last notified. State is shared by all replicas, and each due entry is claimed atomically so it is published once.
+ */
+@Service
+public class NotificationGate {
+
+    private static final String STATE_PREFIX = "credit-notify:";
+    private static final String DUE_KEY = "credit-notify:due";
+    private static final String NULL_SCORE = "";
+
+    // KEYS: state hash, due zset. ARGV: score, email, dueAtMillis, userId, ttlMillis, windowMillis.
+    // Returns 0 unchanged, 1 publish now, 2 coalesced into the pending change, 3 scheduled.
+    private static final RedisScript<Long> OFFER_SCRIPT = new DefaultRedisScript<>(
+            "local last = redis.call('HGET', KEYS[1], 'score') "
+            + "if redis.call('HEXISTS', KEYS[1], 'pending') == 1 then "
+            + "  redis.call('HSET', KEYS[1], 'pending', ARGV[1], 'email', ARGV[2]) "
+            + "  redis.call('PEXPIRE', KEYS[1], ARGV[5]) return 2 end "
+            + "if last == ARGV[1] then return 0 end "
+            + "if tonumber(ARGV[6]) == 0 then "
+            + "  redis.call('HSET', KEYS[1], 'score', ARGV[1], 'email', ARGV[2]) "
+            + "  redis.call('PEXPIRE', KEYS[1], ARGV[5]) return 1 end "
+            + "redis.call('HSET', KEYS[1], 'pending', ARGV[1], 'email', ARGV[2]) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[5]) "
+            + "redis.call('ZADD', KEYS[2], ARGV[3], ARGV[4]) "
+            + "return 3", Long.class);
+
+    // KEYS: state hash, due zset. ARGV: userId, ttlMillis. Returns {score, email} to publish, or nil.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FLUSH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then return nil end "
+            + "local pending = redis.call('HGET', KEYS[1], 'pending') "
+            + "if not pending then return nil end "
+            + "redis.call('HDEL', KEYS[1], 'pending') "
+            + "if pending == redis.call('HGET', KEYS[1], 'score') then return nil end "
+            + "redis.call('HSET', KEYS[1], 'score', pending) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+            + "return {pending, redis.call('HGET', KEYS[1], 'email') or ''}", List.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private NotificationPublisher notificationPublisher;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Changes within this window after the first one are coalesced into a single notification; PT0S publishes immediately.
+    @Value("${credit.notifications.debounce-window:PT1M}")
+    private Duration debounceWindow;
+
+    // How long the last-notified score of an inactive user is remembered.
+    @Value("${credit.notifications.state-ttl:P30D}")
+    private Duration stateTtl;
+
+    // Maximum due notifications published per flush pass.
+    @Value("${credit.notifications.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    /**
+     * Offers the score a user was just served; publishes, schedules or suppresses the notification.
+     * @param userId  The ID of the user.
+     * @param score   The score that was read.
+     * @param emailId The email to notify.
+     */
+    public void offer(int userId, Long score, String emailId) {
+        long now = System.currentTimeMillis();
+        Long outcome = stringRedisTemplate.execute(OFFER_SCRIPT, List.of(STATE_PREFIX + userId, DUE_KEY),
+                score == null ? NULL_SCORE : score.toString(), emailId == null ? "" : emailId,
+                Long.toString(now + debounceWindow.toMillis()), Integer.toString(userId),
+                Long.toString(stateTtl.toMillis()), Long.toString(debounceWindow.toMillis()));
+        long result = outcome == null ? 0 : outcome;
+        meterRegistry.counter("credit.notifications.gate", "result",
+                result == 1 ? "published" : result == 2 ? "coalesced" : result == 3 ? "scheduled" : "suppressed").increment();
+        if (result == 1) {
+            notificationPublisher.publish(userId, score, emailId);
+        }
+    }
+
+    /**
+     * Publishes pending changes whose debounce window has ended.
+     */
+    @Scheduled(fixedDelayString = "${credit.notifications.flush-interval:PT1S}")
+    public void flushDue() {
+        Set<String> due;
+        while (!(due = stringRedisTemplate.opsForZSet().rangeByScore(DUE_KEY, 0, System.currentTimeMillis(), 0, flushBatchSize)).isEmpty()) {
+            for (String userId : due) {
+                List<?> pending = stringRedisTemplate.execute(FLUSH_SCRIPT, List.of(STATE_PREFIX + userId, DUE_KEY),
+                        userId, Long.toString(stateTtl.toMillis()));
+                if (pending != null && pending.size() == 2) {
+                    String score = pending.get(0).toString();
+                    String email = pending.get(1).toString();
+                    notificationPublisher.publish(Integer.parseInt(userId), score.equals(NULL_SCORE) ? null : Long.valueOf(score),
+                            email.isEmpty() ? null : email);
+                    meterRegistry.counter("credit.notifications.gate", "result", "published").increment();
+                }
+            }
+            if (due.size() < flushBatchSize) {
+                break;
+            }
+        }
+    }
+}
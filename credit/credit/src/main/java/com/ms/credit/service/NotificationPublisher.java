@@ -0,0 +1,69 @@
+package com.ms.credit.service;
+
+// Import necessary Spring, Kafka, Micrometer and Java classes.
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import com.ms.credit.dto.NotificationDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Publishes credit score notifications to Kafka without blocking the caller.
+ * <p>
+ * Records are keyed by user ID so all notifications of one user land in the same partition and stay ordered.
+ * Retries are left to the producer, which resends a record until its delivery timeout expires without reordering
+ * or duplicating it (see KafkaProducerConfig); a send that still fails is counted and logged, not resent here, since
+ * a resend from the application would land behind newer notifications of the same user.
+ */
+@Service
+public class NotificationPublisher {
+
+    private static final Logger logger = LogManager.getLogger(NotificationPublisher.class);
+    static final String CREDIT_SCORE_UPDATE = "credit-score-updates";
+
+    @Autowired
+    private KafkaTemplate<String, NotificationDTO> kafkaTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter sent;
+    private Counter failed;
+
+    @PostConstruct
+    public void init() {
+        sent = meterRegistry.counter("credit.notifications", "result", "sent");
+        failed = meterRegistry.counter("credit.notifications", "result", "failed");
+    }
+
+    /**
+     * Queues a score notification for the user; returns immediately.
+     * @param userId  The user the score belongs to, used as the record key.
+     * @param score   The credit score.
+     * @param emailId The email the notification is sent to.
+     */
+    public void publish(int userId, Long score, String emailId) {
+        String key = Integer.toString(userId);
+        try {
+            kafkaTemplate.send(CREDIT_SCORE_UPDATE, key, new NotificationDTO(score, emailId))
+                    .whenComplete((result, ex) -> {
+                        if (ex == null) {
+                            sent.increment();
+                        } else {
+                            onFailure(key, ex);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            // Serialization errors and a full producer buffer are thrown synchronously.
+            onFailure(key, e);
+        }
+    }
+
+    private void onFailure(String key, Throwable ex) {
+        failed.increment();
+        logger.error("Failed to publish credit score notification for user " + key + ": " + ex.getMessage());
+    }
+}
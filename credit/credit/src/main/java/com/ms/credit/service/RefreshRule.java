@@ -0,0 +1,23 @@
+package com.ms.credit.service;
+
+/**
+ * Rule applied to every stored score by PUT /score/refresh.
+ * Rules that can be written as a SQL expression are run as set-based UPDATEs inside the database;
+ * all others are evaluated in Java over keyset pages of the table.
+ */
+public interface RefreshRule {
+
+    /**
+     * Computes the refreshed value of a score.
+     * @param score The current score.
+     * @return the new score.
+     */
+    long apply(long score);
+
+    /**
+     * SQL equivalent of {@link #apply(long)} over the {@code score} column, or null if the rule can only run in Java.
+     */
+    default String sqlExpression() {
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package com.ms.credit.util;
+
+// Import necessary Java time classes.
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Converts between the stored score timestamp and the string form used by the REST API and batch files.
+ * <p>
+ * Clients historically sent dates such as "2024-05-01", so a date without a time is stored at midnight and written
+ * back in the same short form; any other timestamp uses ISO-8601 local date-time.
+ */
+public final class ScoreDates {
+
+    private ScoreDates() {
+    }
+
+    /**
+     * Parses an ISO date ("2024-05-01") or local date-time ("2024-05-01T10:15:30").
+     * @param value The text to parse, may be null or blank.
+     * @return the timestamp, or null when the value is null or blank.
+     * @throws IllegalArgumentException if the value is not a valid date.
+     */
+    public static LocalDateTime parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim();
+        try {
+            return text.length() <= 10 ? LocalDate.parse(text).atStartOfDay() : LocalDateTime.parse(text.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid credit score date: " + value, e);
+        }
+    }
+
+    /**
+     * Formats a timestamp for the API; midnight values are written as a plain date.
+     * @param value The timestamp, may be null.
+     * @return the formatted text, or null.
+     */
+    public static String format(LocalDateTime value) {
+        if (value == null) {
+            return null;
+        }
+        return value.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? value.toLocalDate().toString() : value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    }
+}
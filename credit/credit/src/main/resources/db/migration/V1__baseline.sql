@@ -0,0 +1,11 @@
+-- Schema as it existed before migrations were versioned.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate), so this only runs on empty ones.
+
+CREATE TABLE IF NOT EXISTS credit_scores (
+    id           INT          NOT NULL AUTO_INCREMENT,
+    user_id      INT          NOT NULL,
+    score        BIGINT       NULL,
+    date         VARCHAR(255) NULL,
+    last_updated DATETIME(6)  NULL,
+    PRIMARY KEY (id)
+);
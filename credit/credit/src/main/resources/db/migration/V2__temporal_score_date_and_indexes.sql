@@ -0,0 +1,31 @@
+-- Moves the score date from the free-form VARCHAR "date" column to a DATETIME "scored_at" column,
+-- adds the email_id column used by the email lookup, and indexes the latest-score and stale-score access paths.
+
+ALTER TABLE credit_scores
+    ADD COLUMN email_id  VARCHAR(255) NULL AFTER user_id,
+    ADD COLUMN scored_at DATETIME(6)  NULL AFTER score;
+
+-- Backfill from the old strings. Only the ISO forms the API accepted are converted (the REGEXP guards keep strict
+-- mode from failing on other text); anything else falls back to last_updated, then to the migration time.
+UPDATE credit_scores
+SET scored_at = COALESCE(
+        CASE
+            WHEN date REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}$'
+                THEN STR_TO_DATE(date, '%Y-%m-%d')
+            WHEN date REGEXP '^[0-9]{4}-[0-9]{2}-[0-9]{2}[T ][0-9]{2}:[0-9]{2}:[0-9]{2}'
+                THEN STR_TO_DATE(LEFT(REPLACE(date, 'T', ' '), 19), '%Y-%m-%d %H:%i:%s')
+        END,
+        last_updated,
+        CURRENT_TIMESTAMP(6))
+WHERE scored_at IS NULL;
+
+-- The default lets a rolled-back service, which does not know the column, keep inserting rows.
+ALTER TABLE credit_scores MODIFY COLUMN scored_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+
+-- ORDER BY scored_at DESC LIMIT 1 per user or email becomes a single index seek instead of a filesort.
+CREATE INDEX idx_credit_scores_user_scored_at ON credit_scores (user_id, scored_at DESC);
+CREATE INDEX idx_credit_scores_email_scored_at ON credit_scores (email_id, scored_at DESC);
+CREATE INDEX idx_credit_scores_last_updated ON credit_scores (last_updated);
+
+-- The old "date" column is no longer mapped; it is kept for one release so the service can be rolled back,
+-- and dropped in a later migration.
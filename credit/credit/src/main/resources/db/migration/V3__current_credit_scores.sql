@@ -0,0 +1,21 @@
+-- Latest score per user, maintained in the same transaction as every write to credit_scores.
+
+CREATE TABLE current_credit_scores (
+    user_id      INT          NOT NULL,
+    score_id     INT          NOT NULL,
+    email_id     VARCHAR(255) NULL,
+    score        BIGINT       NULL,
+    scored_at    DATETIME(6)  NOT NULL,
+    last_updated DATETIME(6)  NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE INDEX idx_current_credit_scores_email ON current_credit_scores (email_id);
+
+-- Seed from the existing history: the newest row per user, ties broken by the highest id.
+INSERT INTO current_credit_scores (user_id, score_id, email_id, score, scored_at, last_updated)
+SELECT c.user_id, c.id, c.email_id, c.score, c.scored_at, c.last_updated
+FROM credit_scores c
+WHERE NOT EXISTS (SELECT 1 FROM credit_scores n
+                  WHERE n.user_id = c.user_id
+                    AND (n.scored_at > c.scored_at OR (n.scored_at = c.scored_at AND n.id > c.id)));
@@ -0,0 +1,18 @@
+-- Cold tier for score history older than the archive horizon, partitioned by month of scored_at.
+-- Monthly partitions are split off p_future by the archiver before it moves rows into them; the first monthly
+-- partition also holds anything older. Partitioned tables need the partition column in every unique key.
+
+CREATE TABLE credit_scores_archive (
+    id           INT          NOT NULL,
+    user_id      INT          NOT NULL,
+    email_id     VARCHAR(255) NULL,
+    score        BIGINT       NULL,
+    scored_at    DATETIME(6)  NOT NULL,
+    last_updated DATETIME(6)  NULL,
+    archived_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id, scored_at),
+    KEY idx_credit_scores_archive_user_scored_at (user_id, scored_at DESC)
+)
+PARTITION BY RANGE COLUMNS (scored_at) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
@@ -0,0 +1,4 @@
+-- The archiver checks every candidate row with NOT EXISTS (... current_credit_scores WHERE score_id = c.id);
+-- without this index each probe scans the whole current-score table.
+
+CREATE INDEX idx_current_credit_scores_score_id ON current_credit_scores (score_id);
@@ -0,0 +1,14 @@
+-- Window feature totals of users scored from streamed transactions, written by the scoring engine's flush together
+-- with their new scores. Any replica reads them to score a user with the active model, whichever replica consumes
+-- the user's transaction partition.
+
+CREATE TABLE credit_score_features (
+    user_id            INT         NOT NULL,
+    credit             DOUBLE      NOT NULL,
+    debit              DOUBLE      NOT NULL,
+    loan_payment       DOUBLE      NOT NULL,
+    loan_payment_count DOUBLE      NOT NULL,
+    transactions       DOUBLE      NOT NULL,
+    updated_at         DATETIME(6) NOT NULL,
+    PRIMARY KEY (user_id)
+);
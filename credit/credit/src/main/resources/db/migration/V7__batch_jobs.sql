@@ -0,0 +1,19 @@
+-- Progress of the resumable batch score uploads. Databases whose schema was generated before this migration may
+-- already have the table, hence IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS batch_jobs (
+    id           VARCHAR(36)  NOT NULL,
+    status       VARCHAR(16)  NULL,
+    format       VARCHAR(16)  NULL,
+    spool_path   VARCHAR(255) NULL,
+    total_lines  BIGINT       NOT NULL DEFAULT 0,
+    records_done BIGINT       NOT NULL DEFAULT 0,
+    rows_written BIGINT       NOT NULL DEFAULT 0,
+    rows_failed  BIGINT       NOT NULL DEFAULT 0,
+    chunks_done  INT          NOT NULL DEFAULT 0,
+    error        VARCHAR(255) NULL,
+    created_at   DATETIME(6)  NULL,
+    started_at   DATETIME(6)  NULL,
+    finished_at  DATETIME(6)  NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,55 @@
+package com.ms.credit;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import redis.embedded.RedisServer;
+import java.net.ServerSocket;
+
+/**
+ * Starts an in-process Redis server once per test class and empties it before every test, so the Lua scripts and
+ * leases are exercised against a real server. Register it as a static field with {@code @RegisterExtension}.
+ */
+public class EmbeddedRedisExtension implements BeforeAllCallback, BeforeEachCallback, AfterAllCallback {
+
+    private RedisServer server;
+    private JedisConnectionFactory connectionFactory;
+    private StringRedisTemplate template;
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RedisServer(port);
+        server.start();
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        template = new StringRedisTemplate(connectionFactory);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.serverCommands().flushDb();
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) throws Exception {
+        connectionFactory.destroy();
+        server.stop();
+    }
+
+    public StringRedisTemplate getTemplate() {
+        return template;
+    }
+}
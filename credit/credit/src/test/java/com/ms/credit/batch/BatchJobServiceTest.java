@@ -0,0 +1,183 @@
+package com.ms.credit.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.credit.dto.BatchIngestSummaryDTO;
+import com.ms.credit.dto.BatchJobDTO;
+import com.ms.credit.entity.BatchJob;
+import com.ms.credit.repository.BatchJobRepository;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class BatchJobServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @InjectMocks
+    private BatchJobService batchJobService;
+
+    @Mock
+    private BatchIngestService batchIngestService;
+
+    @Mock
+    private BatchJobRepository batchJobRepository;
+
+    // Stands in for the batch_jobs table.
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(batchJobService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(batchJobService, "spoolDir", dir.toString());
+        ReflectionTestUtils.setField(batchJobService, "threads", 1);
+        ReflectionTestUtils.setField(batchJobService, "queueCapacity", 4);
+        when(batchJobRepository.save(any(BatchJob.class))).thenAnswer(invocation -> {
+            BatchJob job = invocation.getArgument(0);
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(batchJobRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<String>getArgument(0))));
+        when(batchIngestService.openReader(any(), any())).thenAnswer(invocation -> new CreditScoreRecordReader(
+                invocation.getArgument(0), invocation.getArgument(1), new ObjectMapper().reader()));
+        batchJobService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        batchJobService.shutdown();
+    }
+
+    // Makes ingest report one committed chunk of the given size after the skipped records.
+    private void ingestOneChunk(int written) {
+        when(batchIngestService.ingest(any(CreditScoreRecordReader.class), anyLong(), any())).thenAnswer(invocation -> {
+            long skipped = invocation.getArgument(1);
+            BatchIngestService.ChunkCallback callback = invocation.getArgument(2);
+            callback.onChunk(0, skipped + written, written, 0);
+            return new BatchIngestSummaryDTO(written, written, 0, 1, 1);
+        });
+    }
+
+    private void awaitStatus(String id, BatchJob.Status status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (jobs.get(id).getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(status, jobs.get(id).getStatus());
+    }
+
+    @Test
+    public void testJsonArrayIsSpooledAsNdjsonAndChunkProgressIsRecorded() throws Exception {
+        // Setup
+        ingestOneChunk(2);
+        InputStream body = new ByteArrayInputStream("[{\"userId\":1,\"score\":700},{\"userId\":2,\"score\":650}]"
+                .getBytes(StandardCharsets.UTF_8));
+
+        // Action
+        BatchJobDTO submitted = batchJobService.submit(body, "application/json");
+
+        // Assert: the job is acknowledged before it runs, with the spooled line count
+        assertEquals(2, submitted.getTotalLines());
+        verify(batchJobRepository, timeout(5000)).recordChunk(submitted.getId(), 2, 2, 0);
+        awaitStatus(submitted.getId(), BatchJob.Status.COMPLETED);
+        assertEquals("NDJSON", jobs.get(submitted.getId()).getFormat());
+        // The spool file is removed once the job completes
+        Path spool = Paths.get(jobs.get(submitted.getId()).getSpoolPath());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.exists(spool) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(spool));
+    }
+
+    @Test
+    public void testSpooledNdjsonIsReadBackLineByLine() throws Exception {
+        // Setup: keep the job from completing so its spool file stays in place
+        when(batchIngestService.ingest(any(CreditScoreRecordReader.class), anyLong(), any()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        InputStream body = new ByteArrayInputStream("[{\"userId\":1,\"score\":700},{\"userId\":2,\"score\":650}]"
+                .getBytes(StandardCharsets.UTF_8));
+
+        // Action
+        BatchJobDTO submitted = batchJobService.submit(body, "application/json");
+        awaitStatus(submitted.getId(), BatchJob.Status.FAILED);
+
+        // Assert
+        List<String> lines = Files.readAllLines(Paths.get(jobs.get(submitted.getId()).getSpoolPath()));
+        assertEquals(List.of("{\"userId\":1,\"score\":700}", "{\"userId\":2,\"score\":650}"), lines);
+    }
+
+    @Test
+    public void testUnfinishedJobsResumeFromTheirLastCommittedChunkOnceTheApplicationIsReady() throws Exception {
+        // Setup: one job cut off after 500 records, and one whose spool file lives on another node
+        ingestOneChunk(3);
+        Path spool = dir.resolve("cut-off");
+        Files.writeString(spool, "{\"userId\":1,\"score\":700}\n");
+        BatchJob cutOff = job("cut-off", spool, 500);
+        BatchJob elsewhere = job("elsewhere", dir.resolve("missing"), 0);
+        when(batchJobRepository.findByStatusIn(List.of(BatchJob.Status.QUEUED, BatchJob.Status.RUNNING)))
+                .thenReturn(List.of(cutOff, elsewhere));
+
+        // Action
+        batchJobService.resumeUnfinishedJobs();
+
+        // Assert
+        verify(batchIngestService, timeout(5000)).ingest(any(CreditScoreRecordReader.class), eq(500L), any());
+        verify(batchJobRepository, timeout(5000)).recordChunk("cut-off", 503, 3, 0);
+        awaitStatus("cut-off", BatchJob.Status.COMPLETED);
+        assertEquals(BatchJob.Status.RUNNING, jobs.get("elsewhere").getStatus());
+        verify(batchIngestService, times(1)).ingest(any(CreditScoreRecordReader.class), anyLong(), any());
+    }
+
+    @Test
+    public void testFailureReasonIsCutToTheColumnLength() throws Exception {
+        // Setup
+        when(batchIngestService.ingest(any(CreditScoreRecordReader.class), anyLong(), any()))
+                .thenThrow(new IllegalStateException("x".repeat(1000)));
+
+        // Action
+        BatchJobDTO submitted = batchJobService.submit(new ByteArrayInputStream("{\"userId\":1,\"score\":700}\n"
+                .getBytes(StandardCharsets.UTF_8)), "application/x-ndjson");
+
+        // Assert
+        verify(batchJobRepository, timeout(5000)).save(argThat(job -> job.getStatus() == BatchJob.Status.FAILED));
+        assertEquals(255, jobs.get(submitted.getId()).getError().length());
+    }
+
+    private BatchJob job(String id, Path spool, long recordsDone) {
+        BatchJob job = new BatchJob();
+        job.setId(id);
+        job.setStatus(BatchJob.Status.RUNNING);
+        job.setFormat(BatchFormat.NDJSON.name());
+        job.setSpoolPath(spool.toString());
+        job.setRecordsDone(recordsDone);
+        job.setCreatedAt(LocalDateTime.now());
+        jobs.put(id, job);
+        return job;
+    }
+}
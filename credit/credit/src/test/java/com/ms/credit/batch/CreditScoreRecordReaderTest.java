@@ -0,0 +1,58 @@
+package com.ms.credit.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ms.credit.dto.CreditScoreDTO;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class CreditScoreRecordReaderTest {
+
+    private CreditScoreRecordReader reader(String body, BatchFormat format) {
+        return new CreditScoreRecordReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format,
+                new ObjectMapper().reader());
+    }
+
+    @Test
+    public void testReadsNdjsonAndSkipsMalformedLines() {
+        // Setup
+        CreditScoreRecordReader reader = reader("{\"userId\":1,\"score\":700,\"date\":\"2024-05-01\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"userId\":2,\"score\":650}\n", BatchFormat.NDJSON);
+
+        // Action
+        CreditScoreDTO first = reader.next();
+        CreditScoreDTO second = reader.next();
+
+        // Assert
+        assertEquals(1, first.getUserId());
+        assertEquals(700L, first.getScore());
+        assertEquals("2024-05-01", first.getDate());
+        assertEquals(2, second.getUserId());
+        assertNull(reader.next());
+        assertEquals(1, reader.getMalformedLines());
+    }
+
+    @Test
+    public void testReadsCsvWithHeader() {
+        // Setup
+        CreditScoreRecordReader reader = reader("userId,score,date\n3,720,2024-05-01\n4,abc,2024-05-01\n5,610,\n", BatchFormat.CSV);
+
+        // Action
+        CreditScoreDTO first = reader.next();
+        CreditScoreDTO second = reader.next();
+
+        // Assert
+        assertEquals(3, first.getUserId());
+        assertEquals(720L, first.getScore());
+        assertEquals(5, second.getUserId());
+        assertNull(second.getDate());
+        assertNull(reader.next());
+        assertEquals(1, reader.getMalformedLines());
+    }
+}
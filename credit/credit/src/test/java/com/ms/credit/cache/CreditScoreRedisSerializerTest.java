@@ -0,0 +1,107 @@
+package com.ms.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.ms.credit.entity.CreditScore;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+public class CreditScoreRedisSerializerTest {
+
+    private final CreditScoreRedisSerializer serializer = new CreditScoreRedisSerializer();
+
+    @Test
+    public void testRoundTrip() {
+        // Setup
+        CreditScore creditScore = new CreditScore(42, 731L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        creditScore.setId(1234);
+        creditScore.setEmailId("user@example.com");
+        creditScore.setLastUpdated(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123000000));
+
+        // Action
+        CreditScore result = serializer.deserialize(serializer.serialize(creditScore));
+
+        // Assert
+        assertEquals(1234, result.getId());
+        assertEquals(42, result.getUserId());
+        assertEquals(731L, result.getScore());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 0, 0), result.getDate());
+        assertEquals("user@example.com", result.getEmailId());
+        assertEquals(creditScore.getLastUpdated(), result.getLastUpdated());
+    }
+
+    @Test
+    public void testRoundTripWithNullFields() {
+        // Action
+        CreditScore result = serializer.deserialize(serializer.serialize(new CreditScore()));
+
+        // Assert
+        assertNull(result.getScore());
+        assertNull(result.getDate());
+        assertNull(result.getLastUpdated());
+        assertNull(result.getEmailId());
+    }
+
+    @Test
+    public void testReadsLegacyJsonEntries() {
+        // Setup
+        byte[] json = ("{\"@class\":\"com.ms.credit.entity.CreditScore\",\"id\":3,\"userId\":7,\"score\":640,"
+                + "\"date\":\"2024-01-31\",\"lastUpdated\":[2024,1,31,8,30,15]}").getBytes(StandardCharsets.UTF_8);
+
+        // Action
+        CreditScore result = serializer.deserialize(json);
+
+        // Assert
+        assertEquals(3, result.getId());
+        assertEquals(7, result.getUserId());
+        assertEquals(640L, result.getScore());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 0, 0), result.getDate());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 8, 30, 15), result.getLastUpdated());
+    }
+
+    @Test
+    public void testReadsVersion1Entries() {
+        // Setup: id 1, userId 7, score 640 and the date as a string, all zig-zag varints
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(CreditScoreRedisSerializer.VERSION_1);
+        out.write(2);
+        out.write(14);
+        out.write(0b011);
+        out.write(0x80);
+        out.write(0x0A);
+        out.write(10);
+        out.writeBytes("2024-01-31".getBytes(StandardCharsets.UTF_8));
+
+        // Action
+        CreditScore result = serializer.deserialize(out.toByteArray());
+
+        // Assert
+        assertEquals(1, result.getId());
+        assertEquals(7, result.getUserId());
+        assertEquals(640L, result.getScore());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 0, 0), result.getDate());
+    }
+
+    @Test
+    public void testBinaryIsSmallerThanJson() {
+        // Setup
+        CreditScore creditScore = new CreditScore(123456, 712L, null);
+
+        // Assert
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(creditScore);
+        assertTrue(serializer.serialize(creditScore).length * 4 < json.length);
+    }
+
+    @Test
+    public void testRejectsUnknownVersion() {
+        assertThrows(SerializationException.class, () -> serializer.deserialize(new byte[] {99, 0, 0}));
+    }
+}
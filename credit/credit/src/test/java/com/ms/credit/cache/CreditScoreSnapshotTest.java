@@ -0,0 +1,185 @@
+package com.ms.credit.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CreditScoreSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testWrittenSnapshotIsReadBack() throws Exception {
+        // Setup
+        Path file = dir.resolve("scores.snapshot");
+        LocalDateTime scoredAt = LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123456000);
+        int users = 50_000;
+        try (CreditScoreSnapshot.Writer writer = new CreditScoreSnapshot.Writer(file, CreditScoreSnapshot.capacityFor(users), 1000L)) {
+            for (int userId = -10; userId < users - 10; userId++) {
+                writer.put(userId, userId + 100, userId == 7 ? CreditScoreSnapshot.NULL_SCORE : 300 + userId % 500,
+                        CreditScoreSnapshot.toMicros(scoredAt));
+            }
+            writer.put(42, 9999, 800, CreditScoreSnapshot.toMicros(scoredAt));  // replaces the earlier row of user 42
+            writer.finish();
+        }
+
+        // Action
+        CreditScoreSnapshot snapshot = CreditScoreSnapshot.open(file);
+
+        // Assert
+        assertEquals(users, snapshot.size());
+        assertEquals(1000L, snapshot.getCreatedAtMillis());
+        CreditScore creditScore = snapshot.get(42);
+        assertEquals(42, creditScore.getUserId());
+        assertEquals(9999, creditScore.getId());
+        assertEquals(800L, creditScore.getScore());
+        assertEquals(scoredAt, creditScore.getDate());
+        assertEquals(290L, snapshot.get(-10).getScore());
+        assertNull(snapshot.get(7).getScore());
+        assertNull(snapshot.get(users));
+        assertEquals(-1, snapshot.slotOf(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testFullSnapshotIsRejected() throws Exception {
+        try (CreditScoreSnapshot.Writer writer = new CreditScoreSnapshot.Writer(dir.resolve("full.snapshot"), 1024, 0L)) {
+            for (int userId = 0; userId < 1023; userId++) {
+                writer.put(userId, userId, userId, 0L);
+            }
+            assertThrows(IllegalStateException.class, () -> writer.put(5000, 1, 1, 0L));
+        }
+    }
+
+    @Test
+    public void testUnfinishedFileIsNotASnapshot() throws Exception {
+        Path file = dir.resolve("partial.snapshot");
+        try (CreditScoreSnapshot.Writer writer = new CreditScoreSnapshot.Writer(file, 1024, 0L)) {
+            writer.put(1, 1, 1, 0L);
+        }
+        assertThrows(IllegalArgumentException.class, () -> CreditScoreSnapshot.open(file));
+    }
+
+    @Test
+    public void testServiceSkipsUsersInvalidatedSinceTheRebuild() throws Exception {
+        // Setup
+        CreditScoreSnapshotRepository repository = mock(CreditScoreSnapshotRepository.class);
+        when(repository.count()).thenReturn(2L);
+        doAnswer(invocation -> {
+            CreditScoreSnapshotRepository.CurrentScoreHandler handler = invocation.getArgument(0);
+            handler.handle(1, 11, 650L, LocalDateTime.of(2024, 5, 1, 0, 0));
+            handler.handle(2, 12, null, LocalDateTime.of(2024, 5, 2, 0, 0));
+            return null;
+        }).when(repository).streamAll(any());
+        CreditScoreSnapshotService service = new CreditScoreSnapshotService();
+        ReflectionTestUtils.setField(service, "creditScoreSnapshotRepository", repository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "path", dir.resolve("live/scores.snapshot").toString());
+        ReflectionTestUtils.setField(service, "maxAge", Duration.ofMinutes(15));
+        service.init();
+
+        // Action
+        int users = service.rebuild();
+        CreditScore beforeWrite = service.get(1);
+        service.invalidate(List.of(1));
+
+        // Assert
+        assertEquals(2, users);
+        assertNotNull(beforeWrite);
+        assertEquals(650L, beforeWrite.getScore());
+        assertNull(service.get(1));
+        assertNull(service.get(2).getScore());
+        assertNull(service.get(3));
+        assertFalse(Files.exists(dir.resolve("live/scores.snapshot.tmp")));
+    }
+
+    // Writes a snapshot of users 1 and 2 as a previous run would have left it.
+    private Path previousRunSnapshot() throws Exception {
+        Path file = dir.resolve("restart/scores.snapshot");
+        Files.createDirectories(file.getParent());
+        try (CreditScoreSnapshot.Writer writer = new CreditScoreSnapshot.Writer(file, 1024, System.currentTimeMillis())) {
+            writer.put(1, 11, 650L, CreditScoreSnapshot.toMicros(LocalDateTime.of(2024, 5, 1, 0, 0)));
+            writer.put(2, 12, 700L, CreditScoreSnapshot.toMicros(LocalDateTime.of(2024, 5, 2, 0, 0)));
+            writer.finish();
+        }
+        return file;
+    }
+
+    private CreditScoreSnapshotService restartedService(Path file, CreditScoreSnapshotRepository repository) {
+        CreditScoreSnapshotService service = new CreditScoreSnapshotService();
+        ReflectionTestUtils.setField(service, "creditScoreSnapshotRepository", repository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "path", file.toString());
+        ReflectionTestUtils.setField(service, "maxAge", Duration.ofMinutes(15));
+        service.init();
+        return service;
+    }
+
+    @Test
+    public void testCarriedOverSnapshotSkipsUsersWrittenWhileTheNodeWasDown() throws Exception {
+        // Setup: user 2 was rescored and user 3 added after the snapshot was written
+        Path file = previousRunSnapshot();
+        CreditScoreSnapshotRepository repository = mock(CreditScoreSnapshotRepository.class);
+        when(repository.count()).thenReturn(3L);
+        when(repository.findUserIdsChangedSince(any())).thenReturn(List.of(2, 3));
+
+        // Action
+        CreditScoreSnapshotService service = restartedService(file, repository);
+
+        // Assert
+        assertEquals(650L, service.get(1).getScore());
+        assertNull(service.get(2));
+        assertNull(service.get(3));
+    }
+
+    @Test
+    public void testCarriedOverSnapshotIsNotServedAfterADeleteUntilTheFirstRebuild() throws Exception {
+        // Setup: user 1 was deleted and user 3 added after the snapshot was written
+        Path file = previousRunSnapshot();
+        CreditScoreSnapshotRepository repository = mock(CreditScoreSnapshotRepository.class);
+        when(repository.count()).thenReturn(2L);
+        when(repository.findUserIdsChangedSince(any())).thenReturn(List.of(3));
+        doAnswer(invocation -> {
+            CreditScoreSnapshotRepository.CurrentScoreHandler handler = invocation.getArgument(0);
+            handler.handle(2, 12, 700L, LocalDateTime.of(2024, 5, 2, 0, 0));
+            handler.handle(3, 13, 720L, LocalDateTime.of(2024, 5, 3, 0, 0));
+            return null;
+        }).when(repository).streamAll(any());
+
+        // Action
+        CreditScoreSnapshotService service = restartedService(file, repository);
+
+        // Assert
+        assertNull(service.get(1));
+        assertNull(service.get(2));
+
+        // Action
+        service.rebuild();
+
+        // Assert
+        assertNull(service.get(1));
+        assertEquals(700L, service.get(2).getScore());
+        assertEquals(720L, service.get(3).getScore());
+    }
+}
@@ -0,0 +1,85 @@
+package com.ms.credit.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class UserLookupCoalescerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<Set<Integer>> batches = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized CompletableFuture<Map<Integer, String>> load(Collection<Integer> userIds) {
+        batches.add(new HashSet<>(userIds));
+        return CompletableFuture.completedFuture(Map.of(1, "a@example.com", 2, "b@example.com"));
+    }
+
+    @Test
+    public void testLookupsWithinTheWindowGoOutAsOneBatch() throws Exception {
+        // Setup
+        UserLookupCoalescer coalescer = new UserLookupCoalescer(this::load, scheduler, Duration.ofMillis(50), 100);
+
+        // Action
+        CompletableFuture<String> first = coalescer.lookup(1);
+        CompletableFuture<String> duplicate = coalescer.lookup(1);
+        CompletableFuture<String> unknown = coalescer.lookup(3);
+
+        // Assert
+        assertSame(first, duplicate);
+        assertEquals("a@example.com", first.get(5, TimeUnit.SECONDS));
+        assertNull(unknown.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Set.of(1, 3)), batches);
+    }
+
+    @Test
+    public void testFullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        // Setup
+        UserLookupCoalescer coalescer = new UserLookupCoalescer(this::load, scheduler, Duration.ofHours(1), 2);
+
+        // Action
+        coalescer.lookup(1);
+        CompletableFuture<String> second = coalescer.lookup(2);
+
+        // Assert
+        assertEquals("b@example.com", second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(Set.of(1, 2)), batches);
+    }
+
+    @Test
+    public void testBatchFailureFailsEveryLookup() {
+        // Setup
+        UserLookupCoalescer coalescer = new UserLookupCoalescer(
+                userIds -> CompletableFuture.failedFuture(new IllegalStateException("userms unavailable")),
+                scheduler, Duration.ofMillis(10), 100);
+
+        // Action
+        CompletableFuture<String> first = coalescer.lookup(1);
+        CompletableFuture<String> second = coalescer.lookup(2);
+
+        // Assert
+        assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+}
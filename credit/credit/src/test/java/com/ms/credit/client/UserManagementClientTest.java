@@ -0,0 +1,90 @@
+package com.ms.credit.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UserManagementClientTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CompletableFuture<String> upstream = new CompletableFuture<>();
+    private UserManagementClient client;
+
+    @BeforeEach
+    public void setUp() {
+        // Every GET waits for the "upstream" future; batch POSTs answer immediately with one email per id.
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> {
+            requests.incrementAndGet();
+            if (request.url().getPath().endsWith("/batch")) {
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"1\":\"a@example.com\",\"2\":\"b@example.com\",\"3\":\"c@example.com\"}").build());
+            }
+            return Mono.fromFuture(upstream).map(email -> ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE).body(email).build());
+        }).build();
+        client = new UserManagementClient();
+        ReflectionTestUtils.setField(client, "webClient", webClient);
+        ReflectionTestUtils.setField(client, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(client, "maximumSize", 100L);
+        ReflectionTestUtils.setField(client, "expireAfterWrite", Duration.ofHours(1));
+        ReflectionTestUtils.setField(client, "refreshAfterWrite", Duration.ofMinutes(45));
+        ReflectionTestUtils.setField(client, "batchMaxSize", 2);
+        client.initCache();
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneRequestAndAreCached() throws Exception {
+        // Action
+        CompletableFuture<String> first = client.getUserDetails(1).toFuture();
+        CompletableFuture<String> second = client.getUserDetails(1).toFuture();
+        upstream.complete("user@example.com");
+
+        // Assert
+        assertEquals("user@example.com", first.get(5, TimeUnit.SECONDS));
+        assertEquals("user@example.com", second.get(5, TimeUnit.SECONDS));
+        assertEquals("user@example.com", client.getUserDetails(1).block(Duration.ofSeconds(5)));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testCancelledSubscriberDoesNotFailOtherWaiters() throws Exception {
+        // Setup
+        CompletableFuture<String> waiting = client.getUserDetails(1).toFuture();
+        Disposable cancelled = client.getUserDetails(1).subscribe();
+
+        // Action
+        cancelled.dispose();
+        upstream.complete("user@example.com");
+
+        // Assert
+        assertEquals("user@example.com", waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBulkLookupIsSplitIntoBatchesOfAtMostTheMaximumSize() {
+        // Action
+        Map<Integer, String> emails = client.getAllUserDetails(List.of(1, 2, 3)).block(Duration.ofSeconds(5));
+
+        // Assert: three ids with a maximum of two per request
+        assertEquals(Map.of(1, "a@example.com", 2, "b@example.com", 3, "c@example.com"), emails);
+        assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,77 @@
+package com.ms.credit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.dto.FinancialDataDTO;
+import com.ms.credit.service.EmailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+
+public class KafkaConsumerConfigTest {
+
+    @InjectMocks
+    private KafkaConsumerConfig kafkaConsumerConfig;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(kafkaConsumerConfig, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    public void testBatchIsAcknowledgedAfterHandoff() {
+        // Setup
+        FinancialDataDTO ok = message("ok@example.com", 700);
+        FinancialDataDTO noEmail = message(null, 650);
+
+        // Action
+        kafkaConsumerConfig.handleClaimStatusUpdate(Arrays.asList(ok, noEmail, null), acknowledgment);
+
+        // Assert
+        verify(emailService).sendEmail(eq("ok@example.com"), anyString(), anyString());
+        verify(acknowledgment).acknowledge();
+        assertEquals(1.0, meterRegistry.counter("credit.notifications.consumed", "result", "handed-off").count());
+        assertEquals(2.0, meterRegistry.counter("credit.notifications.consumed", "result", "failed").count());
+    }
+
+    @Test
+    public void testBatchFailsAtTheMessageThatFoundTheEmailQueueFull() {
+        // Setup
+        doNothing().doThrow(new IllegalStateException("Email queue is full")).when(emailService).sendEmail(anyString(), anyString(), anyString());
+
+        // Action
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> kafkaConsumerConfig.handleClaimStatusUpdate(List.of(message("a@example.com", 700), message("b@example.com", 650)), acknowledgment));
+
+        // Assert: the error handler commits the first message and redelivers from the second
+        assertEquals(1, e.getIndex());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    private static FinancialDataDTO message(String emailId, double score) {
+        FinancialDataDTO message = new FinancialDataDTO();
+        message.setEmailId(emailId);
+        message.setCreditScore(score);
+        return message;
+    }
+}
@@ -0,0 +1,92 @@
+package com.ms.credit.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public class CreditScoreArchiveRepositoryTest {
+
+    private static final String NOT_CURRENT = "NOT EXISTS (SELECT 1 FROM current_credit_scores cur WHERE cur.score_id = c.id)";
+
+    @InjectMocks
+    private CreditScoreArchiveRepository creditScoreArchiveRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testMonthlyPartitionIsSplitOffTheCatchAllPartition() {
+        // Action
+        creditScoreArchiveRepository.addMonthlyPartition(YearMonth.of(2024, 12));
+
+        // Assert: December ends before the first day of the next year
+        verify(jdbcTemplate).execute("ALTER TABLE credit_scores_archive REORGANIZE PARTITION p_future INTO ("
+                + "PARTITION p202412 VALUES LESS THAN ('2025-01-01'), PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    public void testLastPartitionMonthIsTheNewestMonthlyPartition() {
+        // Setup
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("p202311", "p202402", "p202401"));
+
+        // Action & Assert
+        assertEquals(YearMonth.of(2024, 2), creditScoreArchiveRepository.findLastPartitionMonth());
+    }
+
+    @Test
+    public void testNoMonthlyPartitionYet() {
+        // Setup: only p_future, which the LIKE pattern leaves out
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+
+        // Action & Assert
+        assertNull(creditScoreArchiveRepository.findLastPartitionMonth());
+    }
+
+    @Test
+    public void testMoveSkipsCurrentScoresAndDeletesOnlyRowsThatReachedTheArchive() {
+        // Setup
+        when(namedParameterJdbcTemplate.update(startsWith("DELETE"), any(MapSqlParameterSource.class))).thenReturn(2);
+
+        // Action
+        int moved = creditScoreArchiveRepository.moveToArchive(List.of(1, 2, 3));
+
+        // Assert
+        assertEquals(2, moved);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedParameterJdbcTemplate, times(2)).update(sql.capture(), params.capture());
+        String insert = sql.getAllValues().get(0);
+        String delete = sql.getAllValues().get(1);
+        assertTrue(insert.startsWith("INSERT INTO credit_scores_archive"));
+        assertTrue(insert.contains("WHERE c.id IN (:ids) AND " + NOT_CURRENT));
+        // A row that became a current score between the two statements is neither copied nor deleted
+        assertTrue(delete.contains("WHERE c.id IN (:ids) AND " + NOT_CURRENT));
+        assertTrue(delete.contains("EXISTS (SELECT 1 FROM credit_scores_archive a WHERE a.id = c.id AND a.scored_at = c.scored_at)"));
+        assertEquals(List.of(1, 2, 3), params.getAllValues().get(1).getValue("ids"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ms.credit.scoring;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.ms.credit.dto.RefreshProgressDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BulkRescoringServiceTest {
+
+    @InjectMocks
+    private BulkRescoringService bulkRescoringService;
+
+    @Mock
+    private TransactionScoringEngine transactionScoringEngine;
+
+    @Mock
+    private ScoringModelLoader scoringModelLoader;
+
+    @Mock
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bulkRescoringService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bulkRescoringService.shutdown();
+    }
+
+    @Test
+    public void testRescoringRunsInTheBackgroundAndRejectsASecondRun() throws InterruptedException {
+        // Setup
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionScoringEngine.getState()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("state unavailable");
+        });
+
+        // Action
+        RefreshProgressDTO started = bulkRescoringService.rescoreActiveUsers();
+
+        // Assert
+        assertTrue(started.isRunning());
+        assertThrows(IllegalStateException.class, () -> bulkRescoringService.rescoreActiveUsers());
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkRescoringService.getProgress().isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        RefreshProgressDTO finished = bulkRescoringService.getProgress();
+        assertFalse(finished.isRunning());
+        assertNotNull(finished.getFinishedAt());
+    }
+}
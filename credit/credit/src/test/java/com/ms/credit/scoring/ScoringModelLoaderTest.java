@@ -0,0 +1,121 @@
+package com.ms.credit.scoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ForkJoinPool;
+
+public class ScoringModelLoaderTest {
+
+    private static final String SCORECARD = "{\"version\":\"%s\",\"baseScore\":600,\"minScore\":300,\"maxScore\":850,"
+            + "\"characteristics\":["
+            + "{\"feature\":\"loanPaymentCount\",\"bins\":[{\"below\":1,\"points\":-50},{\"below\":6,\"points\":0},{\"points\":%d}]},"
+            + "{\"feature\":\"debit\",\"per\":\"credit\",\"bins\":[{\"below\":0.3,\"points\":40},{\"points\":-100}]}]}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testCompiledScorecardAddsBinPoints() throws Exception {
+        // Setup
+        ScorecardModel model = ScorecardModel.compile(objectMapper.readTree(String.format(SCORECARD, "v1", 80)));
+        double[] features = new double[2 * TransactionFeatureState.FEATURES];
+        int second = TransactionFeatureState.FEATURES;
+        features[second + TransactionFeatureState.LOAN_PAYMENT_COUNT] = 7;
+        features[second + TransactionFeatureState.CREDIT] = 1000;
+        features[second + TransactionFeatureState.DEBIT] = 200;
+
+        // Assert: the first vector has no payments and no credit (ratio 0/1); the second is read at its offset
+        assertEquals(600 - 50 + 40, model.score(features, 0));
+        assertEquals(600 + 80 + 40, model.score(features, second));
+    }
+
+    @Test
+    public void testColumnarScoringMatchesRowScoring() throws Exception {
+        // Setup
+        ScorecardModel model = ScorecardModel.compile(objectMapper.readTree(String.format(SCORECARD, "v1", 80)));
+        int rows = 1000;
+        double[][] columns = new double[TransactionFeatureState.FEATURES][rows];
+        for (int i = 0; i < rows; i++) {
+            columns[TransactionFeatureState.LOAN_PAYMENT_COUNT][i] = i % 9;
+            columns[TransactionFeatureState.CREDIT][i] = i * 10;
+            columns[TransactionFeatureState.DEBIT][i] = (i * 37) % 5000;
+        }
+
+        // Action
+        int[] scores = new int[rows];
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BulkRescoringService.scoreParallel(pool, model, columns, rows, scores, 64);
+        pool.shutdown();
+
+        // Assert
+        double[] row = new double[TransactionFeatureState.FEATURES];
+        for (int i = 0; i < rows; i++) {
+            for (int f = 0; f < row.length; f++) {
+                row[f] = columns[f][i];
+            }
+            assertEquals(model.score(row, 0), scores[i], "row " + i);
+        }
+    }
+
+    @Test
+    public void testRejectsMalformedScorecards() {
+        assertThrows(IllegalArgumentException.class, () -> ScorecardModel.compile(objectMapper.readTree(
+                "{\"characteristics\":[{\"feature\":\"salary\",\"bins\":[{\"points\":1}]}]}")));
+        assertThrows(IllegalArgumentException.class, () -> ScorecardModel.compile(objectMapper.readTree(
+                "{\"characteristics\":[{\"feature\":\"credit\",\"bins\":[{\"below\":5,\"points\":1},{\"below\":2,\"points\":2},{\"points\":3}]}]}")));
+        assertThrows(IllegalArgumentException.class, () -> ScorecardModel.compile(objectMapper.readTree(
+                "{\"characteristics\":[{\"feature\":\"credit\",\"bins\":[{\"below\":5,\"points\":1}]}]}")));
+    }
+
+    @Test
+    public void testReloadsChangedFileAndKeepsModelWhenInvalid() throws Exception {
+        // Setup
+        Path file = dir.resolve("scorecard.json");
+        Files.writeString(file, String.format(SCORECARD, "v1", 80));
+        ScoringModelLoader loader = loader(file);
+        ScoringModel first = loader.current();
+
+        // Action & Assert: unchanged file
+        assertFalse(loader.reloadIfChanged());
+
+        // Action & Assert: a new version is swapped in
+        Files.writeString(file, String.format(SCORECARD, "v2", 120));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        assertTrue(loader.reloadIfChanged());
+        assertEquals("v2", loader.current().getVersion());
+
+        // Action & Assert: a broken file keeps v2
+        ScoringModel second = loader.current();
+        Files.writeString(file, "{\"characteristics\":[]}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+        assertFalse(loader.reloadIfChanged());
+        assertSame(second, loader.current());
+        assertEquals("v1", first.getVersion());
+    }
+
+    private ScoringModelLoader loader(Path file) throws Exception {
+        ScoringModelLoader loader = new ScoringModelLoader();
+        ReflectionTestUtils.setField(loader, "resourceLoader", new DefaultResourceLoader());
+        ReflectionTestUtils.setField(loader, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(loader, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(loader, "location", file.toUri().toString());
+        loader.init();
+        return loader;
+    }
+}
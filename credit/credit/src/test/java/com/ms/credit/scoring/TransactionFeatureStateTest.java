@@ -0,0 +1,119 @@
+package com.ms.credit.scoring;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+public class TransactionFeatureStateTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    // 30-day window in 6 buckets of 5 days; the score is the transaction count so changes are easy to follow.
+    private final TransactionFeatureState state = new TransactionFeatureState(4, 4, 30 * DAY, 6,
+            (totals, offset) -> (int) totals[offset + TransactionFeatureState.TRANSACTIONS]);
+
+    @Test
+    public void testAccumulatesFeaturesWithinWindow() {
+        // Action
+        state.record(7, 0, TransactionFeatureState.TYPE_CREDIT, 1000, "a@example.com");
+        state.record(7, 2 * DAY, TransactionFeatureState.TYPE_DEBIT, 250, null);
+        state.record(7, 12 * DAY, TransactionFeatureState.TYPE_LOAN_PAYMENT, 100, null);
+
+        // Assert
+        assertArrayEquals(new double[] {1000, 250, 100, 1, 3}, state.features(7));
+        assertEquals(3, state.score(7));
+    }
+
+    @Test
+    public void testExpiresBucketsThatLeaveTheWindow() {
+        // Setup
+        state.record(7, 0, TransactionFeatureState.TYPE_CREDIT, 1000, null);
+        state.record(7, 10 * DAY, TransactionFeatureState.TYPE_CREDIT, 500, null);
+
+        // Action: day 31 starts a bucket that pushes days 0-4 out of the window
+        state.record(7, 31 * DAY, TransactionFeatureState.TYPE_DEBIT, 50, null);
+
+        // Assert
+        assertArrayEquals(new double[] {500, 50, 0, 0, 2}, state.features(7));
+        assertFalse(state.record(7, 2 * DAY, TransactionFeatureState.TYPE_CREDIT, 1, null));
+    }
+
+    @Test
+    public void testDrainsEachChangedUserOnce() {
+        // Setup
+        state.record(1, 0, TransactionFeatureState.TYPE_CREDIT, 10, "one@example.com");
+        state.record(1, DAY, TransactionFeatureState.TYPE_CREDIT, 10, null);
+        state.record(2, 0, TransactionFeatureState.TYPE_DEBIT, 10, null);
+
+        // Action
+        List<String> drained = new ArrayList<>();
+        state.drainChanged((userId, score, emailId) -> drained.add(userId + ":" + score + ":" + emailId));
+        List<String> second = new ArrayList<>();
+        state.drainChanged((userId, score, emailId) -> second.add(userId + ":" + score));
+
+        // Assert
+        assertEquals(List.of("1:2:one@example.com", "2:1:null"), drained.stream().sorted().toList());
+        assertEquals(List.of(), second);
+    }
+
+    @Test
+    public void testExportsColumnsAndSkipsScoresChangedSinceExport() {
+        // Setup
+        state.record(1, 0, TransactionFeatureState.TYPE_CREDIT, 100, "one@example.com");
+        state.record(2, 0, TransactionFeatureState.TYPE_DEBIT, 40, null);
+
+        // Action
+        FeatureColumns columns = state.exportColumns();
+        state.record(2, DAY, TransactionFeatureState.TYPE_DEBIT, 10, null);
+
+        // Assert
+        assertEquals(2, columns.getSize());
+        int row = columns.getUserIds()[0] == 1 ? 0 : 1;
+        assertEquals(100.0, columns.getColumns()[TransactionFeatureState.CREDIT][row]);
+        assertEquals("one@example.com", columns.getEmails()[row]);
+        assertTrue(state.compareAndSetScore(1, columns.getScores()[row], 42));
+        assertFalse(state.compareAndSetScore(2, columns.getScores()[1 - row], 42));
+        assertEquals(42, state.score(1));
+    }
+
+    @Test
+    public void testReplayedEventsAreNotFlaggedAndPartitionsCanBeDropped() {
+        // Setup
+        state.record(1, 0, TransactionFeatureState.TYPE_CREDIT, 100, null, 0, true);
+        state.record(2, 0, TransactionFeatureState.TYPE_DEBIT, 40, null, 1, false);
+        List<Integer> drained = new ArrayList<>();
+
+        // Action
+        state.drainChanged((userId, score, emailId) -> drained.add(userId));
+        int removed = state.removePartitions(Set.of(0));
+
+        // Assert
+        assertEquals(List.of(2), drained);
+        assertEquals(1, removed);
+        assertNull(state.features(1));
+        assertNotNull(state.features(2));
+    }
+
+    @Test
+    public void testKeepsStateWhileGrowing() {
+        // Action
+        for (int userId = 0; userId < 10_000; userId++) {
+            state.record(userId, DAY, TransactionFeatureState.TYPE_CREDIT, userId, null);
+        }
+
+        // Assert
+        assertEquals(10_000, state.size());
+        assertNotNull(state.features(9_999));
+        assertEquals(9_999.0, state.features(9_999)[TransactionFeatureState.CREDIT]);
+    }
+}
@@ -0,0 +1,173 @@
+package com.ms.credit.scoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.dto.FinancialDataDTO;
+import com.ms.credit.repository.CreditScoreBatchRepository;
+import com.ms.credit.repository.CreditScoreFeatureRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import com.ms.credit.service.CreditScoreAggregateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class TransactionScoringEngineTest {
+
+    @InjectMocks
+    private TransactionScoringEngine transactionScoringEngine;
+
+    @Mock
+    private CreditScoreBatchRepository creditScoreBatchRepository;
+
+    @Mock
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+
+    @Mock
+    private CreditScoreFeatureRepository creditScoreFeatureRepository;
+
+    @Mock
+    private CreditScoreCache creditScoreCache;
+
+    @Mock
+    private CreditScoreAggregateService creditScoreAggregateService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ScoringModelLoader scoringModelLoader;
+
+    @Mock
+    private ScoringModel scoringModel;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transactionScoringEngine, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(transactionScoringEngine, "window", Duration.ofDays(30));
+        ReflectionTestUtils.setField(transactionScoringEngine, "windowBuckets", 6);
+        ReflectionTestUtils.setField(transactionScoringEngine, "stripes", 4);
+        ReflectionTestUtils.setField(transactionScoringEngine, "flushBatchSize", 1000);
+        when(scoringModelLoader.current()).thenReturn(scoringModel);
+        when(scoringModel.score(any(double[].class), anyInt())).thenReturn(700);
+        transactionScoringEngine.init();
+    }
+
+    private static ConsumerRecord<String, FinancialDataDTO> record(int partition, long offset, int userId) {
+        FinancialDataDTO event = new FinancialDataDTO(userId, 250.0, null, "credit");
+        event.setEmailId("user" + userId + "@example.com");
+        return new ConsumerRecord<>("credit-transactions", partition, offset, System.currentTimeMillis(),
+                TimestampType.CREATE_TIME, -1, -1, String.valueOf(userId), event, new RecordHeaders(), Optional.empty());
+    }
+
+    @Test
+    public void testBatchIsAcknowledgedOnlyOnceItsScoresAreWritten() {
+        // Action
+        transactionScoringEngine.onTransactions(List.of(record(0, 0, 1)), acknowledgment);
+
+        // Assert: applied in memory but not yet written
+        verify(acknowledgment, never()).acknowledge();
+
+        // Action
+        transactionScoringEngine.flush();
+
+        // Assert
+        verify(transactionTemplate).executeWithoutResult(any());
+        verify(creditScoreAggregateService).recordInserts(List.of(700L));
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlushStoresTheWindowFeaturesWithTheScores() {
+        // Setup
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        transactionScoringEngine.onTransactions(List.of(record(0, 0, 1)), acknowledgment);
+
+        // Action
+        transactionScoringEngine.flush();
+
+        // Assert
+        ArgumentCaptor<Map<Integer, double[]>> features = ArgumentCaptor.forClass(Map.class);
+        verify(creditScoreFeatureRepository).upsertAll(features.capture());
+        assertEquals(250.0, features.getValue().get(1)[TransactionFeatureState.CREDIT]);
+        verify(creditScoreBatchRepository).insertAll(anyList());
+    }
+
+    @Test
+    public void testModelScoreIsComputedFromStoredFeatures() {
+        // Setup
+        when(creditScoreFeatureRepository.findFeatures(1)).thenReturn(new double[TransactionFeatureState.FEATURES]);
+
+        // Action & Assert: the same on every replica, whether or not it holds the user's window
+        assertEquals(700, transactionScoringEngine.scoreWithCurrentModel(1));
+        assertEquals(TransactionFeatureState.NO_SCORE, transactionScoringEngine.scoreWithCurrentModel(2));
+    }
+
+    @Test
+    public void testFailedFlushHoldsTheAcknowledgmentUntilTheRetrySucceeds() {
+        // Setup
+        doThrow(new IllegalStateException("database unavailable")).doNothing()
+                .when(transactionTemplate).executeWithoutResult(any());
+        transactionScoringEngine.onTransactions(List.of(record(0, 0, 1)), acknowledgment);
+
+        // Action
+        transactionScoringEngine.flush();
+
+        // Assert
+        verify(acknowledgment, never()).acknowledge();
+
+        // Action: the failed user is flagged again and written by the next flush
+        transactionScoringEngine.flush();
+
+        // Assert
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    public void testReplayedBatchIsNeitherWrittenNorAcknowledged() {
+        // Setup
+        transactionScoringEngine.onPartitionsAssigned(Map.of(new TopicPartition("credit-transactions", 0), 5L),
+                mock(ConsumerSeekCallback.class));
+
+        // Action
+        transactionScoringEngine.onTransactions(List.of(record(0, 2, 1)), acknowledgment);
+        transactionScoringEngine.flush();
+
+        // Assert
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(creditScoreBatchRepository, never()).insertAll(anyList());
+        verify(acknowledgment, never()).acknowledge();
+    }
+}
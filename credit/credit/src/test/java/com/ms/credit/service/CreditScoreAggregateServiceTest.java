@@ -0,0 +1,114 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.EmbeddedRedisExtension;
+import com.ms.credit.dto.CreditScoreStatisticsDTO;
+import com.ms.credit.repository.CreditScoreRepository;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class CreditScoreAggregateServiceTest {
+
+    @RegisterExtension
+    static EmbeddedRedisExtension redis = new EmbeddedRedisExtension();
+
+    private CreditScoreAggregateService creditScoreAggregateService;
+    private CreditScoreRepository creditScoreRepository;
+
+    @BeforeEach
+    public void setUp() {
+        creditScoreRepository = mock(CreditScoreRepository.class);
+        creditScoreAggregateService = new CreditScoreAggregateService();
+        ReflectionTestUtils.setField(creditScoreAggregateService, "stringRedisTemplate", redis.getTemplate());
+        ReflectionTestUtils.setField(creditScoreAggregateService, "creditScoreRepository", creditScoreRepository);
+        ReflectionTestUtils.setField(creditScoreAggregateService, "bucketWidth", 50L);
+    }
+
+    @Test
+    public void testInsertsAddToCountSumBoundsAndBuckets() {
+        // Action
+        creditScoreAggregateService.recordInserts(Arrays.asList(700L, 650L, null));
+        creditScoreAggregateService.recordInserts(List.of(820L, 699L));
+
+        // Assert
+        CreditScoreStatisticsDTO statistics = creditScoreAggregateService.getStatistics();
+        assertEquals(4, statistics.getCount());
+        assertEquals((700 + 650 + 820 + 699) / 4.0, statistics.getAverage());
+        assertEquals(650L, statistics.getMin());
+        assertEquals(820L, statistics.getMax());
+        assertEquals(Map.of(650L, 2L, 700L, 1L, 800L, 1L), statistics.getHistogram());
+        verifyNoInteractions(creditScoreRepository);
+    }
+
+    @Test
+    public void testUpdatesAndDeletesAdjustTheAggregatesAndLeaveMinMaxAsBounds() {
+        // Setup
+        creditScoreAggregateService.recordInserts(List.of(700L, 650L, 820L));
+
+        // Action
+        creditScoreAggregateService.recordUpdate(700L, 710L);  // same bucket, so no bucket change
+        creditScoreAggregateService.recordUpdate(650L, 760L);  // moves between buckets
+        creditScoreAggregateService.recordUpdate(null, 600L);  // a score given to a row that had none
+        creditScoreAggregateService.recordDeletes(Arrays.asList(820L, null));
+
+        // Assert
+        CreditScoreStatisticsDTO statistics = creditScoreAggregateService.getStatistics();
+        assertEquals(3, statistics.getCount());
+        assertEquals((710 + 760 + 600) / 3.0, statistics.getAverage());
+        assertEquals(600L, statistics.getMin());
+        assertEquals(820L, statistics.getMax());  // not shrunk by the delete until the next reconcile
+        assertEquals(Map.of(600L, 1L, 700L, 1L, 750L, 1L), statistics.getHistogram());
+    }
+
+    @Test
+    public void testReconcileReplacesTheWholeHash() {
+        // Setup: drifted aggregates, including a bucket that no longer exists
+        creditScoreAggregateService.recordInserts(List.of(700L, 650L, 820L));
+        creditScoreAggregateService.recordDeletes(List.of(820L));
+        when(creditScoreRepository.fetchScoreTotals()).thenReturn(List.<Object[]>of(new Object[] {2L, 1360L, 650L, 710L}));
+        when(creditScoreRepository.fetchScoreHistogram(50L)).thenReturn(List.of(new Object[] {13L, 1L}, new Object[] {14L, 1L}));
+
+        // Action
+        creditScoreAggregateService.reconcile();
+
+        // Assert
+        CreditScoreStatisticsDTO statistics = creditScoreAggregateService.getStatistics();
+        assertEquals(2, statistics.getCount());
+        assertEquals(680.0, statistics.getAverage());
+        assertEquals(650L, statistics.getMin());
+        assertEquals(710L, statistics.getMax());
+        assertEquals(Map.of(650L, 1L, 700L, 1L), statistics.getHistogram());
+        // The emptied bucket left behind by the delete is gone, not just zero
+        assertFalse(redis.getTemplate().opsForHash().hasKey("credit-score:aggregates", "bucket:16"));
+    }
+
+    @Test
+    public void testMissingAggregatesAreRebuiltOnFirstReadAndAnEmptyTableHasNoBounds() {
+        // Setup
+        when(creditScoreRepository.fetchScoreTotals()).thenReturn(List.<Object[]>of(new Object[] {0L, 0L, null, null}));
+        when(creditScoreRepository.fetchScoreHistogram(50L)).thenReturn(List.of());
+
+        // Action
+        double average = creditScoreAggregateService.getAverage();
+        CreditScoreStatisticsDTO statistics = creditScoreAggregateService.getStatistics();
+
+        // Assert
+        assertTrue(Double.isNaN(average));
+        assertEquals(0, statistics.getCount());
+        assertNull(statistics.getMin());
+        assertNull(statistics.getMax());
+        assertTrue(statistics.getHistogram().isEmpty());
+        verify(creditScoreRepository, times(1)).fetchScoreTotals();
+    }
+}
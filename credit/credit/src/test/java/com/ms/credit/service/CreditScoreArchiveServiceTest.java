@@ -0,0 +1,133 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreArchiveRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+public class CreditScoreArchiveServiceTest {
+
+    @InjectMocks
+    private CreditScoreArchiveService creditScoreArchiveService;
+
+    @Mock
+    private CreditScoreArchiveRepository creditScoreArchiveRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CronShardLeaseService cronShardLeaseService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(creditScoreArchiveService, "enabled", true);
+        ReflectionTestUtils.setField(creditScoreArchiveService, "horizon", Duration.ofDays(730));
+        ReflectionTestUtils.setField(creditScoreArchiveService, "batchSize", 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(cronShardLeaseService.tryAcquire(anyString(), eq(0))).thenReturn(true);
+        when(cronShardLeaseService.renew(anyString(), eq(0))).thenReturn(true);
+    }
+
+    private static CreditScore row(int id, LocalDateTime scoredAt) {
+        CreditScore score = new CreditScore();
+        score.setId(id);
+        score.setUserId(id);
+        score.setScore(700L);
+        score.setDate(scoredAt);
+        return score;
+    }
+
+    @Test
+    public void testMissingMonthlyPartitionsAreAddedBeforeTheirRowsAreMoved() {
+        // Setup: partitions exist up to November 2022, the first page reaches February 2023
+        when(creditScoreArchiveRepository.findLastPartitionMonth()).thenReturn(YearMonth.of(2022, 11), YearMonth.of(2023, 2));
+        when(creditScoreArchiveRepository.findArchivableAfter(any(), eq(0), eq(2)))
+                .thenReturn(List.of(row(1, LocalDateTime.of(2022, 10, 3, 0, 0)), row(2, LocalDateTime.of(2023, 2, 14, 0, 0))));
+        when(creditScoreArchiveRepository.findArchivableAfter(any(), eq(2), eq(2)))
+                .thenReturn(List.of(row(5, LocalDateTime.of(2023, 1, 20, 0, 0))));
+        when(creditScoreArchiveRepository.findArchivableAfter(any(), eq(5), eq(2))).thenReturn(List.of());
+        when(creditScoreArchiveRepository.moveToArchive(List.of(1, 2))).thenReturn(2);
+        when(creditScoreArchiveRepository.moveToArchive(List.of(5))).thenReturn(1);
+
+        // Action
+        long moved = creditScoreArchiveService.archive();
+
+        // Assert
+        assertEquals(3, moved);
+        InOrder order = inOrder(creditScoreArchiveRepository);
+        order.verify(creditScoreArchiveRepository).addMonthlyPartition(YearMonth.of(2022, 12));
+        order.verify(creditScoreArchiveRepository).addMonthlyPartition(YearMonth.of(2023, 1));
+        order.verify(creditScoreArchiveRepository).addMonthlyPartition(YearMonth.of(2023, 2));
+        order.verify(creditScoreArchiveRepository).moveToArchive(List.of(1, 2));
+        order.verify(creditScoreArchiveRepository).moveToArchive(List.of(5));
+        verify(creditScoreArchiveRepository, times(3)).addMonthlyPartition(any());
+        verify(cronShardLeaseService).complete(anyString(), eq(0));
+    }
+
+    @Test
+    public void testFirstPartitionStartsAtTheOldestMonthOfTheBatch() {
+        // Setup: only the catch-all partition exists
+        when(creditScoreArchiveRepository.findArchivableAfter(any(), eq(0), eq(2)))
+                .thenReturn(List.of(row(1, LocalDateTime.of(2022, 3, 1, 0, 0)), row(2, LocalDateTime.of(2022, 4, 30, 0, 0))));
+        when(creditScoreArchiveRepository.findArchivableAfter(any(), eq(2), eq(2))).thenReturn(List.of());
+        when(creditScoreArchiveRepository.moveToArchive(any())).thenReturn(2);
+
+        // Action
+        creditScoreArchiveService.archive();
+
+        // Assert
+        verify(creditScoreArchiveRepository).addMonthlyPartition(YearMonth.of(2022, 3));
+        verify(creditScoreArchiveRepository).addMonthlyPartition(YearMonth.of(2022, 4));
+        verify(creditScoreArchiveRepository, times(2)).addMonthlyPartition(any());
+    }
+
+    @Test
+    public void testRunStopsAfterTheBatchThatLostTheLease() {
+        // Setup
+        when(cronShardLeaseService.renew(anyString(), eq(0))).thenReturn(false);
+        when(creditScoreArchiveRepository.findLastPartitionMonth()).thenReturn(YearMonth.of(2023, 12));
+        when(creditScoreArchiveRepository.findArchivableAfter(any(), anyInt(), eq(2)))
+                .thenReturn(List.of(row(1, LocalDateTime.of(2023, 5, 1, 0, 0))));
+        when(creditScoreArchiveRepository.moveToArchive(any())).thenReturn(1);
+
+        // Action
+        long moved = creditScoreArchiveService.archive();
+
+        // Assert
+        assertEquals(1, moved);
+        verify(creditScoreArchiveRepository, times(1)).moveToArchive(any());
+        verify(creditScoreArchiveRepository, never()).addMonthlyPartition(any());
+    }
+
+    @Test
+    public void testRunIsSkippedWhileAnotherReplicaHoldsTheLease() {
+        // Setup
+        when(cronShardLeaseService.tryAcquire(anyString(), eq(0))).thenReturn(false);
+
+        // Action & Assert
+        assertEquals(0, creditScoreArchiveService.archive());
+        verifyNoInteractions(creditScoreArchiveRepository);
+    }
+}
@@ -0,0 +1,104 @@
+package com.ms.credit.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.client.UserManagementClient;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class CreditScoreCronJobServiceTest {
+
+    @InjectMocks
+    private CreditScoreCronJobService creditScoreCronJobService;
+
+    @Mock
+    private CreditScoreService creditScoreService;
+
+    @Mock
+    private UserManagementClient userManagementClient;
+
+    @Mock
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+
+    @Mock
+    private CronShardLeaseService cronShardLeaseService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(creditScoreCronJobService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(creditScoreCronJobService, "pageSize", 2);
+        ReflectionTestUtils.setField(creditScoreCronJobService, "threads", 2);
+        ReflectionTestUtils.setField(creditScoreCronJobService, "partitions", 2);
+        ReflectionTestUtils.setField(creditScoreCronJobService, "partitionConcurrency", 1);
+        ReflectionTestUtils.setField(creditScoreCronJobService, "mode", "local");
+        when(userManagementClient.getAllUserDetails(any())).thenReturn(Mono.just(Map.of()));
+        creditScoreCronJobService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        creditScoreCronJobService.shutdown();
+    }
+
+    @Test
+    public void testRunIsHandedOffAndWalksStaleUsersByKeysetPages() throws InterruptedException {
+        // Setup: the first page blocks until the scheduled method has returned
+        CountDownLatch scheduledReturned = new CountDownLatch(1);
+        when(currentCreditScoreRepository.findStaleUserIds(any(), eq(0), any())).thenAnswer(invocation -> {
+            scheduledReturned.await(5, TimeUnit.SECONDS);
+            return List.of(1, 2);
+        });
+        when(currentCreditScoreRepository.findStaleUserIds(any(), eq(2), any())).thenReturn(List.of(3));
+        when(currentCreditScoreRepository.findStaleUserIds(any(), eq(3), any())).thenReturn(List.of());
+
+        // Action
+        creditScoreCronJobService.processPendingClaims();
+        scheduledReturned.countDown();
+
+        // Assert
+        verify(creditScoreService, timeout(5000)).getCreditScoreByEmailId(1);
+        verify(creditScoreService, timeout(5000)).getCreditScoreByEmailId(2);
+        verify(creditScoreService, timeout(5000)).getCreditScoreByEmailId(3);
+        verify(creditScoreService, times(3)).getCreditScoreByEmailId(anyInt());
+    }
+
+    @Test
+    public void testDistributedRunMakesOnePassAndLeavesShardsHeldByOtherNodes() {
+        // Setup: two shards, and only the second can be leased by this node
+        ReflectionTestUtils.setField(creditScoreCronJobService, "mode", "distributed");
+        ReflectionTestUtils.setField(creditScoreCronJobService, "shards", 2);
+        when(cronShardLeaseService.getNodeId()).thenReturn("node-a");
+        when(cronShardLeaseService.tryAcquire(anyString(), eq(0))).thenReturn(false);
+        when(cronShardLeaseService.tryAcquire(anyString(), eq(1))).thenReturn(true);
+        when(cronShardLeaseService.renew(anyString(), eq(1))).thenReturn(true);
+        when(currentCreditScoreRepository.findStaleShardUserIds(any(), eq(0), eq(2), eq(1), any())).thenReturn(List.of(1));
+        when(currentCreditScoreRepository.findStaleShardUserIds(any(), eq(1), eq(2), eq(1), any())).thenReturn(List.of());
+
+        // Action
+        creditScoreCronJobService.processPendingClaims();
+
+        // Assert: shard 1 is completed, shard 0 is tried once and never waited on
+        verify(cronShardLeaseService, timeout(5000)).complete(anyString(), eq(1));
+        verify(creditScoreService).getCreditScoreByEmailId(1);
+        verify(cronShardLeaseService, times(1)).tryAcquire(anyString(), eq(0));
+        verify(cronShardLeaseService, never()).complete(anyString(), eq(0));
+    }
+}
@@ -0,0 +1,106 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.dto.RefreshProgressDTO;
+import com.ms.credit.entity.CreditScore;
+import com.ms.credit.repository.CreditScoreBatchRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CreditScoreRefreshServiceTest {
+
+    @InjectMocks
+    private CreditScoreRefreshService creditScoreRefreshService;
+
+    @Mock
+    private CreditScoreBatchRepository creditScoreBatchRepository;
+
+    @Mock
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+
+    @Mock
+    private CreditScoreCache creditScoreCache;
+
+    @Mock
+    private CreditScoreAggregateService creditScoreAggregateService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private RefreshRule refreshRule;
+
+    @Mock
+    private CronShardLeaseService cronShardLeaseService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(creditScoreRefreshService, "mode", "chunked");
+        ReflectionTestUtils.setField(creditScoreRefreshService, "chunkSize", 2);
+        ReflectionTestUtils.setField(creditScoreRefreshService, "pauseBetweenChunks", Duration.ZERO);
+        creditScoreRefreshService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        creditScoreRefreshService.shutdown();
+    }
+
+    @Test
+    public void testRefreshRunsInTheBackgroundAndReleasesItsLease() throws InterruptedException {
+        // Setup
+        CreditScore score = new CreditScore(1, 700L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        score.setId(1);
+        when(cronShardLeaseService.tryAcquire("score-refresh", 0)).thenReturn(true);
+        when(cronShardLeaseService.renew("score-refresh", 0)).thenReturn(true);
+        when(creditScoreBatchRepository.findPageAfter(0, 2)).thenReturn(List.of(score));
+        when(creditScoreBatchRepository.findPageAfter(1, 2)).thenReturn(List.of());
+        when(refreshRule.apply(anyLong())).thenReturn(650L);
+
+        // Action
+        RefreshProgressDTO started = creditScoreRefreshService.refresh();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (creditScoreRefreshService.getProgress().isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals("chunked", started.getMode());
+        RefreshProgressDTO finished = creditScoreRefreshService.getProgress();
+        assertFalse(finished.isRunning());
+        assertEquals(1, finished.getRowsUpdated());
+        assertEquals(1, finished.getChunks());
+        verify(creditScoreAggregateService).reconcile();
+        verify(cronShardLeaseService).release("score-refresh", 0);
+    }
+
+    @Test
+    public void testRefreshIsRejectedWhileAnotherReplicaHoldsTheLease() {
+        // Setup
+        when(cronShardLeaseService.tryAcquire("score-refresh", 0)).thenReturn(false);
+
+        // Action & Assert
+        assertThrows(IllegalStateException.class, () -> creditScoreRefreshService.refresh());
+        verify(creditScoreBatchRepository, never()).findPageAfter(anyInt(), anyInt());
+        assertNull(creditScoreRefreshService.getProgress().getStartedAt());
+    }
+}
@@ -1,27 +1,43 @@
 package com.ms.credit.service;
 
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
 
-import org.aspectj.lang.annotation.Before;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.ms.credit.repository.CreditScoreArchiveRepository;
+import com.ms.credit.repository.CreditScoreFeatureRepository;
+import com.ms.credit.repository.CreditScoreHistoryRepository;
 import com.ms.credit.repository.CreditScoreRepository;
+import com.ms.credit.repository.CurrentCreditScoreRepository;
 
 import reactor.core.publisher.Mono;
 
+import com.ms.credit.cache.CreditScoreCache;
+import com.ms.credit.cache.CreditScoreSnapshotService;
 import com.ms.credit.client.UserManagementClient;
 import com.ms.credit.dto.CreditScoreDTO;
 import com.ms.credit.dto.ScoreHistoryDTO;
 import com.ms.credit.entity.CreditScore;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.data.redis.core.RedisTemplate;
+import com.ms.credit.entity.CurrentCreditScore;
+import com.ms.credit.scoring.TransactionFeatureState;
+import com.ms.credit.scoring.TransactionScoringEngine;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.Optional;
+import java.util.Set;
 
 public class CreditScoreServiceTest {
 
@@ -32,17 +48,40 @@ public class CreditScoreServiceTest {
     private CreditScoreRepository creditScoreRepository;
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private CurrentCreditScoreRepository currentCreditScoreRepository;
+
+    @Mock
+    private CreditScoreHistoryRepository creditScoreHistoryRepository;
+
+    @Mock
+    private CreditScoreArchiveRepository creditScoreArchiveRepository;
+
+    @Mock
+    private CreditScoreFeatureRepository creditScoreFeatureRepository;
 
     @Mock
-    private RedisTemplate<String, Object> redisTemplate;
+    private NotificationGate notificationGate;
+
+    @Mock
+    private CreditScoreCache creditScoreCache;
+
+    @Mock
+    private CreditScoreSnapshotService creditScoreSnapshotService;
+
+    @Mock
+    private CreditScoreAggregateService creditScoreAggregateService;
 
     @Mock
     private UserManagementClient userManagementClient;
 
-    @Before(value = "")
+    @Mock
+    private TransactionScoringEngine transactionScoringEngine;
+
+    @BeforeEach
     public void setUp() {
-        MockitoAnnotations.initMocks(this);
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(creditScoreService, "historyDefaultPageSize", 100);
+        ReflectionTestUtils.setField(creditScoreService, "historyMaxPageSize", 1000);
     }
 
     @Test
@@ -51,14 +90,14 @@ public class CreditScoreServiceTest {
         String emailId = "test@example.com";
         CreditScore creditScore = new CreditScore();
         when(userManagementClient.getUserDetails(anyInt())).thenReturn(Mono.just(emailId));
-        when(redisTemplate.opsForValue().get(anyString())).thenReturn(creditScore);
+        when(creditScoreCache.get(anyInt())).thenReturn(creditScore);
 
         // Action
         CreditScoreDTO result = creditScoreService.getCreditScoreByEmailId(1);
 
         // Assert
         assertNotNull(result);
-        verify(kafkaTemplate).send(anyString(), any());
+        verify(notificationGate).offer(eq(1), any(), eq("test@example.com"));
     }
 
     @Test
@@ -66,48 +105,262 @@ public class CreditScoreServiceTest {
         // Setup
         CreditScoreDTO creditScoreDTO = new CreditScoreDTO(1, 700L, null);
         when(userManagementClient.getUserDetails(anyInt())).thenReturn(Mono.just("test@example.com"));
-        when(creditScoreRepository.save(any(CreditScore.class))).thenReturn(new CreditScore());
+        when(creditScoreRepository.saveAndFlush(any(CreditScore.class))).thenReturn(new CreditScore());
 
         // Action
         CreditScoreDTO result = creditScoreService.calculateCreditScore(creditScoreDTO);
 
         // Assert
         assertNotNull(result);
+        verify(currentCreditScoreRepository).refreshForUsers(anyCollection());
+        verify(creditScoreCache).put(any(CreditScore.class));
+    }
+
+    @Test
+    public void testCalculateCreditScoreStoresTheUsersEmail() {
+        // Setup
+        when(userManagementClient.getUserDetails(1)).thenReturn(Mono.just("test@example.com"));
+        when(creditScoreRepository.saveAndFlush(any(CreditScore.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Action
+        creditScoreService.calculateCreditScore(new CreditScoreDTO(1, 700L, null));
+
+        // Assert
+        verify(creditScoreRepository).saveAndFlush(argThat(score -> "test@example.com".equals(score.getEmailId())));
+    }
+
+    @Test
+    public void testCalculateCreditScoreForUnknownUserFails() {
+        // Setup
+        when(userManagementClient.getUserDetails(1)).thenReturn(Mono.empty());
+
+        // Action & Assert
+        assertThrows(IllegalArgumentException.class, () -> creditScoreService.calculateCreditScore(new CreditScoreDTO(1, 700L, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> creditScoreService.calculateCreditScoreReactive(new CreditScoreDTO(1, 700L, null)).block());
+        verify(creditScoreRepository, never()).saveAndFlush(any());
+        verify(creditScoreCache, never()).put(any());
+    }
+
+    @Test
+    public void testCalculateCreditScoreWithoutScoreUsesScoringModel() {
+        // Setup
+        when(userManagementClient.getUserDetails(1)).thenReturn(Mono.just("test@example.com"));
+        when(transactionScoringEngine.scoreWithCurrentModel(1)).thenReturn(712);
+        when(creditScoreRepository.saveAndFlush(any(CreditScore.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Action
+        CreditScoreDTO result = creditScoreService.calculateCreditScore(new CreditScoreDTO(1, null, null));
+
+        // Assert
+        assertEquals(712L, result.getScore());
+    }
+
+    @Test
+    public void testCalculateCreditScoreWithoutScoreOrTransactionsFails() {
+        // Setup
+        when(userManagementClient.getUserDetails(1)).thenReturn(Mono.just("test@example.com"));
+        when(transactionScoringEngine.scoreWithCurrentModel(1)).thenReturn(TransactionFeatureState.NO_SCORE);
+
+        // Action & Assert
+        assertThrows(IllegalArgumentException.class, () -> creditScoreService.calculateCreditScore(new CreditScoreDTO(1, null, null)));
+        verify(creditScoreRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testBatchScoresEntriesWithoutScoreFromStoredFeaturesInOneLookup() {
+        // Setup
+        when(transactionScoringEngine.scoreAllWithCurrentModel(Set.of(2))).thenReturn(Map.of(2, 640));
+
+        // Action
+        List<CreditScoreDTO> result = creditScoreService.calculateBatchCreditScores(
+                List.of(new CreditScoreDTO(1, 700L, null), new CreditScoreDTO(2, null, null)));
+
+        // Assert
+        assertEquals(700L, result.get(0).getScore());
+        assertEquals(640L, result.get(1).getScore());
+        verify(transactionScoringEngine, never()).scoreWithCurrentModel(anyInt());
     }
 
     @Test
     public void testDeleteCreditScoreByUserId() {
+        // Setup
+        when(creditScoreRepository.findScoresByUserId(1)).thenReturn(List.of(700L));
+        when(creditScoreArchiveRepository.findScoresByUserId(1)).thenReturn(List.of(500L));
+
         // Action
         creditScoreService.deleteCreditScoreByUserId(1);
 
         // Assert
         verify(creditScoreRepository).deleteByUserId(1);
+        verify(currentCreditScoreRepository).deleteByUserId(1);
+        verify(creditScoreArchiveRepository).deleteByUserId(1);
+        verify(creditScoreFeatureRepository).deleteByUserId(1);
+        verify(creditScoreCache).evict(1);
+        verify(creditScoreAggregateService).recordDeletes(List.of(700L, 500L));
     }
 
     @Test
     public void testGetCreditScoreHistoryByUserId() {
         // Setup
         List<CreditScore> history = new ArrayList<>();
-        history.add(new CreditScore());
-        when(creditScoreRepository.findByUserId(anyInt())).thenReturn(history);
+        history.add(new CreditScore(1, 700L, LocalDateTime.of(2024, 5, 1, 0, 0)));
+        history.add(new CreditScore(1, 650L, LocalDateTime.of(2024, 4, 1, 0, 0)));
+        when(creditScoreHistoryRepository.findPage(eq(1), any(), any(), any(), anyInt(), anyInt())).thenReturn(history);
 
         // Action
-        List<ScoreHistoryDTO> result = creditScoreService.getCreditScoreHistoryByUserId(1);
+        ScoreHistoryDTO result = creditScoreService.getCreditScoreHistoryByUserId(1, null, null, null, 10);
 
         // Assert
-        assertFalse(result.isEmpty());
+        assertEquals(1, result.getUserId());
+        assertEquals(2, result.getScores().size());
+        assertEquals("2024-05-01", result.getScores().get(0).getDate());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void testZeroMaxHistoryPageSizeIsRejected() {
+        // Setup
+        ReflectionTestUtils.setField(creditScoreService, "historyMaxPageSize", 0);
+
+        // Action & Assert
+        assertThrows(IllegalArgumentException.class, () -> creditScoreService.validateHistoryPageSizes());
+    }
+
+    @Test
+    public void testGetCreditScoreHistoryByUserIdReturnsCursorForNextPage() {
+        // Setup: the repository returns limit + 1 rows when another page follows
+        CreditScore newest = new CreditScore(1, 700L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        newest.setId(42);
+        CreditScore older = new CreditScore(1, 650L, LocalDateTime.of(2024, 4, 1, 0, 0));
+        when(creditScoreHistoryRepository.findPage(eq(1), any(), any(), any(), anyInt(), anyInt())).thenReturn(List.of(newest, older));
+
+        // Action
+        ScoreHistoryDTO first = creditScoreService.getCreditScoreHistoryByUserId(1, "2024-01-01", null, null, 1);
+        creditScoreService.getCreditScoreHistoryByUserId(1, "2024-01-01", null, first.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(1, first.getScores().size());
+        assertNotNull(first.getNextCursor());
+        verify(creditScoreHistoryRepository).findPage(eq(1), eq(LocalDateTime.of(2024, 1, 1, 0, 0)), any(),
+                eq(LocalDateTime.of(2024, 5, 1, 0, 0)), eq(42), eq(2));
     }
 
     @Test
     public void testGetAverageCreditScore() {
         // Setup
-        when(creditScoreRepository.findAll()).thenReturn(List.of(new CreditScore(), new CreditScore()));
+        when(creditScoreAggregateService.getAverage()).thenReturn(700.0);
 
         // Action
         double avgScore = creditScoreService.getAverageCreditScore();
 
         // Assert
-        assertNotNull(avgScore);
+        assertEquals(700.0, avgScore);
+        verify(creditScoreRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetCreditScoreByEmailIdReactiveFromCache() {
+        // Setup
+        CreditScore creditScore = new CreditScore(1, 720L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        when(userManagementClient.getUserDetails(anyInt())).thenReturn(Mono.just("test@example.com"));
+        when(creditScoreCache.getReactive(anyInt())).thenReturn(Mono.just(creditScore));
+
+        // Action
+        CreditScoreDTO result = creditScoreService.getCreditScoreByEmailIdReactive(1).block();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(720L, result.getScore());
+        verify(currentCreditScoreRepository, never()).findFirstByEmailId(anyString());
+        verify(notificationGate).offer(eq(1), any(), eq("test@example.com"));
+    }
+
+    @Test
+    public void testGetCreditScoreByEmailIdReactiveFallsBackToRepository() {
+        // Setup
+        CurrentCreditScore current = new CurrentCreditScore();
+        current.setUserId(1);
+        current.setScore(650L);
+        current.setDate(LocalDateTime.of(2024, 5, 1, 0, 0));
+        when(userManagementClient.getUserDetails(anyInt())).thenReturn(Mono.just("test@example.com"));
+        when(creditScoreCache.getReactive(anyInt())).thenReturn(Mono.empty());
+        when(currentCreditScoreRepository.findFirstByEmailId("test@example.com")).thenReturn(current);
+
+        // Action
+        CreditScoreDTO result = creditScoreService.getCreditScoreByEmailIdReactive(1).block();
+
+        // Assert
+        assertNotNull(result);
+        assertEquals(650L, result.getScore());
+        assertEquals("2024-05-01", result.getDate());
+        verify(creditScoreCache).fill(any(CreditScore.class));
+    }
+
+    @Test
+    public void testLookupCreditScoresQueriesOnlyCacheAndSnapshotMisses() {
+        // Setup
+        ReflectionTestUtils.setField(creditScoreService, "lookupMaxUsers", 1000);
+        Map<Integer, CreditScore> cached = new HashMap<>();
+        cached.put(1, new CreditScore(1, 700L, LocalDateTime.of(2024, 5, 1, 0, 0)));
+        when(creditScoreCache.getAll(List.of(3, 1, 2, 4))).thenReturn(cached);
+        when(creditScoreSnapshotService.get(2)).thenReturn(new CreditScore(2, 650L, LocalDateTime.of(2024, 5, 2, 0, 0)));
+        CurrentCreditScore current = new CurrentCreditScore();
+        current.setUserId(3);
+        current.setScore(600L);
+        when(currentCreditScoreRepository.findByUserIds(List.of(3, 4))).thenReturn(List.of(current));
+
+        // Action
+        List<CreditScoreDTO> result = creditScoreService.lookupCreditScores(List.of(3, 1, 2, 4, 1));
+
+        // Assert: request order, duplicates dropped, user 4 has no score
+        assertEquals(3, result.size());
+        assertEquals(600L, result.get(0).getScore());
+        assertEquals(700L, result.get(1).getScore());
+        assertEquals(650L, result.get(2).getScore());
+        verify(creditScoreCache).fillAll(argThat(scores -> scores.size() == 1 && scores.iterator().next().getUserId() == 3));
+        verify(notificationGate, never()).offer(anyInt(), any(), any());
+    }
+
+    @Test
+    public void testLookupCreditScoresRejectsTooManyUsers() {
+        ReflectionTestUtils.setField(creditScoreService, "lookupMaxUsers", 2);
+        assertThrows(IllegalArgumentException.class, () -> creditScoreService.lookupCreditScores(List.of(1, 2, 3)));
+        verify(creditScoreCache, never()).getAll(any());
+    }
+
+    @Test
+    public void testGetCreditScoreByEmailIdReadsSnapshotBeforeRepository() {
+        // Setup
+        CreditScore snapshotScore = new CreditScore(1, 640L, LocalDateTime.of(2024, 5, 1, 0, 0));
+        when(userManagementClient.getUserDetails(anyInt())).thenReturn(Mono.just("test@example.com"));
+        when(creditScoreCache.get(1)).thenReturn(null);
+        when(creditScoreSnapshotService.get(1)).thenReturn(snapshotScore);
+
+        // Action
+        CreditScoreDTO result = creditScoreService.getCreditScoreByEmailId(1);
+
+        // Assert
+        assertEquals(640L, result.getScore());
+        verify(currentCreditScoreRepository, never()).findFirstByEmailId(any());
+        verify(creditScoreCache, never()).fill(any(CreditScore.class));
+        verify(notificationGate).offer(eq(1), eq(640L), eq("test@example.com"));
+    }
+
+    @Test
+    public void testGetCreditScoreByUserIdReadsProjection() {
+        // Setup
+        CurrentCreditScore current = new CurrentCreditScore();
+        current.setUserId(1);
+        current.setScore(700L);
+        when(currentCreditScoreRepository.findById(1)).thenReturn(Optional.of(current));
+
+        // Action
+        CreditScoreDTO result = creditScoreService.getCreditScoreByUserId(1);
+
+        // Assert
+        assertEquals(700L, result.getScore());
+        verifyNoInteractions(creditScoreRepository);
     }
 
     // Add more tests for other methods...
@@ -0,0 +1,104 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.EmbeddedRedisExtension;
+import java.time.Duration;
+
+public class CronShardLeaseServiceTest {
+
+    @RegisterExtension
+    static EmbeddedRedisExtension redis = new EmbeddedRedisExtension();
+
+    private CronShardLeaseService nodeA;
+    private CronShardLeaseService nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        nodeA = node();
+        nodeB = node();
+    }
+
+    private static CronShardLeaseService node() {
+        CronShardLeaseService node = new CronShardLeaseService();
+        ReflectionTestUtils.setField(node, "stringRedisTemplate", redis.getTemplate());
+        ReflectionTestUtils.setField(node, "leaseTtl", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(node, "doneTtl", Duration.ofHours(2));
+        return node;
+    }
+
+    @Test
+    public void testLeaseIsExclusiveUntilItExpiresAndIsThenTakenOver() throws InterruptedException {
+        // Setup
+        assertTrue(nodeA.tryAcquire("run-1", 3));
+
+        // Assert: held by node A
+        assertFalse(nodeB.tryAcquire("run-1", 3));
+
+        // Action: node A stops renewing
+        Thread.sleep(500);
+
+        // Assert: node B takes the shard over and node A can no longer renew or complete it
+        assertTrue(nodeB.tryAcquire("run-1", 3));
+        assertFalse(nodeA.renew("run-1", 3));
+        nodeA.complete("run-1", 3);
+        assertFalse(nodeA.isDone("run-1", 3));
+        assertTrue(nodeB.renew("run-1", 3));
+    }
+
+    @Test
+    public void testRenewKeepsTheLeaseAlive() throws InterruptedException {
+        // Setup
+        assertTrue(nodeA.tryAcquire("run-1", 0));
+
+        // Action: renew more often than the lease expires, for longer than one lease
+        for (int i = 0; i < 4; i++) {
+            Thread.sleep(150);
+            assertTrue(nodeA.renew("run-1", 0));
+        }
+
+        // Assert
+        assertFalse(nodeB.tryAcquire("run-1", 0));
+    }
+
+    @Test
+    public void testCompletedShardIsDoneForEveryNodeAndCannotBeAcquiredAgain() throws InterruptedException {
+        // Setup
+        assertTrue(nodeA.tryAcquire("run-1", 5));
+
+        // Action
+        nodeA.complete("run-1", 5);
+
+        // Assert: the done marker outlives the lease
+        Thread.sleep(500);
+        assertTrue(nodeB.isDone("run-1", 5));
+        assertFalse(nodeB.tryAcquire("run-1", 5));
+        assertFalse(nodeA.tryAcquire("run-1", 5));
+        // A later run starts with the shard open
+        assertFalse(nodeB.isDone("run-2", 5));
+        assertTrue(nodeB.tryAcquire("run-2", 5));
+        // The marker expires on its own rather than accumulating
+        assertTrue(redis.getTemplate().getExpire("credit-cron:run-1:done:5") > 0);
+    }
+
+    @Test
+    public void testReleaseFreesTheShardWithoutMarkingItDone() {
+        // Setup
+        assertTrue(nodeA.tryAcquire("run-1", 7));
+
+        // Action: another node's release is ignored, the owner's is not
+        nodeB.release("run-1", 7);
+        assertFalse(nodeB.tryAcquire("run-1", 7));
+        nodeA.release("run-1", 7);
+
+        // Assert
+        assertFalse(nodeA.isDone("run-1", 7));
+        assertTrue(nodeB.tryAcquire("run-1", 7));
+    }
+}
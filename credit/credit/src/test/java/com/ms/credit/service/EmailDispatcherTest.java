@@ -0,0 +1,121 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class EmailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @SuppressWarnings("unchecked")
+    private final ListOperations<String, String> listOperations = mock(ListOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailDispatcher dispatcher;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testSendsQueuedEmailsThroughSmtp() throws Exception {
+        // Setup
+        dispatcher = dispatcher(greenMail.getSmtp().getPort(), 5);
+
+        // Action
+        dispatcher.submit("a@one.example", "Credit Score Update", "700");
+        dispatcher.submit("b@one.example", "Credit Score Update", "710");
+        dispatcher.submit("c@two.example", "Credit Score Update", "720");
+
+        // Assert
+        assertTrue(greenMail.waitForIncomingEmail(5000, 3));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(3, received.length);
+        assertEquals("Credit Score Update", received[0].getSubject());
+        verify(listOperations, never()).leftPush(anyString(), anyString());
+    }
+
+    @Test
+    public void testDeadLettersEmailAfterLastAttempt() throws Exception {
+        // Setup: nothing listens on the port, so every attempt fails
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        dispatcher = dispatcher(closedPort, 2);
+
+        // Action
+        dispatcher.submit("a@one.example", "Credit Score Update", "700");
+
+        // Assert
+        verify(listOperations, timeout(5000)).leftPush(eq(EmailDispatcher.DEAD_LETTER_KEY), contains("\"attempts\":2"));
+        assertEquals(1.0, meterRegistry.counter("credit.email", "result", "retried").count());
+    }
+
+    @Test
+    public void testDomainBucketGivesEachReservationItsOwnSlot() {
+        // Setup: 2 per second, so a burst of 2 and then one slot every 500 ms
+        EmailDispatcher.DomainBucket bucket = new EmailDispatcher.DomainBucket(2);
+        long millis = TimeUnit.MILLISECONDS.toNanos(1);
+
+        // Action
+        long first = bucket.reserve();
+        long second = bucket.reserve();
+        long third = bucket.reserve();
+        long fourth = bucket.reserve();
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(0, second);
+        assertTrue(third > 450 * millis && third <= 500 * millis);
+        assertTrue(fourth > 950 * millis && fourth <= 1000 * millis);
+    }
+
+    private EmailDispatcher dispatcher(int smtpPort, int maxAttempts) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForList()).thenReturn(listOperations);
+
+        EmailDispatcher emailDispatcher = new EmailDispatcher();
+        ReflectionTestUtils.setField(emailDispatcher, "emailSender", mailSender);
+        ReflectionTestUtils.setField(emailDispatcher, "stringRedisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(emailDispatcher, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(emailDispatcher, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(emailDispatcher, "queueCapacity", 100);
+        ReflectionTestUtils.setField(emailDispatcher, "submitTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(emailDispatcher, "workers", 2);
+        ReflectionTestUtils.setField(emailDispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(emailDispatcher, "domainRate", 100.0);
+        ReflectionTestUtils.setField(emailDispatcher, "maxAttempts", maxAttempts);
+        ReflectionTestUtils.setField(emailDispatcher, "retryBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(emailDispatcher, "maxBackoff", Duration.ofMillis(100));
+        ReflectionTestUtils.setField(emailDispatcher, "deadLetterMaxSize", 100L);
+        ReflectionTestUtils.setField(emailDispatcher, "shutdownGrace", Duration.ofSeconds(1));
+        emailDispatcher.init();
+        return emailDispatcher;
+    }
+}
@@ -0,0 +1,182 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.EmbeddedRedisExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class NotificationGateTest {
+
+    @RegisterExtension
+    static EmbeddedRedisExtension redis = new EmbeddedRedisExtension();
+
+    private static final Duration WINDOW = Duration.ofMillis(200);
+
+    private NotificationPublisher notificationPublisher;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        notificationPublisher = mock(NotificationPublisher.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private NotificationGate gate(Duration debounceWindow) {
+        NotificationGate gate = new NotificationGate();
+        ReflectionTestUtils.setField(gate, "stringRedisTemplate", redis.getTemplate());
+        ReflectionTestUtils.setField(gate, "notificationPublisher", notificationPublisher);
+        ReflectionTestUtils.setField(gate, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(gate, "debounceWindow", debounceWindow);
+        ReflectionTestUtils.setField(gate, "stateTtl", Duration.ofDays(30));
+        ReflectionTestUtils.setField(gate, "flushBatchSize", 500);
+        return gate;
+    }
+
+    private double outcomes(String result) {
+        return meterRegistry.counter("credit.notifications.gate", "result", result).count();
+    }
+
+    private static void waitOutTheWindow() throws InterruptedException {
+        Thread.sleep(WINDOW.toMillis() + 100);
+    }
+
+    @Test
+    public void testSameScoreIsSuppressedAndAChangeIsPublishedAtOnceWithoutAWindow() {
+        // Setup
+        NotificationGate gate = gate(Duration.ZERO);
+
+        // Action
+        gate.offer(1, 700L, "a@example.com");
+        gate.offer(1, 700L, "a@example.com");
+        gate.offer(1, 710L, "a@example.com");
+
+        // Assert
+        verify(notificationPublisher).publish(1, 700L, "a@example.com");
+        verify(notificationPublisher).publish(1, 710L, "a@example.com");
+        verifyNoMoreInteractions(notificationPublisher);
+        assertEquals(1.0, outcomes("suppressed"));
+    }
+
+    @Test
+    public void testChangeIsScheduledAndPublishedOnlyOnceItsWindowHasEnded() throws InterruptedException {
+        // Setup
+        NotificationGate gate = gate(WINDOW);
+
+        // Action
+        gate.offer(1, 700L, "a@example.com");
+        gate.flushDue();
+
+        // Assert: not due yet
+        verify(notificationPublisher, never()).publish(anyInt(), any(), any());
+        assertEquals(1.0, outcomes("scheduled"));
+
+        // Action
+        waitOutTheWindow();
+        gate.flushDue();
+        gate.flushDue();
+        gate.offer(1, 700L, "a@example.com");
+
+        // Assert: published once, and the same score is suppressed afterwards
+        verify(notificationPublisher).publish(1, 700L, "a@example.com");
+        verifyNoMoreInteractions(notificationPublisher);
+        assertEquals(1.0, outcomes("suppressed"));
+    }
+
+    @Test
+    public void testChangesInsideTheWindowAreCoalescedIntoTheLatest() throws InterruptedException {
+        // Setup
+        NotificationGate gate = gate(WINDOW);
+
+        // Action
+        gate.offer(1, 700L, "a@example.com");
+        gate.offer(1, 710L, "a@example.com");
+        gate.offer(1, 720L, "b@example.com");
+        waitOutTheWindow();
+        gate.flushDue();
+
+        // Assert
+        verify(notificationPublisher).publish(1, 720L, "b@example.com");
+        verifyNoMoreInteractions(notificationPublisher);
+        assertEquals(2.0, outcomes("coalesced"));
+    }
+
+    @Test
+    public void testChangeThatRevertsToTheLastNotifiedScoreIsNotPublished() throws InterruptedException {
+        // Setup: 700 has been notified
+        NotificationGate gate = gate(WINDOW);
+        gate.offer(1, 700L, "a@example.com");
+        waitOutTheWindow();
+        gate.flushDue();
+        clearInvocations(notificationPublisher);
+
+        // Action: the score moves away and back inside one window
+        gate.offer(1, 710L, "a@example.com");
+        gate.offer(1, 700L, "a@example.com");
+        waitOutTheWindow();
+        gate.flushDue();
+
+        // Assert
+        verifyNoInteractions(notificationPublisher);
+
+        // Action: the next change is scheduled again rather than coalesced into a stale pending value
+        gate.offer(1, 730L, "a@example.com");
+        waitOutTheWindow();
+        gate.flushDue();
+
+        // Assert
+        verify(notificationPublisher).publish(1, 730L, "a@example.com");
+    }
+
+    @Test
+    public void testDueChangeIsPublishedOnceAcrossConcurrentFlushes() throws Exception {
+        // Setup: two replicas share the Redis state
+        NotificationGate replicaA = gate(WINDOW);
+        NotificationGate replicaB = gate(WINDOW);
+        for (int userId = 1; userId <= 100; userId++) {
+            replicaA.offer(userId, 700L + userId, "user" + userId + "@example.com");
+        }
+        waitOutTheWindow();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Action
+        try {
+            Future<?> a = pool.submit(() -> {
+                start.await();
+                replicaA.flushDue();
+                return null;
+            });
+            Future<?> b = pool.submit(() -> {
+                start.await();
+                replicaB.flushDue();
+                return null;
+            });
+            start.countDown();
+            a.get(5, TimeUnit.SECONDS);
+            b.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Assert
+        for (int userId = 1; userId <= 100; userId++) {
+            verify(notificationPublisher).publish(userId, 700L + userId, "user" + userId + "@example.com");
+        }
+        verifyNoMoreInteractions(notificationPublisher);
+        assertEquals(100.0, outcomes("published"));
+    }
+}
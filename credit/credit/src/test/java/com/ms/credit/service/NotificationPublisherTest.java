@@ -0,0 +1,68 @@
+package com.ms.credit.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ms.credit.dto.NotificationDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class NotificationPublisherTest {
+
+    @InjectMocks
+    private NotificationPublisher notificationPublisher;
+
+    @Mock
+    private KafkaTemplate<String, NotificationDTO> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(notificationPublisher, "meterRegistry", meterRegistry);
+        notificationPublisher.init();
+    }
+
+    @Test
+    public void testPublishSendsKeyedRecord() {
+        // Setup
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // Action
+        notificationPublisher.publish(42, 700L, "test@example.com");
+
+        // Assert
+        verify(kafkaTemplate).send(eq("credit-score-updates"), eq("42"), any(NotificationDTO.class));
+        assertEquals(1.0, count("sent"));
+    }
+
+    @Test
+    public void testFailedSendIsCountedAndNotResent() {
+        // Setup: the producer has already retried until its delivery timeout
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // Action
+        notificationPublisher.publish(42, 700L, "test@example.com");
+
+        // Assert
+        verify(kafkaTemplate, times(1)).send(anyString(), anyString(), any());
+        assertEquals(1.0, count("failed"));
+        assertEquals(0.0, count("sent"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("credit.notifications", "result", result).count();
+    }
+}
@@ -1,8 +1,11 @@
 package com.credit.userms.controller;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -23,6 +26,10 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    // Maximum number of ids accepted by one batch lookup.
+    @Value("${userms.batch.max-size:1000}")
+    private int batchMaxSize;
+
     @PostMapping("/register")
     public ResponseEntity<UserDTO> registerUser(@RequestBody User user, HttpServletRequest request) {
         UserDTO userDTO = userService.registerUser(user);
@@ -59,5 +66,12 @@ public class UserController {
         }
         return ResponseEntity.notFound().build();
     }
-}
 
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, String>> getUsersByIds(@RequestBody List<Long> userIds) {
+        if (userIds.size() > batchMaxSize) {
+            return ResponseEntity.badRequest().build(); // Bounds the IN list of the single query below
+        }
+        return ResponseEntity.ok(userService.getUserEmails(userIds)); // Resolves many ids to emails in one round-trip
+    }
+}
@@ -1,5 +1,9 @@
 package com.credit.userms.service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -42,5 +46,12 @@ public class UserService {
         }
         return null;
 	}
-}
 
+    public Map<Long, String> getUserEmails(List<Long> userIds) {
+        Map<Long, String> emails = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {  // Single IN query for the whole batch.
+            emails.put(user.getId(), user.getEmail());
+        }
+        return emails;
+    }
+}
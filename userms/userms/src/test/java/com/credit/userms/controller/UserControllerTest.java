@@ -0,0 +1,54 @@
+package com.credit.userms.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.credit.userms.service.UserService;
+
+class UserControllerTest {
+
+	@InjectMocks
+	private UserController userController;
+
+	@Mock
+	private UserService userService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(userController, "batchMaxSize", 2);
+	}
+
+	@Test
+	void batchLookupReturnsEmailsOfKnownUsers() {
+		when(userService.getUserEmails(List.of(1L, 2L))).thenReturn(Map.of(1L, "a@example.com"));
+
+		ResponseEntity<Map<Long, String>> response = userController.getUsersByIds(List.of(1L, 2L));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(Map.of(1L, "a@example.com"), response.getBody());
+	}
+
+	@Test
+	void batchLookupRejectsMoreIdsThanTheMaximum() {
+		ResponseEntity<Map<Long, String>> response = userController.getUsersByIds(List.of(1L, 2L, 3L));
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verify(userService, never()).getUserEmails(any());
+	}
+}